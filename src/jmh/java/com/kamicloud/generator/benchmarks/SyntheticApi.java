@@ -0,0 +1,84 @@
+package com.kamicloud.generator.benchmarks;
+
+import com.kamicloud.generator.GeneratorCli;
+import com.kamicloud.generator.config.GeneratorSettings;
+import com.kamicloud.generator.fixtures.TemplateFixture;
+import com.kamicloud.generator.parsers.DocParser;
+import com.kamicloud.generator.parsers.Parser;
+import com.kamicloud.generator.parsers.TemplateCompiler;
+import com.kamicloud.generator.stubs.core.OutputStub;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * benchmark 使用的模板，规模由 apiSize 决定
+ * <p>
+ * apiSize 个控制器，每个控制器 5 个接口；apiSize 个模型，每 4 个组成继承链；apiSize / 5 + 1 个枚举。
+ * 模型不加 @RESTFul，stub 文件为 Index.stub，区分大小写的文件系统上找不到 laravel/restful/index。
+ */
+public class SyntheticApi {
+    private static final int ACTIONS_PER_CONTROLLER = 5;
+
+    private final File root;
+    private final DefaultListableBeanFactory beanFactory;
+
+    /**
+     * 生成模板源码并创建解析器、处理器
+     *
+     * @param apiSize 控制器数量
+     */
+    public SyntheticApi(int apiSize) throws IOException {
+        root = Files.createTempDirectory("generator-jmh").toFile();
+
+        new TemplateFixture()
+            .setControllers(apiSize)
+            .setActionsPerController(ACTIONS_PER_CONTROLLER)
+            .setModels(apiSize)
+            .setEnums(apiSize / 5 + 1)
+            .setExtendsDepth(4)
+            .setRestfulEvery(0)
+            .write(root);
+
+        beanFactory = GeneratorCli.createBeanFactory(
+            "--generator.template-path=" + root.getAbsolutePath(),
+            // 清单不保存，每次都实际写入
+            "--generator.manifest-path=" + new File(root, "manifest.json").getAbsolutePath(),
+            "--generator.writers.laravel.path=" + new File(root, "output").getAbsolutePath(),
+            "--logging.level.root=WARN"
+        );
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return beanFactory.getBean(type);
+    }
+
+    public File getOutputDir() {
+        return new File(root, "output");
+    }
+
+    /**
+     * 编译并解析模板，包含注释
+     */
+    public OutputStub parse() {
+        getBean(DocParser.class).parse();
+
+        OutputStub output = getBean(OutputStub.class);
+        output.reset();
+        getBean(Parser.class).parse(getBean(TemplateCompiler.class).compile());
+        output.postParse(getBean(GeneratorSettings.class).getUrlPrefix());
+
+        return output;
+    }
+
+    public void delete() throws IOException {
+        try (Stream<Path> paths = Files.walk(root.toPath())) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+}
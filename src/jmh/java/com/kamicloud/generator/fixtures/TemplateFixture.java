@@ -0,0 +1,332 @@
+package com.kamicloud.generator.fixtures;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * 生成指定规模的模板源码，用于性能及内存测试
+ * <p>
+ * 输出目录结构与 generator.template-path 相同，包含 templates/TemplateList.java、Errors.java 及 TemplateV*.java，
+ * 可直接交给 DocParser、TemplateCompiler 解析。
+ * <p>
+ * ./gradlew templateFixture -Pargs="--output=./build/fixtures --controllers=1000 --actions=10 --models=2000 --extends-depth=8"
+ */
+public class TemplateFixture {
+    private static final Logger log = LoggerFactory.getLogger(TemplateFixture.class);
+
+    private int versions = 1;
+    private int controllers = 100;
+    private int actionsPerController = 10;
+    private int models = 200;
+    private int enums = 20;
+    private int errors = 20;
+
+    /**
+     * 模型继承链的长度，1 为不继承
+     */
+    private int extendsDepth = 1;
+
+    /**
+     * 每隔多少个模型添加 @RESTFul，0 为不添加
+     */
+    private int restfulEvery = 4;
+
+    public TemplateFixture setVersions(int versions) {
+        this.versions = Math.max(1, versions);
+        return this;
+    }
+
+    public TemplateFixture setControllers(int controllers) {
+        this.controllers = controllers;
+        return this;
+    }
+
+    public TemplateFixture setActionsPerController(int actionsPerController) {
+        this.actionsPerController = actionsPerController;
+        return this;
+    }
+
+    public TemplateFixture setModels(int models) {
+        this.models = Math.max(1, models);
+        return this;
+    }
+
+    public TemplateFixture setEnums(int enums) {
+        this.enums = Math.max(1, enums);
+        return this;
+    }
+
+    public TemplateFixture setErrors(int errors) {
+        this.errors = errors;
+        return this;
+    }
+
+    public TemplateFixture setExtendsDepth(int extendsDepth) {
+        this.extendsDepth = Math.max(1, extendsDepth);
+        return this;
+    }
+
+    public TemplateFixture setRestfulEvery(int restfulEvery) {
+        this.restfulEvery = restfulEvery;
+        return this;
+    }
+
+    /**
+     * @param templatePath 对应 generator.template-path
+     */
+    public void write(File templatePath) throws IOException {
+        File templateDir = new File(templatePath, "templates");
+        if (!templateDir.exists()) {
+            templateDir.mkdirs();
+        }
+
+        write(new File(templateDir, "TemplateList.java"), templateList());
+        write(new File(templateDir, "Errors.java"), errorsTemplate());
+        for (int version = 1; version <= versions; version++) {
+            write(new File(templateDir, templateName(version) + ".java"), template(version));
+        }
+
+        log.info(
+            "Fixture written to {}: {} version(s), {} actions, {} models, {} enums per version",
+            templateDir,
+            versions,
+            controllers * actionsPerController,
+            models,
+            enums
+        );
+    }
+
+    private static void write(File file, String content) throws IOException {
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String templateName(int version) {
+        return "TemplateV" + version;
+    }
+
+    private String templateList() {
+        StringBuilder source = new StringBuilder();
+
+        source.append("package templates;\n\n")
+            .append("@SuppressWarnings(\"unused\")\n")
+            .append("public class TemplateList {\n")
+            .append("    public static Class<?>[] templates = new Class[] {\n");
+        for (int version = 1; version <= versions; version++) {
+            source.append("        ").append(templateName(version)).append(".class,\n");
+        }
+        source.append("    };\n\n")
+            .append("    public static Class<? extends Enum<?>> errorsTemplate = Errors.class;\n\n")
+            .append("    public static Class<?> currentTemplate = ").append(templateName(versions)).append(".class;\n")
+            .append("}\n");
+
+        return source.toString();
+    }
+
+    private String errorsTemplate() {
+        StringBuilder source = new StringBuilder();
+
+        source.append("package templates;\n\n")
+            .append("import definitions.annotations.ErrorInterface;\n\n")
+            .append("@SuppressWarnings(\"unused\")\n")
+            .append("public enum Errors implements ErrorInterface {\n")
+            .append("    /** 服务器内部错误，等同于500 */\n")
+            .append("    SERVER_INTERNAL_ERROR(-1),\n");
+        for (int i = 0; i < errors; i++) {
+            source.append("    /** 错误").append(i).append(" */\n")
+                .append("    ERROR_").append(i).append("(").append(10000 + i).append("),\n");
+        }
+        source.append("    ;\n")
+            .append("    int value;\n\n")
+            .append("    Errors(int value) {\n")
+            .append("        this.value = value;\n")
+            .append("    }\n\n")
+            .append("    @Override\n")
+            .append("    public int getValue() {\n")
+            .append("        return value;\n")
+            .append("    }\n")
+            .append("}\n");
+
+        return source.toString();
+    }
+
+    private String template(int version) {
+        StringBuilder source = new StringBuilder();
+
+        source.append("package templates;\n\n")
+            .append("import definitions.annotations.*;\n")
+            .append("import definitions.types.*;\n\n")
+            .append("import java.util.Date;\n\n")
+            .append("/**\n")
+            .append(" * 生成的模板 V").append(version).append("\n")
+            .append(" */\n")
+            .append("@SuppressWarnings(\"unused\")\n")
+            .append("class ").append(templateName(version)).append(" {\n");
+
+        appendEnums(source);
+        appendModels(source);
+        appendControllers(source);
+
+        source.append("}\n");
+
+        return source.toString();
+    }
+
+    private void appendEnums(StringBuilder source) {
+        source.append("    public static class Enums {\n");
+        for (int i = 0; i < enums; i++) {
+            source.append("        /**\n")
+                .append("         * 枚举").append(i).append("\n")
+                .append("         */\n");
+            if (i % 2 == 0) {
+                source.append("        @StringEnum\n");
+            }
+            source.append("        enum Enum").append(i).append(" {\n")
+                .append("            /** 初始 */\n")
+                .append("            INIT,\n")
+                .append("            /** 启用 */\n")
+                .append("            ENABLED,\n")
+                .append("            // 禁用\n")
+                .append("            DISABLED,\n")
+                .append("        }\n\n");
+        }
+        source.append("    }\n\n");
+    }
+
+    private void appendModels(StringBuilder source) {
+        source.append("    public class Models {\n");
+        for (int i = 0; i < models; i++) {
+            source.append("        /**\n")
+                .append("         * 模型").append(i).append("\n")
+                .append("         *\n")
+                .append("         * 第二行描述\n")
+                .append("         */\n");
+            if (restfulEvery > 0 && i % restfulEvery == 0) {
+                source.append("        @RESTFul\n");
+            }
+            source.append("        class Model").append(i);
+            // 每 extendsDepth 个模型组成一条继承链
+            if (i % extendsDepth != 0) {
+                source.append(" extends Model").append(i - 1);
+            }
+            source.append(" {\n")
+                .append("            /**\n")
+                .append("             * 主键\n")
+                .append("             */\n")
+                .append("            @DBField(\"id\")\n")
+                .append("            @Mutable\n")
+                .append("            Integer id").append(i).append(";\n")
+                .append("            /** 名称 */\n")
+                .append("            @DBField\n")
+                .append("            String name").append(i).append(";\n")
+                .append("            @Optional\n")
+                .append("            String description").append(i).append(";\n")
+                .append("            Enums.Enum").append(i % enums).append(" status").append(i).append(";\n")
+                .append("            @Optional\n")
+                .append("            Boolean enabled").append(i).append(";\n")
+                .append("            Date createdAt").append(i).append(";\n")
+                .append("        }\n\n");
+        }
+        source.append("    }\n\n");
+    }
+
+    private void appendControllers(StringBuilder source) {
+        source.append("    class Controllers {\n");
+        for (int i = 0; i < controllers; i++) {
+            source.append("        /**\n")
+                .append("         * 控制器").append(i).append("\n")
+                .append("         */\n")
+                .append("        class Controller").append(i).append(" {\n");
+            for (int j = 0; j < actionsPerController; j++) {
+                int action = i * actionsPerController + j;
+                String model = "Models.Model" + action % models;
+
+                source.append("            /**\n")
+                    .append("             * 接口").append(j).append("\n")
+                    .append("             *\n")
+                    .append("             * 接口描述\n")
+                    .append("             */\n");
+                if (j % 3 == 0) {
+                    source.append("            @Methods({MethodType.POST})\n");
+                } else if (j % 3 == 1) {
+                    source.append("            @Methods({MethodType.GET, MethodType.POST})\n");
+                }
+                source.append("            class Action").append(j).append(" {\n")
+                    .append("                /**\n")
+                    .append("                 * 查询的ID\n")
+                    .append("                 */\n")
+                    .append("                @Request\n")
+                    .append("                Integer id;\n")
+                    .append("                @Request\n")
+                    .append("                @Optional\n")
+                    .append("                Integer page;\n")
+                    .append("                @Request\n")
+                    .append("                Enums.Enum").append(action % enums).append(" status;\n")
+                    .append("                @Request\n")
+                    .append("                @Optional\n")
+                    .append("                String[] keywords;\n")
+                    .append("                @Request\n")
+                    .append("                @Optional\n")
+                    .append("                ").append(model).append(" filter;\n")
+                    .append("                @Response\n")
+                    .append("                ").append(model).append(" model;\n")
+                    .append("                @Response\n")
+                    .append("                Models.Model").append((action + 1) % models).append("[] models;\n")
+                    .append("            }\n\n");
+            }
+            source.append("        }\n\n");
+        }
+        source.append("    }\n");
+    }
+
+    public static void main(String[] args) throws IOException {
+        String output = "./build/fixtures";
+        TemplateFixture fixture = new TemplateFixture();
+
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                continue;
+            }
+            String key = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+
+            switch (key) {
+                case "output":
+                    output = value;
+                    break;
+                case "versions":
+                    fixture.setVersions(Integer.parseInt(value));
+                    break;
+                case "controllers":
+                    fixture.setControllers(Integer.parseInt(value));
+                    break;
+                case "actions":
+                    fixture.setActionsPerController(Integer.parseInt(value));
+                    break;
+                case "models":
+                    fixture.setModels(Integer.parseInt(value));
+                    break;
+                case "enums":
+                    fixture.setEnums(Integer.parseInt(value));
+                    break;
+                case "errors":
+                    fixture.setErrors(Integer.parseInt(value));
+                    break;
+                case "extends-depth":
+                    fixture.setExtendsDepth(Integer.parseInt(value));
+                    break;
+                case "restful-every":
+                    fixture.setRestfulEvery(Integer.parseInt(value));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option --" + key);
+            }
+        }
+
+        fixture.write(new File(output));
+    }
+}
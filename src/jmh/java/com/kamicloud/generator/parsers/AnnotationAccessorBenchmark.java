@@ -0,0 +1,88 @@
+package com.kamicloud.generator.parsers;
+
+import com.kamicloud.generator.benchmarks.SyntheticApi;
+import com.kamicloud.generator.stubs.core.AnnotationStub;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 已编译模板中所有注解转换成 AnnotationStub，对比反射调用与 AnnotationAccessor
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AnnotationAccessorBenchmark {
+    @Param({"100"})
+    int apiSize;
+
+    private SyntheticApi api;
+    private Annotation[] annotations;
+
+    @Setup
+    public void setUp() throws IOException {
+        api = new SyntheticApi(apiSize);
+        api.parse();
+
+        List<Annotation> annotations = new ArrayList<>();
+        collect(api.getBean(TemplateCompiler.class).compile(), annotations);
+        this.annotations = annotations.toArray(new Annotation[0]);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        api.delete();
+    }
+
+    private static void collect(Class<?> clazz, List<Annotation> annotations) {
+        annotations.addAll(Arrays.asList(clazz.getAnnotations()));
+        Arrays.asList(clazz.getDeclaredFields()).forEach(field -> annotations.addAll(Arrays.asList(field.getAnnotations())));
+        Arrays.asList(clazz.getDeclaredClasses()).forEach(inner -> collect(inner, annotations));
+
+        if (clazz.getSimpleName().equals("TemplateList")) {
+            try {
+                for (Class<?> template : (Class<?>[]) clazz.getField("templates").get(null)) {
+                    collect(template, annotations);
+                }
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /**
+     * 改动前 Parser.parseAnnotations 的做法
+     */
+    @Benchmark
+    public void reflection(Blackhole blackhole) throws Exception {
+        for (Annotation annotation : annotations) {
+            Class<?> annotationClass = annotation.annotationType();
+            AnnotationStub annotationStub = new AnnotationStub(annotationClass.getSimpleName());
+
+            for (Method method : annotationClass.getDeclaredMethods()) {
+                Object value = method.invoke(annotation);
+
+                if (value.getClass().isArray()) {
+                    Arrays.asList((Object[]) value).forEach(subValue -> annotationStub.addValue(subValue.toString()));
+                } else {
+                    annotationStub.setValue(value.toString());
+                }
+            }
+            blackhole.consume(annotationStub);
+        }
+    }
+
+    @Benchmark
+    public void accessor(Blackhole blackhole) {
+        for (Annotation annotation : annotations) {
+            blackhole.consume(AnnotationAccessor.of(annotation.annotationType()).toStub(annotation));
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.kamicloud.generator.parsers;
+
+import com.kamicloud.generator.benchmarks.SyntheticApi;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DocParser.parse 解析模板源码中的注释
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DocParserBenchmark {
+    @Param({"10", "100", "1000"})
+    int apiSize;
+
+    private SyntheticApi api;
+    private DocParser docParser;
+
+    @Setup
+    public void setUp() throws IOException {
+        api = new SyntheticApi(apiSize);
+        docParser = api.getBean(DocParser.class);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        api.delete();
+    }
+
+    @Benchmark
+    public ConcurrentHashMap<String, String> parse() {
+        docParser.parse();
+
+        return DocParser.classDocHashMap;
+    }
+}
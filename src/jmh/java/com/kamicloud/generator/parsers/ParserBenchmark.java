@@ -0,0 +1,47 @@
+package com.kamicloud.generator.parsers;
+
+import com.kamicloud.generator.benchmarks.SyntheticApi;
+import com.kamicloud.generator.stubs.core.OutputStub;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parser.parse 解析已编译的模板
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ParserBenchmark {
+    @Param({"10", "100", "1000"})
+    int apiSize;
+
+    private SyntheticApi api;
+    private Parser parser;
+    private OutputStub output;
+    private Class<?> templateList;
+
+    @Setup
+    public void setUp() throws IOException {
+        api = new SyntheticApi(apiSize);
+        api.parse();
+
+        parser = api.getBean(Parser.class);
+        output = api.getBean(OutputStub.class);
+        templateList = api.getBean(TemplateCompiler.class).compile();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        api.delete();
+    }
+
+    @Benchmark
+    public OutputStub parse() {
+        output.reset();
+        parser.parse(templateList);
+
+        return output;
+    }
+}
@@ -0,0 +1,47 @@
+package com.kamicloud.generator.utils;
+
+import com.kamicloud.generator.benchmarks.SyntheticApi;
+import com.kamicloud.generator.stubs.core.ModelStub;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * StringUtil.renderTemplate 渲染每个模型的 laravel/restful 模板
+ * <p>
+ * laravel/restful/index 对应的文件为 Index.stub，区分大小写的文件系统上找不到，不在此测试。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class StringUtilBenchmark {
+    @Param({"10", "100", "1000"})
+    int apiSize;
+
+    @Param({"laravel/restful/update", "laravel/restful/show", "laravel/restful/store", "laravel/restful/destroy"})
+    String template;
+
+    private SyntheticApi api;
+    private StringUtil stringUtil;
+    private Collection<ModelStub> models;
+
+    @Setup
+    public void setUp() throws IOException {
+        api = new SyntheticApi(apiSize);
+        models = api.parse().modelHashMap.values();
+        stringUtil = api.getBean(StringUtil.class);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        api.delete();
+    }
+
+    @Benchmark
+    public void renderTemplate(Blackhole blackhole) {
+        models.forEach(model -> blackhole.consume(stringUtil.renderTemplate(template, model)));
+    }
+}
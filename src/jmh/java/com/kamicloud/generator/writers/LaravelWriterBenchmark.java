@@ -0,0 +1,50 @@
+package com.kamicloud.generator.writers;
+
+import com.kamicloud.generator.benchmarks.SyntheticApi;
+import com.kamicloud.generator.stubs.core.OutputStub;
+import com.kamicloud.generator.utils.OutputManifest;
+import com.kamicloud.generator.writers.components.common.FileCombiner;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LaravelWriter 完整输出到临时目录
+ * <p>
+ * 清单不持久化，每次都实际写入磁盘。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class LaravelWriterBenchmark {
+    @Param({"10", "100", "1000"})
+    int apiSize;
+
+    private SyntheticApi api;
+    private LaravelWriter writer;
+    private OutputManifest manifest;
+    private OutputStub output;
+
+    @Setup
+    public void setUp() throws IOException {
+        api = new SyntheticApi(apiSize);
+        output = api.parse();
+        writer = api.getBean(LaravelWriter.class);
+        manifest = api.getBean(OutputManifest.class);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        api.delete();
+    }
+
+    @Benchmark
+    public OutputManifest update() {
+        manifest.load();
+        FileCombiner.setManifest(manifest);
+        writer.run(output);
+
+        return manifest;
+    }
+}
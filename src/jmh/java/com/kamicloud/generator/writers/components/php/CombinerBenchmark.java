@@ -0,0 +1,112 @@
+package com.kamicloud.generator.writers.components.php;
+
+import com.kamicloud.generator.interfaces.PHPNamespacePathTransformerInterface;
+import com.kamicloud.generator.writers.components.common.Combiner;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Combiner / ClassCombiner 拼接输出内容
+ * <p>
+ * ClassCombiner 包含 apiSize 个属性及 getter、setter，Combiner 包含 apiSize * 10 行。
+ * *ToBytes 对比先生成字符串再编码与直接写入 UTF-8 writer 两种输出方式，build* 为构造过程，使用 -prof gc 查看内存分配。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CombinerBenchmark {
+    @Param({"10", "100", "1000"})
+    int apiSize;
+
+    private ClassCombiner classCombiner;
+    private Combiner combiner;
+
+    @Setup
+    public void setUp() throws Exception {
+        ClassCombiner.setNamespacePathTransformer(new PHPNamespacePathTransformerInterface() {
+            @Override
+            public String namespaceToPath(String namespace) {
+                return namespace.replace("\\", "/") + ".php";
+            }
+
+            @Override
+            public String pathToNamespace(String path) {
+                return null;
+            }
+        });
+
+        classCombiner = new ClassCombiner("App\\Generated\\V1\\DTOs\\BenchmarkDTO", "App\\Http\\DTOs\\BaseDTO");
+        classCombiner.addTrait("App\\Http\\Concerns\\ValueHelper");
+        for (int i = 0; i < apiSize; i++) {
+            String name = "attribute" + i;
+            new ClassAttributeCombiner(classCombiner, name, "protected");
+
+            ClassMethodCombiner getter = ClassMethodCombiner.build(classCombiner, "get" + i, "public");
+            getter.addComment("@return string");
+            getter.setBody("return $this->" + name + ";");
+
+            ClassMethodCombiner setter = ClassMethodCombiner.build(classCombiner, "set" + i, "public");
+            new ClassMethodParameterCombiner(setter, name, "string");
+            setter.setBody("$this->" + name + " = $" + name + ";", "return $this;");
+        }
+
+        combiner = new Combiner();
+        for (int i = 0; i < apiSize * 10; i++) {
+            combiner.addLine("| " + i + " | attribute" + i + " | string | 一个注释 |");
+        }
+    }
+
+    @Benchmark
+    public String classCombinerToString() {
+        return classCombiner.toString();
+    }
+
+    @Benchmark
+    public String combinerToString() {
+        return combiner.toString();
+    }
+
+    @Benchmark
+    public byte[] classCombinerToStringToBytes() {
+        return classCombiner.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] classCombinerAppendToBytes() throws IOException {
+        ByteArrayOutputStream content = new ByteArrayOutputStream(8192);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(content, StandardCharsets.UTF_8));
+        classCombiner.appendTo(writer);
+        writer.flush();
+
+        return content.toByteArray();
+    }
+
+    @Benchmark
+    public Combiner buildCombiner() {
+        Combiner combiner = new Combiner();
+        for (int i = 0; i < apiSize * 10; i++) {
+            combiner.addLine("| attribute | string | 一个注释 |");
+        }
+
+        return combiner;
+    }
+
+    @Benchmark
+    public ClassCombiner buildClassCombiner() throws Exception {
+        ClassCombiner classCombiner = new ClassCombiner("App\\Generated\\V1\\DTOs\\BenchmarkDTO");
+        ClassMethodCombiner method = ClassMethodCombiner.build(classCombiner, "getAttributeMap", "public");
+        for (int i = 0; i < apiSize * 10; i++) {
+            method.addBody("'attribute' => ['attribute', ['bail', 'nullable', 'string'], null, null, 0],");
+        }
+        method.wrapBody("return [", "];");
+
+        return classCombiner;
+    }
+}
@@ -2,9 +2,23 @@ package com.kamicloud.generator;
 
 import com.kamicloud.generator.config.ApplicationProperties;
 import com.kamicloud.generator.config.DefaultProfileUtil;
+import com.kamicloud.generator.config.GeneratorSettings;
+import com.kamicloud.generator.daemon.GeneratorDaemon;
 import com.kamicloud.generator.parsers.DocParser;
+import com.kamicloud.generator.parsers.ModelLoader;
+import com.kamicloud.generator.parsers.ParseCache;
 import com.kamicloud.generator.parsers.Parser;
+import com.kamicloud.generator.parsers.SourceParser;
+import com.kamicloud.generator.parsers.TemplateCompiler;
 import com.kamicloud.generator.stubs.core.OutputStub;
+import com.kamicloud.generator.stubs.diff.ChangeSet;
+import com.kamicloud.generator.stubs.diff.ModelDiff;
+import com.kamicloud.generator.stubs.snapshot.ApiSnapshot;
+import com.kamicloud.generator.utils.OutputManifest;
+import com.kamicloud.generator.utils.OutputSink;
+import com.kamicloud.generator.utils.Tracer;
+import com.kamicloud.generator.watch.TemplateWatcher;
+import com.kamicloud.generator.writers.components.common.FileCombiner;
 import com.kamicloud.generator.writers.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,8 +27,16 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.core.env.Environment;
 import org.springframework.boot.SpringApplication;
+import org.springframework.util.ResourceUtils;
+import org.thymeleaf.spring5.SpringTemplateEngine;
 
 import javax.annotation.PostConstruct;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collection;
 
 
 @SpringBootApplication
@@ -25,6 +47,7 @@ public class Generator {
     private static final Logger log = LoggerFactory.getLogger(Generator.class);
 
     private final Environment env;
+    private final GeneratorSettings settings;
     private final PostmanWriter postmanWriter;
     private final LaravelWriter laravelWriter;
     private final TestCaseWriter testCaseWriter;
@@ -34,12 +57,32 @@ public class Generator {
     private final OpenAPIWriter openAPIWriter;
     private final Parser parser;
     private final DocParser docParser;
+    private final TemplateCompiler templateCompiler;
+    private final ModelLoader modelLoader;
+    private final SourceParser sourceParser;
+    private final ParseCache parseCache;
     private final OutputStub output;
+    private final WriterExecutor writerExecutor;
+    private final OutputManifest outputManifest;
+    private final OutputSink outputSink;
+    private final SpringTemplateEngine springTemplateEngine;
+
+    /**
+     * 读取解析缓存时没有运行 DocParser，下次解析需要重新解析所有注释
+     */
+    private boolean docsStale = true;
+
+    /**
+     * 上次成功生成时的解析结果及 --process 参数，用于跳过没有变化的实体
+     */
+    private OutputStub previousOutput;
+    private String previousProcess;
 
     @Autowired
     public Generator(
         TestCaseWriter testCaseWriter,
         Environment env,
+        GeneratorSettings settings,
         PostmanWriter postmanWriter,
         LaravelWriter laravelWriter,
         DocWriter docWriter,
@@ -48,10 +91,19 @@ public class Generator {
         OpenAPIWriter openAPIWriter,
         Parser parser,
         DocParser docParser,
-        OutputStub output
+        TemplateCompiler templateCompiler,
+        ModelLoader modelLoader,
+        SourceParser sourceParser,
+        ParseCache parseCache,
+        OutputStub output,
+        WriterExecutor writerExecutor,
+        OutputManifest outputManifest,
+        OutputSink outputSink,
+        SpringTemplateEngine springTemplateEngine
     ) {
         this.testCaseWriter = testCaseWriter;
         this.env = env;
+        this.settings = settings;
         this.postmanWriter = postmanWriter;
         this.laravelWriter = laravelWriter;
         this.docWriter = docWriter;
@@ -60,31 +112,272 @@ public class Generator {
         this.openAPIWriter = openAPIWriter;
         this.parser = parser;
         this.docParser = docParser;
+        this.templateCompiler = templateCompiler;
+        this.modelLoader = modelLoader;
+        this.sourceParser = sourceParser;
+        this.parseCache = parseCache;
         this.output = output;
+        this.writerExecutor = writerExecutor;
+        this.outputManifest = outputManifest;
+        this.outputSink = outputSink;
+        this.springTemplateEngine = springTemplateEngine;
     }
 
     @PostConstruct
     public void initApplication() {
         log.debug("logger start");
-        DefaultProfileUtil.setEnv(env);
+
+        // 注册处理器
+        writerExecutor.addWriter(postmanWriter);
+        writerExecutor.addWriter(testCaseWriter);
+        writerExecutor.addWriter(docWriter);
+        writerExecutor.addWriter(laravelWriter);
+        writerExecutor.addWriter(nodeJsClientWriter);
+        writerExecutor.addWriter(autoTestWriter);
+        writerExecutor.addWriter(openAPIWriter);
 
         // 解析模板和注释
-        parser.parse();
-        docParser.parse();
+        startTrace();
+        parse(null);
+        write(settings.getProcess());
+
+        if (env.containsProperty("watch")) {
+            watch();
+        } else if (env.containsProperty("daemon")) {
+            daemon();
+        }
+    }
+
+    /**
+     * generator.parser 为 processor 或 source 时注释已包含在 ApiSnapshot 中
+     */
+    private String getParserType() {
+        return settings.getParser();
+    }
+
+    /**
+     * @param changedTemplates 变化的模板文件，为null时重新解析所有注释
+     */
+    private void parseDocs(Collection<File> changedTemplates) {
+        if (!"reflection".equals(getParserType())) {
+            return;
+        }
+        if (changedTemplates == null || docsStale) {
+            docParser.parse();
+            docsStale = false;
+        } else {
+            // 只重新解析变化的模板文件
+            changedTemplates.forEach(docParser::parseFile);
+        }
+    }
+
+    /**
+     * @param changedTemplates 变化的模板文件，为null时重新解析所有注释
+     */
+    private void parse(Collection<File> changedTemplates) {
+        output.reset();
+        boolean compileTemplates = settings.isCompileTemplates();
+
+        // 模板及解析器都未变化时直接使用上次的解析结果
+        boolean compiledClasses = !compileTemplates && !"source".equals(getParserType());
+        String fingerprint = parseCache.fingerprint(docParser.getTemplateFiles(), compiledClasses);
+        ApiSnapshot snapshot = parseCache.load(fingerprint);
+        if (snapshot != null) {
+            modelLoader.load(snapshot);
+            docsStale = true;
+            output.postParse(settings.getUrlPrefix());
+            return;
+        }
+
+        parseDocs(changedTemplates);
+
+        if ("source".equals(getParserType())) {
+            // 只解析模板源码，不需要编译
+            modelLoader.load(sourceParser.parse());
+        } else if ("processor".equals(getParserType())) {
+            // 注解处理器在编译模板时生成模型，不再反射模板类
+            if (compileTemplates) {
+                modelLoader.load(templateCompiler.snapshot());
+            } else {
+                modelLoader.load(getClass().getClassLoader());
+            }
+        } else if (compileTemplates) {
+            // 进程内编译模板，源码变化后无需重新启动
+            parser.parse(templateCompiler.compile());
+        } else {
+            parser.parse();
+        }
 
         // 分析结束同步数据
-        output.postParse();
+        output.postParse(settings.getUrlPrefix());
 
-        // 注册处理器
-        output.addObserver(postmanWriter);
-        output.addObserver(testCaseWriter);
-        output.addObserver(docWriter);
-        output.addObserver(laravelWriter);
-        output.addObserver(nodeJsClientWriter);
-        output.addObserver(autoTestWriter);
-        output.addObserver(openAPIWriter);
-
-        output.notifyObservers();
+        parseCache.save(fingerprint, output);
+    }
+
+    private boolean write(String process) {
+        // 只重写内容变化的文件
+        outputManifest.load();
+        FileCombiner.setManifest(outputManifest);
+        FileCombiner.setForceSuffix(settings.getForceSuffix());
+
+        // 与上次生成使用相同的处理器时，处理器可以跳过没有变化的实体
+        ChangeSet changes = null;
+        if (previousOutput != null && process.equals(previousProcess)) {
+            changes = ModelDiff.diff(previousOutput, output);
+            output.setChanges(changes);
+            log.info("API changes: {}", changes);
+        }
+        saveChanges(changes);
+
+        // 并行执行处理器
+        boolean success = writerExecutor.execute(output, process);
+
+        // 等待 I/O 线程写完所有临时文件
+        try {
+            Tracer.span("OutputSink.flush").run(outputSink::flush);
+        } catch (IOException e) {
+            log.error("Failed to write output files", e);
+            success = false;
+        }
+        // 处理器或写入失败时保留上次生成的文件，处理器内部捕获的异常由 BaseWriter.run 抛出
+        if (success) {
+            try {
+                outputManifest.publish();
+            } catch (IOException e) {
+                log.error("Failed to publish output files", e);
+                success = false;
+            }
+        } else {
+            outputManifest.discard();
+        }
+        previousOutput = success ? output.copy() : null;
+        previousProcess = process;
+
+        outputManifest.save();
+
+        String tracePath = settings.getTracePath();
+        if (!tracePath.isEmpty()) {
+            Tracer.save(new File(tracePath));
+        }
+
+        return success;
+    }
+
+    /**
+     * 配置了 generator.diff-report-path 时写入与上次解析结果的差异，没有比较时删除上次的报告
+     */
+    private void saveChanges(ChangeSet changes) {
+        String diffReportPath = settings.getDiffReportPath();
+        if (diffReportPath.isEmpty()) {
+            return;
+        }
+
+        File file = new File(diffReportPath);
+        try {
+            if (changes == null) {
+                Files.deleteIfExists(file.toPath());
+                return;
+            }
+            File parent = file.getAbsoluteFile().getParentFile();
+            if (!parent.exists()) {
+                parent.mkdirs();
+            }
+            Files.write(file.toPath(), changes.toReport().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            log.warn("Failed to write diff report {}", file, e);
+        }
+    }
+
+    /**
+     * 配置了 generator.trace-path 时记录本次生成各阶段的耗时
+     */
+    private void startTrace() {
+        if (!settings.getTracePath().isEmpty()) {
+            Tracer.start();
+        }
+    }
+
+    /**
+     * 完整的解析及生成
+     *
+     * @param process --process 参数
+     * @return 是否全部处理器执行成功
+     */
+    public synchronized boolean generate(String process) {
+        try {
+            startTrace();
+            parse(null);
+
+            return write(process);
+        } catch (Exception e) {
+            log.error("Generate failed", e);
+            return false;
+        }
+    }
+
+    /**
+     * --daemon 模式，常驻并接受 GeneratorClient 的生成请求
+     */
+    private void daemon() {
+        int port = settings.getDaemonPort();
+
+        try {
+            new GeneratorDaemon(port, this::generate).serve();
+        } catch (IOException e) {
+            log.error("Daemon failed", e);
+        }
+    }
+
+    /**
+     * --watch 模式，模板或stub变化后重新生成
+     */
+    private void watch() {
+        File stubDir = null;
+        String stubPrefix = env.getProperty("spring.thymeleaf.prefix", "classpath:/stubs/");
+        if (stubPrefix.startsWith("file:")) {
+            // 渲染与监听使用同一个目录
+            stubDir = new File(stubPrefix.substring("file:".length()));
+        } else {
+            try {
+                // ClassLoader 资源路径不能以 / 开头
+                stubDir = ResourceUtils.getFile(stubPrefix.replace("classpath:/", "classpath:"));
+                log.warn("Stubs are read from {}, edits to the stub sources are only picked up after they are copied there, "
+                    + "use --spring.thymeleaf.prefix=file:./src/main/resources/stubs/ to watch the sources", stubDir);
+            } catch (FileNotFoundException e) {
+                log.warn("Stubs are not on the file system, stub changes will not be watched");
+            }
+        }
+
+        try {
+            new TemplateWatcher(docParser.getTemplateDir(), stubDir).watch(this::regenerate);
+        } catch (IOException e) {
+            log.error("Watch failed", e);
+        }
+    }
+
+    private void regenerate(TemplateWatcher.Changes changes) {
+        long start = System.currentTimeMillis();
+
+        startTrace();
+        if (!changes.getStubs().isEmpty()) {
+            springTemplateEngine.clearTemplateCache();
+            // stub 变化后所有文件都需要重新生成
+            previousOutput = null;
+        }
+        try {
+            parse(changes.getTemplates());
+            write(settings.getProcess());
+        } catch (RuntimeException e) {
+            // 模板编译或注释解析失败时继续监听，等待下一次修改
+            log.error("Regenerate failed", e);
+            return;
+        }
+
+        log.info("Regenerated {} template(s), {} stub(s) in {}ms",
+            changes.getTemplates().size(),
+            changes.getStubs().size(),
+            System.currentTimeMillis() - start
+        );
     }
 
     public static void main(String[] args) {
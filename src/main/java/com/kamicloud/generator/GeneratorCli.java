@@ -0,0 +1,231 @@
+package com.kamicloud.generator;
+
+import ch.qos.logback.classic.Level;
+import com.kamicloud.generator.config.*;
+import com.kamicloud.generator.parsers.DocParser;
+import com.kamicloud.generator.utils.OutputSink;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.AutowiredAnnotationBeanPostProcessor;
+import org.springframework.beans.factory.config.YamlPropertiesFactoryBean;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.boot.context.properties.bind.BindHandler;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.bind.handler.NoUnboundElementsBindHandler;
+import org.springframework.core.env.*;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.util.StringUtils;
+import org.thymeleaf.spring5.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.AbstractConfigurableTemplateResolver;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+import org.thymeleaf.templateresolver.FileTemplateResolver;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * 不启动Spring容器的入口，直接组装解析器及处理器，启动更快
+ * <p>
+ * 配置文件的查找顺序及优先级与Spring Boot一致，输出与 Generator 完全相同。
+ * <p>
+ * java com.kamicloud.generator.GeneratorCli [--process=xxx] [--spring.profiles.active=prod]
+ */
+public class GeneratorCli {
+    private static final Logger log = LoggerFactory.getLogger(GeneratorCli.class);
+
+    /**
+     * 配置文件位置，优先级从高到低
+     */
+    private static final List<String> CONFIG_LOCATIONS = Arrays.asList(
+        "file:./config/",
+        "file:./",
+        "classpath:/config/",
+        "classpath:/"
+    );
+
+    public static void main(String[] args) {
+        long start = System.currentTimeMillis();
+
+        DefaultListableBeanFactory beanFactory = createBeanFactory(args);
+        Generator generator = beanFactory.createBean(Generator.class);
+
+        log.info(
+            "Started GeneratorCli in {}ms (JVM running for {}ms), profiles: {}",
+            System.currentTimeMillis() - start,
+            ManagementFactory.getRuntimeMXBean().getUptime(),
+            Arrays.toString(beanFactory.getBean(Environment.class).getActiveProfiles())
+        );
+
+        generator.initApplication();
+    }
+
+    /**
+     * 创建与Spring容器中相同的解析器及处理器，也用于benchmark
+     *
+     * @param args 命令行参数，如 --generator.template-path=xxx
+     * @return 已注册所有实例的 BeanFactory
+     */
+    public static DefaultListableBeanFactory createBeanFactory(String... args) {
+        StandardEnvironment env = createEnvironment(args);
+        setLogLevel(env);
+
+        GeneratorProperties generatorProperties = Binder.get(env).bind(
+            "generator",
+            Bindable.ofInstance(new GeneratorProperties()),
+            new NoUnboundElementsBindHandler(BindHandler.DEFAULT)
+        ).get();
+
+        // 复用配置类创建实例，按类型注入 @Autowired 字段
+        UtilConfiguration utilConfiguration = new UtilConfiguration();
+        ParserConfiguration parserConfiguration = new ParserConfiguration();
+        WriterConfiguration writerConfiguration = new WriterConfiguration();
+
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        AutowiredAnnotationBeanPostProcessor autowiredProcessor = new AutowiredAnnotationBeanPostProcessor();
+        autowiredProcessor.setBeanFactory(beanFactory);
+        beanFactory.addBeanPostProcessor(autowiredProcessor);
+
+        beanFactory.registerSingleton("environment", env);
+        beanFactory.registerSingleton("generatorProperties", generatorProperties);
+        GeneratorSettings settings = utilConfiguration.generatorSettings(generatorProperties, env);
+        beanFactory.registerSingleton("generatorSettings", settings);
+        beanFactory.registerSingleton("springTemplateEngine", createTemplateEngine(env));
+        beanFactory.registerSingleton("outputStub", parserConfiguration.outputStub());
+        OutputSink outputSink = utilConfiguration.outputSink(settings);
+        beanFactory.registerSingleton("outputSink", outputSink);
+        beanFactory.registerSingleton("outputManifest", utilConfiguration.outputManifest(settings, outputSink));
+        register(beanFactory, "urlUtil", utilConfiguration.urlUtil());
+        register(beanFactory, "stringUtil", utilConfiguration.stringUtil());
+
+        DocParser docParser = register(beanFactory, "docParser", parserConfiguration.docParser());
+        register(beanFactory, "parser", parserConfiguration.parser());
+        register(beanFactory, "modelLoader", parserConfiguration.modelLoader());
+        register(beanFactory, "sourceParser", parserConfiguration.sourceParser());
+        beanFactory.registerSingleton("parseCache", parserConfiguration.parseCache(settings));
+        register(beanFactory, "templateCompiler", parserConfiguration.templateCompiler(docParser));
+
+        register(beanFactory, "writerExecutor", writerConfiguration.writerExecutor());
+        register(beanFactory, "testCaseWriter", writerConfiguration.testCaseWriter());
+        register(beanFactory, "postmanWriter", writerConfiguration.postmanWriter());
+        register(beanFactory, "laravelWriter", writerConfiguration.laravelWriter());
+        register(beanFactory, "docWriter", writerConfiguration.docWriter());
+        register(beanFactory, "autoTestWriter", writerConfiguration.autoTestWriter());
+        register(beanFactory, "nodeJsClientWriter", writerConfiguration.nodeJsClientWriter());
+        register(beanFactory, "openAPIWriter", writerConfiguration.openAPIWriter());
+
+        return beanFactory;
+    }
+
+    private static <T> T register(DefaultListableBeanFactory beanFactory, String name, T bean) {
+        beanFactory.autowireBean(bean);
+        beanFactory.registerSingleton(name, bean);
+
+        return bean;
+    }
+
+    /**
+     * 命令行参数 > 系统属性 > 环境变量 > application-{profile}.yml > application.yml
+     */
+    private static StandardEnvironment createEnvironment(String[] args) {
+        StandardEnvironment env = new StandardEnvironment();
+        MutablePropertySources propertySources = env.getPropertySources();
+
+        propertySources.addFirst(new SimpleCommandLinePropertySource(args));
+
+        List<PropertySource<?>> defaults = loadYaml("application");
+        defaults.forEach(propertySources::addLast);
+
+        String profile = env.getProperty(AbstractEnvironment.ACTIVE_PROFILES_PROPERTY_NAME, GeneratorConstants.SPRING_PROFILE_DEVELOPMENT);
+        env.setActiveProfiles(StringUtils.tokenizeToStringArray(profile, ","));
+
+        // profile 配置优先于 application.yml，后面的 profile 优先
+        PropertySource<?> before = defaults.isEmpty() ? null : defaults.get(0);
+        for (String activeProfile : env.getActiveProfiles()) {
+            List<PropertySource<?>> profileSources = loadYaml("application-" + activeProfile);
+            for (PropertySource<?> source : profileSources) {
+                if (before == null) {
+                    propertySources.addLast(source);
+                } else {
+                    propertySources.addBefore(before.getName(), source);
+                }
+            }
+            if (!profileSources.isEmpty()) {
+                before = profileSources.get(0);
+            }
+        }
+
+        return env;
+    }
+
+    private static List<PropertySource<?>> loadYaml(String name) {
+        List<PropertySource<?>> sources = new ArrayList<>();
+
+        CONFIG_LOCATIONS.forEach(location -> {
+            String path = location.substring(location.indexOf(':') + 1) + name + ".yml";
+            Resource resource = location.startsWith("classpath:")
+                ? new ClassPathResource(path.substring(1))
+                : new FileSystemResource(path);
+
+            if (!resource.exists()) {
+                return;
+            }
+
+            YamlPropertiesFactoryBean yaml = new YamlPropertiesFactoryBean();
+            yaml.setResources(resource);
+            Properties properties = yaml.getObject();
+
+            if (properties != null) {
+                sources.add(new PropertiesPropertySource(location + name + ".yml", properties));
+            }
+        });
+
+        return sources;
+    }
+
+    /**
+     * 与 ThymeleafAutoConfiguration 相同的配置，仍使用 SpringTemplateEngine 保证表达式方言一致
+     */
+    private static SpringTemplateEngine createTemplateEngine(Environment env) {
+        String prefix = env.getProperty("spring.thymeleaf.prefix", "classpath:/templates/");
+        AbstractConfigurableTemplateResolver resolver;
+
+        if (prefix.startsWith("classpath:")) {
+            resolver = new ClassLoaderTemplateResolver();
+            prefix = prefix.substring("classpath:".length()).replaceFirst("^/", "");
+        } else {
+            resolver = new FileTemplateResolver();
+            prefix = prefix.replaceFirst("^file:", "");
+        }
+
+        resolver.setPrefix(prefix);
+        resolver.setSuffix(env.getProperty("spring.thymeleaf.suffix", ".html"));
+        resolver.setTemplateMode(TemplateMode.parse(env.getProperty("spring.thymeleaf.mode", "HTML")));
+        resolver.setCharacterEncoding(env.getProperty("spring.thymeleaf.encoding", "UTF-8"));
+        resolver.setCacheable(env.getProperty("spring.thymeleaf.cache", Boolean.class, true));
+        resolver.setCheckExistence(env.getProperty("spring.thymeleaf.check-template", Boolean.class, true));
+
+        SpringTemplateEngine engine = new SpringTemplateEngine();
+        engine.setTemplateResolver(resolver);
+        engine.setEnableSpringELCompiler(env.getProperty("spring.thymeleaf.enable-spring-el-compiler", Boolean.class, false));
+
+        return engine;
+    }
+
+    /**
+     * 没有Spring Boot的日志配置时logback默认输出DEBUG
+     */
+    private static void setLogLevel(Environment env) {
+        Logger root = LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME);
+
+        if (root instanceof ch.qos.logback.classic.Logger) {
+            ((ch.qos.logback.classic.Logger) root).setLevel(Level.toLevel(env.getProperty("logging.level.root"), Level.INFO));
+        }
+    }
+}
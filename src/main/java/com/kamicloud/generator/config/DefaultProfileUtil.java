@@ -8,7 +8,6 @@ import java.util.*;
 public class DefaultProfileUtil {
 
     private static final String SPRING_PROFILE_DEFAULT = "spring.profiles.default";
-    private static Environment env;
 
     private DefaultProfileUtil() {
     }
@@ -42,19 +41,4 @@ public class DefaultProfileUtil {
         }
         return profiles;
     }
-
-    public static Environment getEnv() {
-        return env;
-    }
-
-    public static void setEnv(Environment env) {
-        DefaultProfileUtil.env = env;
-    }
-
-    public static boolean isAutoTestForceReplace() {
-        String autoTestForceReplace = env.getProperty("generator.writers.auto-test-force-replace", "false");
-
-
-        return autoTestForceReplace.equals("1") || autoTestForceReplace.equals("true") ;
-    }
 }
@@ -13,6 +13,13 @@ public class GeneratorProperties {
     private String apiPrefix;
     private String templatePath;
     private String testHost;
+    private String manifestPath;
+    private String parseCachePath;
+    private Integer daemonPort;
+    private boolean compileTemplates;
+    private String parser;
+    private String tracePath;
+    private String diffReportPath;
     private Writers writers = new Writers();
 
     public Process getProcess() {
@@ -55,6 +62,62 @@ public class GeneratorProperties {
         this.testHost = testHost;
     }
 
+    public String getManifestPath() {
+        return manifestPath;
+    }
+
+    public void setManifestPath(String manifestPath) {
+        this.manifestPath = manifestPath;
+    }
+
+    public String getParseCachePath() {
+        return parseCachePath;
+    }
+
+    public void setParseCachePath(String parseCachePath) {
+        this.parseCachePath = parseCachePath;
+    }
+
+    public Integer getDaemonPort() {
+        return daemonPort;
+    }
+
+    public void setDaemonPort(Integer daemonPort) {
+        this.daemonPort = daemonPort;
+    }
+
+    public boolean isCompileTemplates() {
+        return compileTemplates;
+    }
+
+    public void setCompileTemplates(boolean compileTemplates) {
+        this.compileTemplates = compileTemplates;
+    }
+
+    public String getParser() {
+        return parser;
+    }
+
+    public void setParser(String parser) {
+        this.parser = parser;
+    }
+
+    public String getTracePath() {
+        return tracePath;
+    }
+
+    public void setTracePath(String tracePath) {
+        this.tracePath = tracePath;
+    }
+
+    public String getDiffReportPath() {
+        return diffReportPath;
+    }
+
+    public void setDiffReportPath(String diffReportPath) {
+        this.diffReportPath = diffReportPath;
+    }
+
     public Writers getWriters() {
         return writers;
     }
@@ -95,6 +158,9 @@ public class GeneratorProperties {
 
     public static class Writers {
         private String forceSuffix;
+        private Integer threads;
+        private Integer ioThreads;
+        private Integer ioQueue;
         private Postman postman = new Postman();
         private Testcases testcases;
         private Laravel laravel;
@@ -111,6 +177,30 @@ public class GeneratorProperties {
             this.forceSuffix = forceSuffix;
         }
 
+        public Integer getThreads() {
+            return threads;
+        }
+
+        public void setThreads(Integer threads) {
+            this.threads = threads;
+        }
+
+        public Integer getIoThreads() {
+            return ioThreads;
+        }
+
+        public void setIoThreads(Integer ioThreads) {
+            this.ioThreads = ioThreads;
+        }
+
+        public Integer getIoQueue() {
+            return ioQueue;
+        }
+
+        public void setIoQueue(Integer ioQueue) {
+            this.ioQueue = ioQueue;
+        }
+
         public Postman getPostman() {
             return postman;
         }
@@ -199,6 +289,7 @@ public class GeneratorProperties {
             private String dtoFolder;
             private String serviceSuffix;
             private String serviceFolder;
+            private boolean shareVersions;
 
             public String getPath() {
                 return path;
@@ -255,6 +346,14 @@ public class GeneratorProperties {
             public void setServiceFolder(String serviceFolder) {
                 this.serviceFolder = serviceFolder;
             }
+
+            public boolean isShareVersions() {
+                return shareVersions;
+            }
+
+            public void setShareVersions(boolean shareVersions) {
+                this.shareVersions = shareVersions;
+            }
         }
 
         public static class LaravelDoc {
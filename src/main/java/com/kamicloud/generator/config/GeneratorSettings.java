@@ -0,0 +1,235 @@
+package com.kamicloud.generator.config;
+
+import com.kamicloud.generator.daemon.GeneratorDaemon;
+import org.springframework.core.env.Environment;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 启动时由 GeneratorProperties 解析出的只读配置，默认值在这里统一填充
+ * <p>
+ * 由 Spring 注入解析器及处理器，在热路径上读取这里的字段，不再查询 Environment，可以在多线程中使用。
+ */
+public final class GeneratorSettings {
+    private final String process;
+    private final String apiPrefix;
+    private final String urlPrefix;
+    private final String templatePath;
+    private final String testHost;
+    private final String manifestPath;
+    private final String parseCachePath;
+    private final String parser;
+    private final boolean compileTemplates;
+    private final String tracePath;
+    private final String diffReportPath;
+    private final int daemonPort;
+    private final int writerThreads;
+    private final int ioThreads;
+    private final int ioQueue;
+    private final String forceSuffix;
+    private final String dtoFolder;
+    private final String dtoSuffix;
+    private final boolean laravelShareVersions;
+    private final String autoTestPath;
+    private final String autoTestTestcasesPath;
+    private final boolean autoTestForceReplace;
+    private final List<String> defaultWriters;
+    private final List<String> laravelAutoTestWriters;
+
+    /**
+     * @param properties generator.* 配置
+     * @param env        读取不在 generator 下的 --process 参数
+     */
+    public GeneratorSettings(GeneratorProperties properties, Environment env) {
+        GeneratorProperties.Writers writers = properties.getWriters();
+        GeneratorProperties.Writers.Laravel laravel = writers.getLaravel();
+        GeneratorProperties.Writers.LaravelAutoTest autoTest = writers.getLaravelAutoTest();
+        GeneratorProperties.Process process = properties.getProcess();
+
+        this.process = env.getProperty("process", "");
+        this.apiPrefix = valueOf(properties.getApiPrefix(), "api");
+        this.urlPrefix = "/" + apiPrefix;
+        this.templatePath = valueOf(properties.getTemplatePath(), "./src/main/java/templates");
+        this.testHost = valueOf(properties.getTestHost(), "http://localhost");
+        this.manifestPath = valueOf(properties.getManifestPath(), "./build/generator/manifest.json");
+        this.parseCachePath = valueOf(properties.getParseCachePath(), "./build/generator/parse-cache.json");
+        this.parser = valueOf(properties.getParser(), "reflection");
+        // 常驻进程中已加载的模板类不会更新，只能在进程内重新编译，source 解析器直接读取源码
+        this.compileTemplates = properties.isCompileTemplates() || isResident(env) && !"source".equals(parser);
+        this.tracePath = valueOf(properties.getTracePath(), "");
+        this.diffReportPath = valueOf(properties.getDiffReportPath(), "");
+        this.daemonPort = properties.getDaemonPort() == null ? GeneratorDaemon.DEFAULT_PORT : properties.getDaemonPort();
+        this.writerThreads = writers.getThreads() == null || writers.getThreads() < 1
+            ? Runtime.getRuntime().availableProcessors()
+            : writers.getThreads();
+        this.ioThreads = writers.getIoThreads() == null || writers.getIoThreads() < 0 ? 2 : writers.getIoThreads();
+        this.ioQueue = writers.getIoQueue() == null || writers.getIoQueue() < 1 ? 256 : writers.getIoQueue();
+        this.forceSuffix = writers.getForceSuffix();
+        this.dtoFolder = valueOf(laravel == null ? null : laravel.getDtoFolder(), "DTOs");
+        this.dtoSuffix = valueOf(laravel == null ? null : laravel.getDtoSuffix(), "DTO");
+        this.laravelShareVersions = laravel != null && laravel.isShareVersions();
+        this.autoTestPath = autoTest == null ? null : autoTest.getPath();
+        this.autoTestTestcasesPath = valueOf(autoTest == null ? null : autoTest.getTestcasesPath(), "");
+        this.autoTestForceReplace = autoTest != null && autoTest.isForceReplace();
+        this.defaultWriters = copyOf(process.getDefaults());
+        this.laravelAutoTestWriters = copyOf(process.getLaravelAutoTest());
+    }
+
+    /**
+     * @return --watch 或 --daemon 模式
+     */
+    private static boolean isResident(Environment env) {
+        return env.containsProperty("watch") || env.containsProperty("daemon");
+    }
+
+    private static String valueOf(String value, String defaultValue) {
+        return value == null ? defaultValue : value;
+    }
+
+    private static List<String> copyOf(List<String> values) {
+        return values == null ? null : Collections.unmodifiableList(new ArrayList<>(values));
+    }
+
+    /**
+     * @return --process 参数
+     */
+    public String getProcess() {
+        return process;
+    }
+
+    public String getApiPrefix() {
+        return apiPrefix;
+    }
+
+    /**
+     * @return 以 / 开头的 api 前缀
+     */
+    public String getUrlPrefix() {
+        return urlPrefix;
+    }
+
+    public String getTemplatePath() {
+        return templatePath;
+    }
+
+    /**
+     * @return 自动测试请求的服务器地址
+     */
+    public String getTestHost() {
+        return testHost;
+    }
+
+    /**
+     * @return 为空时不保存生成文件清单
+     */
+    public String getManifestPath() {
+        return manifestPath;
+    }
+
+    /**
+     * @return 为空时不缓存解析结果
+     */
+    public String getParseCachePath() {
+        return parseCachePath;
+    }
+
+    /**
+     * @return reflection、processor 或 source
+     */
+    public String getParser() {
+        return parser;
+    }
+
+    /**
+     * @return --watch 及 --daemon 模式下除 source 解析器外始终开启
+     */
+    public boolean isCompileTemplates() {
+        return compileTemplates;
+    }
+
+    /**
+     * @return 为空时不记录耗时
+     */
+    public String getTracePath() {
+        return tracePath;
+    }
+
+    /**
+     * @return 为空时只在日志中输出与上次解析结果的差异
+     */
+    public String getDiffReportPath() {
+        return diffReportPath;
+    }
+
+    public int getDaemonPort() {
+        return daemonPort;
+    }
+
+    public int getWriterThreads() {
+        return writerThreads;
+    }
+
+    /**
+     * @return 写入文件的线程数，为0时在处理器线程中直接写入
+     */
+    public int getIoThreads() {
+        return ioThreads;
+    }
+
+    /**
+     * @return 等待写入的文件数上限
+     */
+    public int getIoQueue() {
+        return ioQueue;
+    }
+
+    /**
+     * @return 未配置时为 null
+     */
+    public String getForceSuffix() {
+        return forceSuffix;
+    }
+
+    public String getDtoFolder() {
+        return dtoFolder;
+    }
+
+    public String getDtoSuffix() {
+        return dtoSuffix;
+    }
+
+    /**
+     * @return 与之前版本相同的模型及枚举是否继承之前版本的类
+     */
+    public boolean isLaravelShareVersions() {
+        return laravelShareVersions;
+    }
+
+    /**
+     * @return 未配置时为 null
+     */
+    public String getAutoTestPath() {
+        return autoTestPath;
+    }
+
+    public String getAutoTestTestcasesPath() {
+        return autoTestTestcasesPath;
+    }
+
+    /**
+     * @return 是否覆盖已存在的测试文件
+     */
+    public boolean isAutoTestForceReplace() {
+        return autoTestForceReplace;
+    }
+
+    /**
+     * @param processName --process 参数
+     * @return 该流程启用的处理器，未配置时为 null
+     */
+    public List<String> getWriters(String processName) {
+        return "laravel-auto-test".equals(processName) ? laravelAutoTestWriters : defaultWriters;
+    }
+}
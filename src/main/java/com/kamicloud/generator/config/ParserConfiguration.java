@@ -1,11 +1,17 @@
 package com.kamicloud.generator.config;
 
 import com.kamicloud.generator.parsers.DocParser;
+import com.kamicloud.generator.parsers.ModelLoader;
+import com.kamicloud.generator.parsers.ParseCache;
 import com.kamicloud.generator.parsers.Parser;
+import com.kamicloud.generator.parsers.SourceParser;
+import com.kamicloud.generator.parsers.TemplateCompiler;
 import com.kamicloud.generator.stubs.core.OutputStub;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.io.File;
+
 @Configuration
 public class ParserConfiguration {
     private OutputStub outputStub;
@@ -14,11 +20,33 @@ public class ParserConfiguration {
         return new Parser();
     }
 
+    @Bean
+    public ModelLoader modelLoader() {
+        return new ModelLoader();
+    }
+
+    @Bean
+    public SourceParser sourceParser() {
+        return new SourceParser();
+    }
+
+    @Bean
+    public ParseCache parseCache(GeneratorSettings generatorSettings) {
+        String parseCachePath = generatorSettings.getParseCachePath();
+
+        return new ParseCache(parseCachePath.isEmpty() ? null : new File(parseCachePath));
+    }
+
     @Bean
     public DocParser docParser() {
         return new DocParser();
     }
 
+    @Bean
+    public TemplateCompiler templateCompiler(DocParser docParser) {
+        return new TemplateCompiler(docParser.getTemplateDir());
+    }
+
     @Bean
     public OutputStub outputStub() {
         if (outputStub == null) {
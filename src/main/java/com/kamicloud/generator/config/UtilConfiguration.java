@@ -1,9 +1,14 @@
 package com.kamicloud.generator.config;
 
+import com.kamicloud.generator.utils.OutputManifest;
+import com.kamicloud.generator.utils.OutputSink;
 import com.kamicloud.generator.utils.StringUtil;
 import com.kamicloud.generator.utils.UrlUtil;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.io.File;
 
 @Configuration
 public class UtilConfiguration {
@@ -16,4 +21,21 @@ public class UtilConfiguration {
     public StringUtil stringUtil() {
         return new StringUtil();
     }
+
+    @Bean
+    public GeneratorSettings generatorSettings(GeneratorProperties generatorProperties, Environment env) {
+        return new GeneratorSettings(generatorProperties, env);
+    }
+
+    @Bean
+    public OutputSink outputSink(GeneratorSettings generatorSettings) {
+        return new OutputSink(generatorSettings.getIoThreads(), generatorSettings.getIoQueue());
+    }
+
+    @Bean
+    public OutputManifest outputManifest(GeneratorSettings generatorSettings, OutputSink outputSink) {
+        String manifestPath = generatorSettings.getManifestPath();
+
+        return new OutputManifest(manifestPath.isEmpty() ? null : new File(manifestPath), outputSink);
+    }
 }
@@ -49,4 +49,9 @@ public class WriterConfiguration {
     public OpenAPIWriter openAPIWriter() {
         return new OpenAPIWriter();
     }
+
+    @Bean
+    public WriterExecutor writerExecutor() {
+        return new WriterExecutor();
+    }
 }
@@ -0,0 +1,41 @@
+package com.kamicloud.generator.daemon;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 常驻进程的客户端，不依赖Spring，只需要本类即可运行
+ * <p>
+ * java com.kamicloud.generator.daemon.GeneratorClient [--process=xxx | stop]
+ */
+public class GeneratorClient {
+    public static void main(String[] args) throws IOException {
+        int port = Integer.parseInt(System.getProperty("generator.daemon-port", String.valueOf(GeneratorDaemon.DEFAULT_PORT)));
+        String command = "generate";
+
+        for (String arg : args) {
+            if (arg.equals("stop")) {
+                command = "stop";
+            } else if (arg.startsWith("--process=")) {
+                command = "generate " + arg.substring("--process=".length());
+            }
+        }
+
+        String result = null;
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            PrintWriter writer = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), true);
+            BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+
+            writer.println(command);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                System.out.println(line);
+                result = line;
+            }
+        }
+
+        System.exit(result != null && result.startsWith("OK") ? 0 : 1);
+    }
+}
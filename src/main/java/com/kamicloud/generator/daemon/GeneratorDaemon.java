@@ -0,0 +1,81 @@
+package com.kamicloud.generator.daemon;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Predicate;
+
+/**
+ * 常驻进程，复用已启动的Spring上下文及模板缓存
+ * <p>
+ * 只监听本机回环地址，一次连接一行命令：
+ * <pre>
+ * generate [process]   生成，返回 OK / FAILED
+ * stop                 退出常驻进程
+ * </pre>
+ * 请求顺序处理，同一时间只有一次生成。
+ */
+public class GeneratorDaemon {
+    private static final Logger log = LoggerFactory.getLogger(GeneratorDaemon.class);
+
+    public static final int DEFAULT_PORT = 9527;
+
+    private final int port;
+
+    /**
+     * 参数为 --process，返回是否生成成功
+     */
+    private final Predicate<String> generator;
+
+    public GeneratorDaemon(int port, Predicate<String> generator) {
+        this.port = port;
+        this.generator = generator;
+    }
+
+    public void serve() throws IOException {
+        try (ServerSocket serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+            log.info("Generator daemon listening on {}:{}", serverSocket.getInetAddress().getHostAddress(), port);
+
+            boolean running = true;
+            while (running) {
+                try (Socket socket = serverSocket.accept()) {
+                    running = handle(socket);
+                } catch (IOException e) {
+                    log.warn("Daemon request failed", e);
+                }
+            }
+        }
+        log.info("Generator daemon stopped");
+    }
+
+    /**
+     * @return 是否继续监听
+     */
+    private boolean handle(Socket socket) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        PrintWriter writer = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), true);
+
+        String line = reader.readLine();
+        String[] command = (line == null ? "" : line.trim()).split("\\s+", 2);
+
+        switch (command[0]) {
+            case "stop":
+                writer.println("OK");
+                return false;
+            case "":
+            case "generate":
+                long start = System.currentTimeMillis();
+                boolean success = generator.test(command.length > 1 ? command[1].trim() : "");
+                writer.println((success ? "OK " : "FAILED ") + (System.currentTimeMillis() - start) + "ms");
+                return true;
+            default:
+                writer.println("FAILED unknown command " + command[0]);
+                return true;
+        }
+    }
+}
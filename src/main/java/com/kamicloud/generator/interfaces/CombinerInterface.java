@@ -1,5 +1,31 @@
 package com.kamicloud.generator.interfaces;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
 public interface CombinerInterface {
     String toString();
+
+    /**
+     * 直接输出内容，不生成中间字符串
+     * <p>
+     * 实现类需覆盖此方法，并通过 render 实现 toString。
+     */
+    default void appendTo(Appendable out) throws IOException {
+        out.append(toString());
+    }
+
+    /**
+     * 供 toString 使用，StringBuilder 不会抛出 IOException
+     */
+    static String render(CombinerInterface combiner) {
+        StringBuilder content = new StringBuilder();
+        try {
+            combiner.appendTo(content);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return content.toString();
+    }
 }
@@ -0,0 +1,106 @@
+package com.kamicloud.generator.parsers;
+
+import com.kamicloud.generator.stubs.core.AnnotationStub;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * 按注解类型缓存成员的 MethodHandle，把注解实例转换成 AnnotationStub
+ * <p>
+ * 每种注解只查找一次成员，成员顺序与 getDeclaredMethods 相同：数组成员逐个 addValue，其他成员 setValue。
+ */
+class AnnotationAccessor {
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Annotation.class);
+
+    private static final ClassValue<AnnotationAccessor> ACCESSORS = new ClassValue<AnnotationAccessor>() {
+        @Override
+        protected AnnotationAccessor computeValue(Class<?> annotationClass) {
+            return new AnnotationAccessor(annotationClass);
+        }
+    };
+
+    private final String name;
+    private final Member[] members;
+
+    static AnnotationAccessor of(Class<? extends Annotation> annotationClass) {
+        return ACCESSORS.get(annotationClass);
+    }
+
+    private AnnotationAccessor(Class<?> annotationClass) {
+        name = annotationClass.getSimpleName();
+
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        Method[] methods = annotationClass.getDeclaredMethods();
+        members = new Member[methods.length];
+
+        for (int i = 0; i < methods.length; i++) {
+            Method method = methods[i];
+            // 模板中也可以定义非 public 的注解
+            if (!Modifier.isPublic(annotationClass.getModifiers())) {
+                method.setAccessible(true);
+            }
+            try {
+                members[i] = new Member(
+                    lookup.unreflect(method).asType(GETTER_TYPE),
+                    method.getReturnType()
+                );
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Cannot access " + method, e);
+            }
+        }
+    }
+
+    AnnotationStub toStub(Annotation annotation) {
+        AnnotationStub annotationStub = new AnnotationStub(name);
+
+        for (Member member : members) {
+            member.apply(annotation, annotationStub);
+        }
+
+        return annotationStub;
+    }
+
+    private static class Member {
+        private final MethodHandle getter;
+        private final boolean array;
+        private final boolean primitiveArray;
+
+        private Member(MethodHandle getter, Class<?> returnType) {
+            this.getter = getter;
+            this.array = returnType.isArray();
+            this.primitiveArray = array && returnType.getComponentType().isPrimitive();
+        }
+
+        private void apply(Annotation annotation, AnnotationStub annotationStub) {
+            Object value = get(annotation);
+
+            if (!array) {
+                annotationStub.setValue(value.toString());
+            } else if (primitiveArray) {
+                for (int i = 0, length = Array.getLength(value); i < length; i++) {
+                    annotationStub.addValue(Array.get(value, i).toString());
+                }
+            } else {
+                for (Object subValue : (Object[]) value) {
+                    annotationStub.addValue(subValue.toString());
+                }
+            }
+        }
+
+        private Object get(Annotation annotation) {
+            try {
+                return (Object) getter.invokeExact(annotation);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
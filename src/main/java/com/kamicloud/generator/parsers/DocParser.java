@@ -1,93 +1,165 @@
 package com.kamicloud.generator.parsers;
 
-import com.github.javaparser.StaticJavaParser;
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParseProblemException;
+import com.github.javaparser.ParseResult;
 import com.github.javaparser.ast.CompilationUnit;
 import com.github.javaparser.ast.Node;
 import com.github.javaparser.ast.body.*;
 import com.github.javaparser.ast.comments.Comment;
 import com.github.javaparser.javadoc.Javadoc;
+import com.kamicloud.generator.config.GeneratorSettings;
+import com.kamicloud.generator.utils.Tracer;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.env.Environment;
 
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.util.Arrays;
-import java.util.HashMap;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @SuppressWarnings("unused")
 public class DocParser {
-    public static HashMap<String, String> classDocHashMap = new HashMap<>();
+    /**
+     * classpath => 注释，多个模板文件并行写入
+     */
+    public static ConcurrentHashMap<String, String> classDocHashMap = new ConcurrentHashMap<>();
+
+    /**
+     * StaticJavaParser 共用全局配置，每个线程使用自己的 JavaParser
+     */
+    private static final ThreadLocal<JavaParser> PARSERS = ThreadLocal.withInitial(JavaParser::new);
+
+    /**
+     * 每个模板文件解析出的注释，单个文件重新解析时先移除旧注释
+     */
+    private ConcurrentHashMap<File, LinkedList<String>> fileKeys = new ConcurrentHashMap<>();
 
     @Autowired
-    Environment env;
+    GeneratorSettings generatorSettings;
 
-    public void parse() {
-        String codePath = env.getProperty("generator.template-path", "./src/main/java/templates");
-        File templateDir = new File(codePath + "/templates");
-        File[] templateFiles = templateDir.listFiles();
+    public File getTemplateDir() {
+        return new File(generatorSettings.getTemplatePath() + "/templates");
+    }
 
-        if (templateFiles == null) {
-            return;
+    /**
+     * 模板目录及其子目录下的所有java文件，按路径排序
+     */
+    public List<File> getTemplateFiles() {
+        Path templateDir = getTemplateDir().toPath();
+        if (!Files.isDirectory(templateDir)) {
+            return Collections.emptyList();
         }
-        Arrays.asList(templateFiles).forEach(templateFile -> {
-            // 跳过非java文件
-            if (!templateFile.getName().contains(".java")) {
-                return;
-            }
 
-            try {
-                parse(templateFile);
-            } catch (FileNotFoundException e) {
-                e.printStackTrace();
-            }
+        try (Stream<Path> paths = Files.walk(templateDir)) {
+            return paths
+                .filter(path -> path.toString().endsWith(".java"))
+                .sorted()
+                .map(Path::toFile)
+                .collect(Collectors.toList());
+        } catch (IOException e) {
+            e.printStackTrace();
+            return Collections.emptyList();
+        }
+    }
+
+    public void parse() {
+        classDocHashMap.clear();
+        fileKeys.clear();
+
+        Tracer.span("DocParser.parse").run(() -> {
+            // 文件之间没有依赖，并行解析
+            getTemplateFiles().parallelStream().forEach(this::parseFile);
         });
+    }
+
+    /**
+     * 重新解析单个模板文件，文件已删除时只移除旧注释
+     *
+     * @param file 模板文件
+     */
+    public void parseFile(File file) {
+        LinkedList<String> keys = fileKeys.remove(file.getAbsoluteFile());
+        if (keys != null) {
+            keys.forEach(classDocHashMap::remove);
+        }
+
+        if (!file.exists()) {
+            return;
+        }
 
+        try {
+            Tracer.span("DocParser.parseFile", "file", file.getPath()).run(() -> parse(file));
+        } catch (FileNotFoundException e) {
+            e.printStackTrace();
+        }
     }
 
     private void parse(File file) throws FileNotFoundException {
-        CompilationUnit compilationUnit = StaticJavaParser.parse(file);
+        ParseResult<CompilationUnit> result = PARSERS.get().parse(file);
+        if (!result.isSuccessful() || !result.getResult().isPresent()) {
+            throw new ParseProblemException(result.getProblems());
+        }
+        CompilationUnit compilationUnit = result.getResult().get();
+        LinkedList<String> keys = new LinkedList<>();
 
         compilationUnit.getChildNodes().forEach(node -> {
             if (node instanceof ClassOrInterfaceDeclaration) {
                 ClassOrInterfaceDeclaration template = (ClassOrInterfaceDeclaration) node;
 
-                parseClassOrInterfaceDeclaration(template);
+                parseClassOrInterfaceDeclaration(template, keys);
             }
             if (node instanceof EnumDeclaration) {
                 EnumDeclaration error = (EnumDeclaration) node;
 
-                parseEnumDeclaration(error);
+                parseEnumDeclaration(error, keys);
             }
         });
+
+        fileKeys.put(file.getAbsoluteFile(), keys);
     }
 
-    private void parseClassOrInterfaceDeclaration(ClassOrInterfaceDeclaration classOrInterfaceDeclaration) {
+    private void parseClassOrInterfaceDeclaration(ClassOrInterfaceDeclaration classOrInterfaceDeclaration, LinkedList<String> keys) {
         Optional<String> classpath = classOrInterfaceDeclaration.getFullyQualifiedName();
 
         Optional<Comment> classComment = classOrInterfaceDeclaration.getComment();
 
         if (classpath.isPresent() && classComment.isPresent()) {
-            classDocHashMap.put(classpath.get(), parseComment(classComment.get()));
+            putDoc(classpath.get(), parseComment(classComment.get()), keys);
         }
 
         classOrInterfaceDeclaration.getMembers().forEach(bodyDeclaration -> {
-            bodyDeclaration.ifEnumDeclaration(this::parseEnumDeclaration);
-            bodyDeclaration.ifClassOrInterfaceDeclaration(this::parseClassOrInterfaceDeclaration);
+            bodyDeclaration.ifEnumDeclaration(enumDeclaration -> parseEnumDeclaration(enumDeclaration, keys));
+            bodyDeclaration.ifClassOrInterfaceDeclaration(declaration -> parseClassOrInterfaceDeclaration(declaration, keys));
             bodyDeclaration.ifFieldDeclaration(fieldDeclaration -> {
                 Optional<Comment> comment = fieldDeclaration.getComment();
                 fieldDeclaration.getVariables().forEach(variableDeclarator -> {
                     String name = variableDeclarator.getNameAsString();
                     if (classpath.isPresent() && comment.isPresent()) {
 
-                        classDocHashMap.put(classpath.get() + "." + name, parseComment(comment.get()));
+                        putDoc(classpath.get() + "." + name, parseComment(comment.get()), keys);
                     }
                 });
             });
         });
     }
 
-    private String parseComment(Comment comment) {
+    private void putDoc(String classpath, String comment, LinkedList<String> keys) {
+        classDocHashMap.put(classpath, comment);
+        keys.add(classpath);
+    }
+
+    /**
+     * Javadoc 只取描述部分，其他注释去掉首尾空白，SourceParser 也使用
+     */
+    static String parseComment(Comment comment) {
         String string;
 
         if (comment.isJavadocComment()) {
@@ -100,7 +172,7 @@ public class DocParser {
         return string;
     }
 
-    private void parseEnumDeclaration(EnumDeclaration enumDeclaration) {
+    private void parseEnumDeclaration(EnumDeclaration enumDeclaration, LinkedList<String> keys) {
         Optional<Comment> enumComment = enumDeclaration.getComment();
         String classpath;
         if (!enumDeclaration.getFullyQualifiedName().isPresent()) {
@@ -108,7 +180,7 @@ public class DocParser {
         }
 
         classpath = enumDeclaration.getFullyQualifiedName().get();
-        enumComment.ifPresent(comment -> classDocHashMap.put(classpath, parseComment(comment)));
+        enumComment.ifPresent(comment -> putDoc(classpath, parseComment(comment), keys));
         enumDeclaration.getEntries().forEach(enumConstantDeclaration -> {
             String name = enumConstantDeclaration.getNameAsString();
             Optional<Comment> comment = enumConstantDeclaration.getComment();
@@ -116,7 +188,7 @@ public class DocParser {
             if (!comment.isPresent()) {
                 return;
             }
-            classDocHashMap.put(classpath + "." + name, parseComment(comment.get()));
+            putDoc(classpath + "." + name, parseComment(comment.get()), keys);
         });
     }
 
@@ -0,0 +1,193 @@
+package com.kamicloud.generator.parsers;
+
+import com.google.common.base.CaseFormat;
+import com.google.gson.Gson;
+import com.kamicloud.generator.stubs.core.*;
+import com.kamicloud.generator.stubs.snapshot.*;
+import com.kamicloud.generator.utils.Tracer;
+import definitions.annotations.Request;
+import definitions.types.EnumType;
+import definitions.types.ModelType;
+import definitions.types.Type;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 把 TemplateProcessor 生成的 ApiSnapshot 转换成与 Parser 相同的 stub
+ * <p>
+ * 注释已包含在 ApiSnapshot 中，不需要 DocParser，也不会加载模板类。
+ */
+public class ModelLoader {
+    @Autowired
+    OutputStub outputStub;
+
+    /**
+     * 读取编译输出中的 ApiSnapshot.RESOURCE
+     *
+     * @param classLoader 模板编译结果所在的 ClassLoader
+     */
+    public void load(ClassLoader classLoader) {
+        InputStream input = classLoader.getResourceAsStream(ApiSnapshot.RESOURCE);
+        if (input == null) {
+            throw new IllegalStateException(ApiSnapshot.RESOURCE + " not found, compile templates with TemplateProcessor or enable generator.compile-templates");
+        }
+
+        try (Reader reader = new InputStreamReader(input, StandardCharsets.UTF_8)) {
+            load(new Gson().fromJson(reader, ApiSnapshot.class));
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read " + ApiSnapshot.RESOURCE, e);
+        }
+    }
+
+    public void load(ApiSnapshot snapshot) {
+        Tracer.span("ModelLoader.load").run(() -> {
+            snapshot.templates.forEach(templateSnapshot -> {
+                TemplateStub templateStub = toTemplate(templateSnapshot);
+                outputStub.addTemplate(templateStub);
+
+                if (templateSnapshot.classpath.equals(snapshot.currentTemplate)) {
+                    outputStub.setCurrentTemplate(templateStub);
+                }
+            });
+
+            snapshot.errors.forEach(errorSnapshot -> {
+                ErrorStub errorStub = new ErrorStub(
+                    CaseFormat.UPPER_UNDERSCORE.to(CaseFormat.UPPER_CAMEL, errorSnapshot.name),
+                    errorSnapshot.classpath,
+                    errorSnapshot.code,
+                    ""
+                );
+                apply(errorSnapshot, errorStub);
+                outputStub.addError(errorStub);
+            });
+        });
+    }
+
+    private TemplateStub toTemplate(TemplateSnapshot templateSnapshot) {
+        TemplateStub templateStub = new TemplateStub(
+            templateSnapshot.name.replace("Template", ""),
+            templateSnapshot.classpath
+        );
+        templateStub.setComment(templateSnapshot.comment);
+
+        templateSnapshot.enums.forEach(enumSnapshot -> templateStub.addEnum(toEnum(enumSnapshot)));
+        templateSnapshot.models.forEach(modelSnapshot -> templateStub.addModel(toModel(modelSnapshot, templateStub)));
+        templateSnapshot.controllers.forEach(controllerSnapshot -> templateStub.addController(toController(controllerSnapshot)));
+
+        return templateStub;
+    }
+
+    private ControllerStub toController(ControllerSnapshot controllerSnapshot) {
+        ControllerStub controllerStub = new ControllerStub(controllerSnapshot.name, controllerSnapshot.classpath);
+        apply(controllerSnapshot, controllerStub);
+
+        controllerSnapshot.actions.forEach(actionSnapshot -> {
+            ActionStub actionStub = new ActionStub(
+                CaseFormat.LOWER_CAMEL.to(CaseFormat.UPPER_CAMEL, actionSnapshot.name),
+                actionSnapshot.classpath
+            );
+            controllerStub.addAction(actionStub);
+            apply(actionSnapshot, actionStub);
+
+            actionSnapshot.parameters.forEach(parameterSnapshot -> {
+                ParameterStub parameterStub = toParameter(parameterSnapshot);
+                if (parameterStub != null) {
+                    if (parameterStub.hasAnnotation(Request.class)) {
+                        actionStub.addRequest(parameterStub);
+                    } else {
+                        actionStub.addResponse(parameterStub);
+                    }
+                }
+            });
+        });
+
+        return controllerStub;
+    }
+
+    private ModelStub toModel(ModelSnapshot modelSnapshot, TemplateStub templateStub) {
+        ModelStub modelStub = new ModelStub(modelSnapshot.name, modelSnapshot.classpath, templateStub);
+        outputStub.modelHashMap.put(modelSnapshot.classpath, modelStub);
+        apply(modelSnapshot, modelStub);
+        modelStub.setParentClasspath(modelSnapshot.parentClasspath);
+
+        modelSnapshot.parameters.forEach(parameterSnapshot -> {
+            ParameterStub parameterStub = toParameter(parameterSnapshot);
+            if (parameterStub != null) {
+                modelStub.addParameter(parameterStub);
+            }
+        });
+
+        return modelStub;
+    }
+
+    private EnumStub toEnum(EnumSnapshot enumSnapshot) {
+        EnumStub enumStub = new EnumStub(enumSnapshot.name, enumSnapshot.classpath);
+        apply(enumSnapshot, enumStub);
+
+        for (int ordinal = 0; ordinal < enumSnapshot.items.size(); ordinal++) {
+            EnumSnapshot.EnumItemSnapshot itemSnapshot = enumSnapshot.items.get(ordinal);
+            EnumStub.EnumStubItem item = new EnumStub.EnumStubItem(
+                itemSnapshot.value == null ? String.valueOf(ordinal) : itemSnapshot.value,
+                itemSnapshot.classpath,
+                EnumStub.EnumStubItemType.INTEGER
+            );
+            item.setComment(itemSnapshot.comment);
+            enumStub.addItem(itemSnapshot.name, item);
+        }
+
+        return enumStub;
+    }
+
+    private ParameterStub toParameter(ParameterSnapshot parameterSnapshot) {
+        ParameterStub parameterStub = new ParameterStub(
+            parameterSnapshot.name,
+            parameterSnapshot.classpath,
+            parameterSnapshot.typeSimpleName,
+            parameterSnapshot.typeClasspath
+        );
+        parameterStub.setArrayDepth(parameterSnapshot.arrayDepth);
+        parameterStub.setTypeName(parameterSnapshot.typeName);
+
+        // 与 Parser.parseParameter 相同的类型判断
+        Type type;
+        if (parameterSnapshot.typeName.contains("$Models$")) {
+            type = new ModelType();
+        } else if (parameterSnapshot.typeName.contains("$Enums$")) {
+            type = new EnumType();
+        } else {
+            type = Parser.TYPE_MAP.get(parameterSnapshot.typeSimpleName);
+        }
+        if (type == null) {
+            try {
+                type = (Type) Class.forName(parameterSnapshot.typeName).newInstance();
+            } catch (ReflectiveOperationException e) {
+                e.printStackTrace();
+                return null;
+            }
+        }
+        parameterStub.setType(type);
+
+        apply(parameterSnapshot, parameterStub);
+
+        return parameterStub;
+    }
+
+    private void apply(ElementSnapshot elementSnapshot, BaseWithAnnotationStub stub) {
+        elementSnapshot.annotations.forEach(annotationSnapshot -> {
+            AnnotationStub annotationStub = new AnnotationStub(annotationSnapshot.name);
+            if (annotationSnapshot.value != null) {
+                annotationStub.setValue(annotationSnapshot.value);
+            }
+            annotationSnapshot.values.forEach(annotationStub::addValue);
+
+            stub.addAnnotation(annotationSnapshot.type, annotationStub);
+        });
+
+        stub.setComment(elementSnapshot.comment);
+    }
+}
@@ -0,0 +1,291 @@
+package com.kamicloud.generator.parsers;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import com.google.gson.Gson;
+import com.kamicloud.generator.stubs.core.*;
+import com.kamicloud.generator.stubs.snapshot.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 解析结果缓存，模板源码、已编译的模板类及解析器本身都未变化时直接读取上次的结果
+ * <p>
+ * 缓存内容是包含注释的 ApiSnapshot，由 ModelLoader 还原成 stub，不需要再运行 DocParser 及 Parser。
+ */
+public class ParseCache {
+    private static final Logger log = LoggerFactory.getLogger(ParseCache.class);
+
+    /**
+     * 缓存格式变化时修改
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * 解析结果依赖的类，生成器升级后缓存失效
+     */
+    private static final List<Class<?>> PARSER_CLASSES = Arrays.asList(
+        ParseCache.class,
+        Parser.class,
+        DocParser.class,
+        ModelLoader.class,
+        TemplateProcessor.class,
+        SourceParser.class,
+        AnnotationAccessor.class
+    );
+
+    private final File cacheFile;
+
+    /**
+     * @param cacheFile 缓存保存位置，为null时不缓存
+     */
+    public ParseCache(File cacheFile) {
+        this.cacheFile = cacheFile;
+    }
+
+    /**
+     * 计算本次解析输入的摘要
+     *
+     * @param templateFiles   模板源码文件
+     * @param compiledClasses 是否使用 classpath 中预先编译的模板，未开启 generator.compile-templates 时为 true
+     * @return 不缓存或无法确定输入时为 null
+     */
+    public String fingerprint(List<File> templateFiles, boolean compiledClasses) {
+        if (cacheFile == null) {
+            return null;
+        }
+
+        Hasher hasher = Hashing.sha256().newHasher();
+        hasher.putInt(VERSION);
+        hasher.putBoolean(compiledClasses);
+
+        try {
+            for (Class<?> parserClass : PARSER_CLASSES) {
+                if (!putResource(hasher, parserClass.getClassLoader(), parserClass.getName().replace('.', '/') + ".class")) {
+                    return null;
+                }
+            }
+
+            for (File templateFile : templateFiles) {
+                putFile(hasher, templateFile.toPath(), templateFile.getPath());
+            }
+
+            if (compiledClasses && !putCompiledTemplates(hasher)) {
+                return null;
+            }
+        } catch (IOException | URISyntaxException e) {
+            log.warn("Failed to fingerprint templates, parse cache disabled", e);
+            return null;
+        }
+
+        return hasher.hash().toString();
+    }
+
+    /**
+     * classpath 中的模板类及 TemplateProcessor 生成的 ApiSnapshot.RESOURCE
+     *
+     * @return 模板不在文件系统上时无法判断是否变化，返回 false
+     */
+    private boolean putCompiledTemplates(Hasher hasher) throws IOException, URISyntaxException {
+        ClassLoader classLoader = getClass().getClassLoader();
+        putResource(hasher, classLoader, ApiSnapshot.RESOURCE);
+
+        Enumeration<URL> roots = classLoader.getResources("templates");
+        while (roots.hasMoreElements()) {
+            URL root = roots.nextElement();
+            if (!"file".equals(root.getProtocol())) {
+                return false;
+            }
+
+            Path rootPath = Paths.get(root.toURI());
+            List<Path> classFiles;
+            try (Stream<Path> paths = Files.walk(rootPath)) {
+                classFiles = paths.filter(path -> path.toString().endsWith(".class")).sorted().collect(Collectors.toList());
+            }
+            for (Path classFile : classFiles) {
+                putFile(hasher, classFile, rootPath.relativize(classFile).toString());
+            }
+        }
+
+        return true;
+    }
+
+    private static void putFile(Hasher hasher, Path file, String name) throws IOException {
+        hasher.putString(name, StandardCharsets.UTF_8);
+        byte[] content = Files.readAllBytes(file);
+        hasher.putInt(content.length);
+        hasher.putBytes(content);
+    }
+
+    private static boolean putResource(Hasher hasher, ClassLoader classLoader, String name) throws IOException {
+        hasher.putString(name, StandardCharsets.UTF_8);
+        try (InputStream input = classLoader.getResourceAsStream(name)) {
+            if (input == null) {
+                hasher.putInt(-1);
+                return false;
+            }
+            byte[] content = ByteStreams.toByteArray(input);
+            hasher.putInt(content.length);
+            hasher.putBytes(content);
+        }
+
+        return true;
+    }
+
+    /**
+     * @param fingerprint 本次解析输入的摘要
+     * @return 缓存不存在、已失效或损坏时为 null
+     */
+    public ApiSnapshot load(String fingerprint) {
+        if (fingerprint == null || !cacheFile.isFile()) {
+            return null;
+        }
+
+        try (Reader reader = Files.newBufferedReader(cacheFile.toPath(), StandardCharsets.UTF_8)) {
+            Entry entry = new Gson().fromJson(reader, Entry.class);
+            if (entry == null || !fingerprint.equals(entry.fingerprint)) {
+                return null;
+            }
+            log.info("Parse cache hit {}", cacheFile);
+
+            return entry.snapshot;
+        } catch (Exception e) {
+            log.warn("Ignore broken parse cache {}", cacheFile, e);
+            return null;
+        }
+    }
+
+    /**
+     * 保存解析结果，需在 OutputStub.postParse 之后调用以包含注释
+     *
+     * @param fingerprint 本次解析输入的摘要
+     * @param output      解析结果
+     */
+    public void save(String fingerprint, OutputStub output) {
+        if (fingerprint == null) {
+            return;
+        }
+
+        Entry entry = new Entry();
+        entry.fingerprint = fingerprint;
+        entry.snapshot = toSnapshot(output);
+
+        File parent = cacheFile.getAbsoluteFile().getParentFile();
+        if (!parent.exists()) {
+            parent.mkdirs();
+        }
+        try (Writer writer = Files.newBufferedWriter(cacheFile.toPath(), StandardCharsets.UTF_8)) {
+            new Gson().toJson(entry, writer);
+        } catch (IOException e) {
+            log.warn("Failed to save parse cache {}", cacheFile, e);
+        }
+    }
+
+    /**
+     * stub 转换成 ModelLoader 可以还原的 ApiSnapshot，名称还原成源码中的写法
+     */
+    static ApiSnapshot toSnapshot(OutputStub output) {
+        ApiSnapshot snapshot = new ApiSnapshot();
+
+        // ModelLoader 按此顺序加入版本，VersionSharing 依赖版本顺序
+        output.getTemplateList().forEach(templateStub -> {
+            TemplateSnapshot templateSnapshot = element(new TemplateSnapshot(), templateStub);
+
+            templateStub.getEnums().forEach(enumStub -> {
+                EnumSnapshot enumSnapshot = element(new EnumSnapshot(), enumStub);
+                enumStub.getItems().forEach((key, item) -> {
+                    EnumSnapshot.EnumItemSnapshot itemSnapshot = element(new EnumSnapshot.EnumItemSnapshot(), item);
+                    itemSnapshot.name = key;
+                    itemSnapshot.value = item.getName();
+                    enumSnapshot.items.add(itemSnapshot);
+                });
+                templateSnapshot.enums.add(enumSnapshot);
+            });
+
+            templateStub.getModels().forEach(modelStub -> {
+                ModelSnapshot modelSnapshot = element(new ModelSnapshot(), modelStub);
+                modelSnapshot.parentClasspath = modelStub.getParentClasspath();
+                // 只保存模型自身的字段，父类字段由 postParse 链接
+                modelStub.clone().forEach(parameterStub -> modelSnapshot.parameters.add(parameter(parameterStub)));
+                templateSnapshot.models.add(modelSnapshot);
+            });
+
+            templateStub.getControllers().forEach(controllerStub -> {
+                ControllerSnapshot controllerSnapshot = element(new ControllerSnapshot(), controllerStub);
+                controllerStub.getActions().forEach(actionStub -> {
+                    ActionSnapshot actionSnapshot = element(new ActionSnapshot(), actionStub);
+                    actionStub.getRequests().forEach(parameterStub -> actionSnapshot.parameters.add(parameter(parameterStub)));
+                    actionStub.getResponses().forEach(parameterStub -> actionSnapshot.parameters.add(parameter(parameterStub)));
+                    controllerSnapshot.actions.add(actionSnapshot);
+                });
+                templateSnapshot.controllers.add(controllerSnapshot);
+            });
+
+            snapshot.templates.add(templateSnapshot);
+        });
+
+        if (output.getCurrentTemplate() != null) {
+            snapshot.currentTemplate = output.getCurrentTemplate().getClasspath();
+        }
+
+        output.getErrors().forEach(errorStub -> {
+            ErrorSnapshot errorSnapshot = element(new ErrorSnapshot(), errorStub);
+            errorSnapshot.code = errorStub.getCode();
+            snapshot.errors.add(errorSnapshot);
+        });
+
+        return snapshot;
+    }
+
+    private static ParameterSnapshot parameter(ParameterStub parameterStub) {
+        ParameterSnapshot parameterSnapshot = element(new ParameterSnapshot(), parameterStub);
+        parameterSnapshot.typeSimpleName = parameterStub.getTypeSimpleName();
+        parameterSnapshot.typeClasspath = parameterStub.getTypeClasspath();
+        parameterSnapshot.typeName = parameterStub.getTypeName();
+        parameterSnapshot.arrayDepth = parameterStub.getArrayDepth();
+
+        return parameterSnapshot;
+    }
+
+    private static <T extends ElementSnapshot> T element(T elementSnapshot, BaseWithAnnotationStub stub) {
+        String classpath = stub.getClasspath();
+        // classpath 为 canonical name，最后一段即源码中的名称
+        elementSnapshot.name = classpath.substring(classpath.lastIndexOf('.') + 1);
+        elementSnapshot.classpath = classpath;
+        elementSnapshot.comment = stub.getComment();
+
+        stub.getAnnotations().forEach((type, annotationStub) -> {
+            AnnotationSnapshot annotationSnapshot = new AnnotationSnapshot();
+            annotationSnapshot.type = type;
+            annotationSnapshot.name = annotationStub.getName();
+            annotationSnapshot.value = annotationStub.getValue();
+            annotationSnapshot.values.addAll(annotationStub.getValues());
+            elementSnapshot.annotations.add(annotationSnapshot);
+        });
+
+        return elementSnapshot;
+    }
+
+    private static class Entry {
+        String fingerprint;
+        ApiSnapshot snapshot;
+    }
+}
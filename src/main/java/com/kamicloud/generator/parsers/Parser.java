@@ -8,6 +8,7 @@ import definitions.annotations.ErrorInterface;
 import definitions.annotations.FixedEnumValueInterface;
 import definitions.annotations.Request;
 import definitions.types.*;
+import com.kamicloud.generator.utils.Tracer;
 import org.springframework.beans.factory.annotation.Autowired;
 import templates.TemplateList;
 
@@ -17,6 +18,7 @@ import java.lang.reflect.Method;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
+import java.util.stream.Collectors;
 
 @SuppressWarnings("unchecked")
 public class Parser {
@@ -26,7 +28,7 @@ public class Parser {
     /**
      * 标量数据对应的类型
      */
-    private HashMap<String, Type> typeMap = new HashMap<String, Type>() {{
+    static final HashMap<String, Type> TYPE_MAP = new HashMap<String, Type>() {{
         put("int", new ScalarInteger());
         put("Integer", new ScalarInteger());
         put("long", new ScalarInteger());
@@ -44,42 +46,100 @@ public class Parser {
     }};
 
     public void parse() {
-        Arrays.asList(TemplateList.templates).forEach(this::parseTemplate);
+        parse(TemplateList.templates, TemplateList.errorsTemplate, TemplateList.currentTemplate);
+    }
+
+    /**
+     * 解析 TemplateCompiler 编译出的 TemplateList
+     *
+     * @param templateList TemplateList 类
+     */
+    public void parse(Class<?> templateList) {
+        try {
+            parse(
+                (Class<?>[]) templateList.getField("templates").get(null),
+                asEnumClass((Class<?>) templateList.getField("errorsTemplate").get(null)),
+                (Class<?>) templateList.getField("currentTemplate").get(null)
+            );
+        } catch (NoSuchFieldException | IllegalAccessException e) {
+            throw new IllegalStateException("Invalid " + templateList.getName(), e);
+        }
+    }
 
-        parseErrors(TemplateList.errorsTemplate);
+    /**
+     * 各版本、各控制器并行解析，解析结果按模板中声明的顺序加入，输出与串行解析相同
+     */
+    public void parse(Class<?>[] templates, Class<? extends Enum<?>> errorsTemplate, Class<?> currentTemplate) {
+        Tracer.span("Parser.parse").run(() -> {
+            List<TemplateStub> templateStubs = Arrays.stream(templates)
+                .parallel()
+                .map(this::parseTemplate)
+                .collect(Collectors.toList());
+
+            for (int i = 0; i < templates.length; i++) {
+                outputStub.addTemplate(templateStubs.get(i));
+
+                if (templates[i] == currentTemplate) {
+                    outputStub.setCurrentTemplate(templateStubs.get(i));
+                }
+            }
+
+            parseErrors(errorsTemplate);
+        });
     }
 
-    private void parseTemplate(Class<?> template) {
+    private TemplateStub parseTemplate(Class<?> template) {
         String version = template.getSimpleName();
         version = version.replace("Template", "");
         TemplateStub templateStub = new TemplateStub(
             version,
             template.getCanonicalName()
         );
+        Tracer.span("Parser.parseTemplate", "version", version).run(() -> {
+            Arrays.asList(template.getDeclaredClasses()).forEach(part -> {
+                if (part.getSimpleName().equals("Enums")) {
+                    parseEnums(part.getDeclaredClasses(), templateStub);
+                } else if (part.getSimpleName().equals("Controllers")) {
+                    parseControllers(part.getDeclaredClasses(), templateStub);
+                } else if (part.getSimpleName().equals("Models")) {
+                    parseModels(part.getDeclaredClasses(), templateStub);
+                }
+            });
 
-        Arrays.asList(template.getDeclaredClasses()).forEach(part -> {
-            if (part.getSimpleName().equals("Enums")) {
-                parseEnums(part.getDeclaredClasses(), templateStub);
-            } else if (part.getSimpleName().equals("Controllers")) {
-                parseControllers(part.getDeclaredClasses(), templateStub);
-            } else if (part.getSimpleName().equals("Models")) {
-                parseModels(part.getDeclaredClasses(), templateStub);
-            }
+            parseComment(template.getCanonicalName(), templateStub);
         });
 
-        parseComment(template.getCanonicalName(), templateStub);
+        return templateStub;
+    }
 
-        outputStub.addTemplate(templateStub);
+    /**
+     * @param clazz 模板中的枚举类
+     */
+    private static Class<? extends Enum<?>> asEnumClass(Class<?> clazz) {
+        if (!clazz.isEnum()) {
+            throw new IllegalStateException(clazz.getName() + " is not an enum");
+        }
 
-        if (template == TemplateList.currentTemplate) {
-            outputStub.setCurrentTemplate(templateStub);
+        return (Class<? extends Enum<?>>) clazz;
+    }
+
+    /**
+     * 与 Enum.valueOf 相同，不需要确定的枚举类型
+     */
+    private static Enum<?> enumValue(Class<? extends Enum<?>> clazz, String name) {
+        for (Enum<?> value : clazz.getEnumConstants()) {
+            if (value.name().equals(name)) {
+                return value;
+            }
         }
+
+        throw new IllegalArgumentException("No enum constant " + clazz.getCanonicalName() + "." + name);
     }
 
-    private void parseErrors(Class<? extends Enum> errorsTemplate) {
+    private void parseErrors(Class<? extends Enum<?>> errorsTemplate) {
         Arrays.asList(errorsTemplate.getFields()).forEach(error -> {
             try {
-                Enum<?> value = Enum.valueOf(errorsTemplate, error.getName());
+                Enum<?> value = enumValue(errorsTemplate, error.getName());
                 if (ErrorInterface.class.isAssignableFrom(errorsTemplate)) {
                     Method getValue = errorsTemplate.getMethod("getValue");
                     String fillValue = getValue.invoke(value).toString();
@@ -102,13 +162,23 @@ public class Parser {
     }
 
     private void parseControllers(Class<?>[] controllers, TemplateStub templateStub) {
-        Arrays.asList(controllers).forEach(controller -> {
-            ControllerStub controllerStub = new ControllerStub(
-                controller.getSimpleName(),
-                controller.getCanonicalName()
-            );
-            templateStub.addController(controllerStub);
+        Arrays.stream(controllers)
+            .parallel()
+            .map(controller -> parseController(controller, templateStub))
+            .collect(Collectors.toList())
+            .forEach(templateStub::addController);
+    }
 
+    private ControllerStub parseController(Class<?> controller, TemplateStub templateStub) {
+        ControllerStub controllerStub = new ControllerStub(
+            controller.getSimpleName(),
+            controller.getCanonicalName()
+        );
+        Tracer.span(
+            "Parser.parseController",
+            "version", templateStub.getName(),
+            "controller", controllerStub.getName()
+        ).run(() -> {
             parseAnnotations(controller.getAnnotations(), controllerStub);
             parseComment(controller.getCanonicalName(), controllerStub);
 
@@ -118,24 +188,33 @@ public class Parser {
                     action.getCanonicalName()
                 );
                 controllerStub.addAction(actionStub);
-                // 注解
-                parseAnnotations(action.getAnnotations(), actionStub);
-
-                parseComment(action.getCanonicalName(), actionStub);
-
-                // 遍历每一个参数，注解+类型+变量
-                Arrays.asList(action.getDeclaredFields()).forEach(parameter -> {
-                    ParameterStub parameterStub = parseParameter(parameter);
-                    if (parameterStub != null) {
-                        if (parameterStub.hasAnnotation(Request.class)) {
-                            actionStub.addRequest(parameterStub);
-                        } else {
-                            actionStub.addResponse(parameterStub);
+                Tracer.span(
+                    "Parser.parseAction",
+                    "version", templateStub.getName(),
+                    "controller", controllerStub.getName(),
+                    "action", actionStub.getName()
+                ).run(() -> {
+                    // 注解
+                    parseAnnotations(action.getAnnotations(), actionStub);
+
+                    parseComment(action.getCanonicalName(), actionStub);
+
+                    // 遍历每一个参数，注解+类型+变量
+                    Arrays.asList(action.getDeclaredFields()).forEach(parameter -> {
+                        ParameterStub parameterStub = parseParameter(parameter);
+                        if (parameterStub != null) {
+                            if (parameterStub.hasAnnotation(Request.class)) {
+                                actionStub.addRequest(parameterStub);
+                            } else {
+                                actionStub.addResponse(parameterStub);
+                            }
                         }
-                    }
+                    });
                 });
             });
         });
+
+        return controllerStub;
     }
 
     private void parseEnums(Class<?>[] enumsTemplate, TemplateStub templateStub) {
@@ -150,12 +229,13 @@ public class Parser {
                 parseComment(enumTemplate.getCanonicalName(), enumStub);
                 parseAnnotations(enumTemplate.getAnnotations(), enumStub);
 
-                Class clazz = Class.forName(enumTemplate.getName());
+                // 模板可能由 TemplateCompiler 的 ClassLoader 加载，不能再按名字查找
+                Class<? extends Enum<?>> clazz = asEnumClass(enumTemplate);
 
                 Arrays.asList(enumTemplate.getFields()).forEach(entryTemplate -> {
                     try {
                         String key = entryTemplate.getName();
-                        Enum<?> value = Enum.valueOf(clazz, entryTemplate.getName());
+                        Enum<?> value = enumValue(clazz, entryTemplate.getName());
                         Integer ordinal = value.ordinal();
                         EnumStub.EnumStubItemType type = EnumStub.EnumStubItemType.INTEGER;
                         String fillValue = ordinal.toString();
@@ -176,68 +256,49 @@ public class Parser {
                         e.printStackTrace();
                     }
                 });
-            } catch (ClassNotFoundException e) {
+            } catch (Exception e) {
                 e.printStackTrace();
             }
         });
     }
 
     private void parseAnnotations(Annotation[] annotations, AnnotationsInterface baseStub) {
-        Arrays.asList(annotations).forEach(annotation -> {
-            Class<?> annotationClass = annotation.annotationType();
-            String annotationName = annotationClass.getSimpleName();
-
-            AnnotationStub annotationStub = new AnnotationStub(annotationName);
-
-            baseStub.addAnnotation(annotation, annotationStub);
-
-            List<Method> annotationMethods = Arrays.asList(annotationClass.getDeclaredMethods());
-
-            annotationMethods.forEach(method -> {
-                try {
-                    Object value = method.invoke(annotation);
-                    Object[] values;
-                    Class<?> valueClass = value.getClass();
-
-                    if (valueClass.isArray()) {
-                        values = (Object[]) value;
-                        Arrays.asList(values).forEach(subValue -> annotationStub.addValue(subValue.toString()));
-                    } else {
-                        annotationStub.setValue(value.toString());
-                    }
-
-
-                } catch (Exception e) {
-                    e.printStackTrace();
-                }
-            });
-        });
+        for (Annotation annotation : annotations) {
+            baseStub.addAnnotation(annotation, AnnotationAccessor.of(annotation.annotationType()).toStub(annotation));
+        }
     }
 
     private void parseModels(Class<?>[] models, TemplateStub templateStub) {
-        Arrays.asList(models).forEach(model -> {
-            ModelStub modelStub = new ModelStub(
-                model.getSimpleName(),
-                model.getCanonicalName(),
-                templateStub
-            );
+        Arrays.stream(models)
+            .parallel()
+            .map(model -> parseModel(model, templateStub))
+            .collect(Collectors.toList())
+            .forEach(templateStub::addModel);
+    }
 
-            templateStub.addModel(modelStub);
-            outputStub.modelHashMap.put(model.getCanonicalName(), modelStub);
-            // 注解
-            parseAnnotations(model.getAnnotations(), modelStub);
-
-            parseComment(model.getCanonicalName(), modelStub);
-            modelStub.setParentClasspath(model.getSuperclass().getCanonicalName());
-            // 遍历每一个参数，注解+类型+变量
-            Arrays.asList(model.getDeclaredFields()).forEach(parameter -> {
-                ParameterStub parameterStub = parseParameter(parameter);
-                if (parameterStub != null) {
-                    modelStub.addParameter(parameterStub);
-                }
+    private ModelStub parseModel(Class<?> model, TemplateStub templateStub) {
+        ModelStub modelStub = new ModelStub(
+            model.getSimpleName(),
+            model.getCanonicalName(),
+            templateStub
+        );
+
+        outputStub.modelHashMap.put(model.getCanonicalName(), modelStub);
+        // 注解
+        parseAnnotations(model.getAnnotations(), modelStub);
+
+        parseComment(model.getCanonicalName(), modelStub);
+        modelStub.setParentClasspath(model.getSuperclass().getCanonicalName());
+        // 遍历每一个参数，注解+类型+变量
+        Arrays.asList(model.getDeclaredFields()).forEach(parameter -> {
+            ParameterStub parameterStub = parseParameter(parameter);
+            if (parameterStub != null) {
+                modelStub.addParameter(parameterStub);
+            }
 
-            });
         });
+
+        return modelStub;
     }
 
     private ParameterStub parseParameter(Field parameter) {
@@ -265,6 +326,7 @@ public class Parser {
                 parameterType.getCanonicalName()
             );
             parameterStub.setArrayDepth(depth);
+            parameterStub.setTypeName(typeName);
 
             Type type;
 
@@ -275,7 +337,7 @@ public class Parser {
             } else if (parameterType.isAssignableFrom(Type.class)) {
                 type = (Type) parameterType.newInstance();
             } else {
-                type = typeMap.get(typeSimpleName);
+                type = TYPE_MAP.get(typeSimpleName);
                 if (type == null) {
                     type = (Type) parameterType.newInstance();
                 }
@@ -0,0 +1,574 @@
+package com.kamicloud.generator.parsers;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParseProblemException;
+import com.github.javaparser.ParseResult;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.NodeList;
+import com.github.javaparser.ast.body.*;
+import com.github.javaparser.ast.comments.Comment;
+import com.github.javaparser.ast.expr.*;
+import com.github.javaparser.ast.nodeTypes.NodeWithAnnotations;
+import com.github.javaparser.ast.type.ClassOrInterfaceType;
+import com.github.javaparser.ast.type.Type;
+import com.github.javaparser.resolution.declarations.ResolvedReferenceTypeDeclaration;
+import com.github.javaparser.resolution.types.ResolvedReferenceType;
+import com.github.javaparser.resolution.types.ResolvedType;
+import com.github.javaparser.symbolsolver.JavaSymbolSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.CombinedTypeSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.JavaParserTypeSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.ReflectionTypeSolver;
+import com.kamicloud.generator.stubs.core.AnnotationStub;
+import com.kamicloud.generator.stubs.snapshot.*;
+import com.kamicloud.generator.utils.Tracer;
+import definitions.annotations.ErrorInterface;
+import definitions.annotations.FixedEnumValueInterface;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.UncheckedIOException;
+import java.lang.annotation.Annotation;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * 只读取模板源码，由 JavaParser 及 symbol solver 生成 ApiSnapshot，不需要编译模板
+ * <p>
+ * 每个文件只解析一次，注释与 DocParser 取自同一棵语法树。内部类按声明的逆序处理，与 Class.getDeclaredClasses 一致。
+ * 注解类型需在 classpath 中（definitions.annotations），成员的值按运行时 toString 的结果转换。
+ */
+public class SourceParser {
+    private static final String TEMPLATE_LIST = "templates.TemplateList";
+
+    private static final ThreadLocal<JavaParser> PARSERS = ThreadLocal.withInitial(JavaParser::new);
+
+    @Autowired
+    DocParser docParser;
+
+    /**
+     * 全限定名 => 模板源码中的类型声明
+     */
+    private Map<String, TypeDeclaration<?>> declarations;
+
+    /**
+     * 作用域 => 类型的写法 => 解析结果，symbol solver 每次都从内向外逐层查找
+     */
+    private Map<Node, Map<String, ResolvedReferenceTypeDeclaration>> resolved;
+
+    public synchronized ApiSnapshot parse() {
+        File templateDir = docParser.getTemplateDir();
+
+        try {
+            return Tracer.span("SourceParser.parse").call(() -> {
+                // 模板之间的引用从源码查找，注解及类型从 classpath 查找
+                JavaSymbolSolver symbolSolver = new JavaSymbolSolver(new CombinedTypeSolver(
+                    new JavaParserTypeSolver(templateDir.getParentFile()),
+                    new ReflectionTypeSolver(false)
+                ));
+
+                // 解析可以并行，symbol solver 的缓存不是线程安全的，之后顺序处理
+                List<CompilationUnit> units = docParser.getTemplateFiles().parallelStream()
+                    .map(this::parseFile)
+                    .collect(Collectors.toList());
+
+                declarations = new HashMap<>();
+                resolved = new IdentityHashMap<>();
+                units.forEach(unit -> {
+                    symbolSolver.inject(unit);
+                    unit.findAll(TypeDeclaration.class).forEach(declaration -> {
+                        Optional<String> name = ((TypeDeclaration<?>) declaration).getFullyQualifiedName();
+                        name.ifPresent(qualifiedName -> declarations.put(qualifiedName, (TypeDeclaration<?>) declaration));
+                    });
+                });
+
+                TypeDeclaration<?> templateList = declarations.get(TEMPLATE_LIST);
+                if (templateList == null) {
+                    throw new IllegalStateException(TEMPLATE_LIST + " not found in " + templateDir);
+                }
+
+                return templateList(templateList);
+            });
+        } finally {
+            declarations = null;
+            resolved = null;
+        }
+    }
+
+    private CompilationUnit parseFile(File file) {
+        try {
+            return Tracer.span("SourceParser.parseFile", "file", file.getPath()).call(() -> {
+                ParseResult<CompilationUnit> result = PARSERS.get().parse(file);
+                if (!result.isSuccessful() || !result.getResult().isPresent()) {
+                    throw new ParseProblemException(result.getProblems());
+                }
+
+                return result.getResult().get();
+            });
+        } catch (FileNotFoundException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private ApiSnapshot templateList(TypeDeclaration<?> templateList) {
+        ApiSnapshot apiSnapshot = new ApiSnapshot();
+
+        templateList.getFields().forEach(field -> field.getVariables().forEach(variable -> {
+            List<TypeDeclaration<?>> classes = classLiterals(variable);
+
+            switch (variable.getNameAsString()) {
+                case "templates":
+                    classes.forEach(template -> apiSnapshot.templates.add(template(template)));
+                    break;
+                case "errorsTemplate":
+                    classes.forEach(errorsTemplate -> apiSnapshot.errors.addAll(errors(errorsTemplate)));
+                    break;
+                case "currentTemplate":
+                    classes.forEach(currentTemplate -> apiSnapshot.currentTemplate = qualifiedName(currentTemplate));
+                    break;
+                default:
+            }
+        }));
+
+        return apiSnapshot;
+    }
+
+    /**
+     * 字段初始值中的 Xxx.class，单个或数组
+     */
+    private List<TypeDeclaration<?>> classLiterals(VariableDeclarator variable) {
+        List<TypeDeclaration<?>> classes = new ArrayList<>();
+
+        if (!variable.getInitializer().isPresent()) {
+            return classes;
+        }
+        Expression initializer = variable.getInitializer().get();
+        List<Expression> expressions = Collections.singletonList(initializer);
+        if (initializer.isArrayCreationExpr() && initializer.asArrayCreationExpr().getInitializer().isPresent()) {
+            expressions = initializer.asArrayCreationExpr().getInitializer().get().getValues();
+        } else if (initializer.isArrayInitializerExpr()) {
+            expressions = initializer.asArrayInitializerExpr().getValues();
+        }
+
+        expressions.forEach(expression -> {
+            if (!expression.isClassExpr()) {
+                return;
+            }
+            String name = expression.asClassExpr().getType().resolve().asReferenceType().getQualifiedName();
+            TypeDeclaration<?> declaration = declarations.get(name);
+            if (declaration == null) {
+                throw new IllegalStateException("No template source for " + name);
+            }
+            classes.add(declaration);
+        });
+
+        return classes;
+    }
+
+    private TemplateSnapshot template(TypeDeclaration<?> template) {
+        TemplateSnapshot templateSnapshot = element(new TemplateSnapshot(), template, qualifiedName(template));
+
+        declaredClasses(template).forEach(part -> {
+            switch (part.getNameAsString()) {
+                case "Enums":
+                    declaredClasses(part).forEach(enumTemplate -> {
+                        if (enumTemplate.isEnumDeclaration()) {
+                            templateSnapshot.enums.add(enumTemplate(enumTemplate.asEnumDeclaration()));
+                        }
+                    });
+                    break;
+                case "Controllers":
+                    declaredClasses(part).forEach(controller -> templateSnapshot.controllers.add(controller(controller)));
+                    break;
+                case "Models":
+                    declaredClasses(part).forEach(model -> templateSnapshot.models.add(model(model)));
+                    break;
+                default:
+            }
+        });
+
+        return templateSnapshot;
+    }
+
+    private List<ErrorSnapshot> errors(TypeDeclaration<?> errorsTemplate) {
+        List<ErrorSnapshot> errors = new ArrayList<>();
+
+        if (!errorsTemplate.isEnumDeclaration() || !isAssignable(errorsTemplate, ErrorInterface.class)) {
+            return errors;
+        }
+
+        String classpath = qualifiedName(errorsTemplate);
+        errorsTemplate.asEnumDeclaration().getEntries().forEach(error -> {
+            ErrorSnapshot errorSnapshot = annotated(element(new ErrorSnapshot(), error, classpath + "." + error.getNameAsString()), error);
+            errorSnapshot.code = constructorArgument(error);
+            errors.add(errorSnapshot);
+        });
+
+        return errors;
+    }
+
+    private ControllerSnapshot controller(TypeDeclaration<?> controller) {
+        ControllerSnapshot controllerSnapshot = annotated(element(new ControllerSnapshot(), controller, qualifiedName(controller)), controller);
+
+        declaredClasses(controller).forEach(action -> {
+            ActionSnapshot actionSnapshot = annotated(element(new ActionSnapshot(), action, qualifiedName(action)), action);
+            actionSnapshot.parameters.addAll(parameters(action));
+            controllerSnapshot.actions.add(actionSnapshot);
+        });
+
+        return controllerSnapshot;
+    }
+
+    private ModelSnapshot model(TypeDeclaration<?> model) {
+        ModelSnapshot modelSnapshot = annotated(element(new ModelSnapshot(), model, qualifiedName(model)), model);
+        modelSnapshot.parentClasspath = superclass(model);
+        modelSnapshot.parameters.addAll(parameters(model));
+
+        return modelSnapshot;
+    }
+
+    private EnumSnapshot enumTemplate(EnumDeclaration enumTemplate) {
+        String classpath = qualifiedName(enumTemplate);
+        EnumSnapshot enumSnapshot = annotated(element(new EnumSnapshot(), enumTemplate, classpath), enumTemplate);
+        boolean fixedValue = isAssignable(enumTemplate, FixedEnumValueInterface.class);
+
+        enumTemplate.getEntries().forEach(entry -> {
+            EnumSnapshot.EnumItemSnapshot item = element(new EnumSnapshot.EnumItemSnapshot(), entry, classpath + "." + entry.getNameAsString());
+            if (fixedValue) {
+                item.value = constructorArgument(entry);
+            }
+            enumSnapshot.items.add(item);
+        });
+
+        return enumSnapshot;
+    }
+
+    private List<ParameterSnapshot> parameters(TypeDeclaration<?> owner) {
+        List<ParameterSnapshot> parameters = new ArrayList<>();
+        String classpath = qualifiedName(owner);
+
+        owner.getFields().forEach(field -> field.getVariables().forEach(variable -> {
+            try {
+                ParameterSnapshot parameterSnapshot = annotated(element(new ParameterSnapshot(), field, classpath + "." + variable.getNameAsString()), field);
+
+                // int a[] 的数组维度记录在变量上，getType 已包含
+                Type type = variable.getType();
+                while (type.isArrayType()) {
+                    type = type.asArrayType().getComponentType();
+                    parameterSnapshot.arrayDepth++;
+                }
+
+                if (type.isPrimitiveType()) {
+                    parameterSnapshot.typeSimpleName = type.asString();
+                    parameterSnapshot.typeClasspath = type.asString();
+                    parameterSnapshot.typeName = type.asString();
+                } else {
+                    Type referenceType = type;
+                    ResolvedReferenceTypeDeclaration typeDeclaration = resolve(type, type.asString(), () -> referenceType.resolve().asReferenceType().getTypeDeclaration());
+                    parameterSnapshot.typeSimpleName = typeDeclaration.getName();
+                    parameterSnapshot.typeClasspath = typeDeclaration.getQualifiedName();
+                    parameterSnapshot.typeName = binaryName(typeDeclaration);
+                }
+
+                parameters.add(parameterSnapshot);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }));
+
+        return parameters;
+    }
+
+    /**
+     * 没有 extends 时与 Class.getSuperclass 相同为 java.lang.Object
+     */
+    private String superclass(TypeDeclaration<?> type) {
+        if (!type.isClassOrInterfaceDeclaration() || type.asClassOrInterfaceDeclaration().isInterface()) {
+            return null;
+        }
+        NodeList<ClassOrInterfaceType> extendedTypes = type.asClassOrInterfaceDeclaration().getExtendedTypes();
+        if (extendedTypes.isEmpty()) {
+            return Object.class.getName();
+        }
+
+        ClassOrInterfaceType extendedType = extendedTypes.get(0);
+
+        return resolve(extendedType, extendedType.asString(), () -> extendedType.resolve().getTypeDeclaration()).getQualifiedName();
+    }
+
+    private <T extends ElementSnapshot> T element(T elementSnapshot, BodyDeclaration<?> declaration, String classpath) {
+        elementSnapshot.name = classpath.substring(classpath.lastIndexOf('.') + 1);
+        elementSnapshot.classpath = classpath;
+
+        Optional<Comment> comment = declaration.getComment();
+        if (comment.isPresent()) {
+            elementSnapshot.comment = DocParser.parseComment(comment.get());
+        }
+
+        return elementSnapshot;
+    }
+
+    /**
+     * 与 getAnnotations 相同，只包含 RUNTIME 注解，类还包含父类上的 @Inherited 注解
+     */
+    private <T extends ElementSnapshot> T annotated(T elementSnapshot, NodeWithAnnotations<?> node) {
+        Set<String> added = new HashSet<>();
+        node.getAnnotations().forEach(annotation -> addAnnotation(elementSnapshot, annotation, added, false));
+
+        if (node instanceof TypeDeclaration) {
+            String parent = superclass((TypeDeclaration<?>) node);
+            while (parent != null) {
+                TypeDeclaration<?> parentDeclaration = declarations.get(parent);
+                if (parentDeclaration == null) {
+                    // classpath 中的父类，Class.getAnnotations 已包含更上层的 @Inherited 注解
+                    addClassAnnotations(elementSnapshot, parent, added);
+                    break;
+                }
+                parentDeclaration.getAnnotations().forEach(annotation -> addAnnotation(elementSnapshot, annotation, added, true));
+                parent = superclass(parentDeclaration);
+            }
+        }
+
+        return elementSnapshot;
+    }
+
+    private void addAnnotation(ElementSnapshot elementSnapshot, AnnotationExpr annotation, Set<String> added, boolean inherited) {
+        Class<?> annotationClass;
+        try {
+            annotationClass = Class.forName(binaryName(resolve(annotation, annotation.getNameAsString(), annotation::resolve)), false, getClass().getClassLoader());
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            e.printStackTrace();
+            return;
+        }
+
+        Retention retention = annotationClass.getAnnotation(Retention.class);
+        if (retention == null || retention.value() != RetentionPolicy.RUNTIME) {
+            return;
+        }
+        if (inherited && !annotationClass.isAnnotationPresent(Inherited.class)) {
+            return;
+        }
+        if (!added.add(annotationClass.getName())) {
+            return;
+        }
+
+        Map<String, Expression> values = new HashMap<>();
+        if (annotation.isSingleMemberAnnotationExpr()) {
+            values.put("value", annotation.asSingleMemberAnnotationExpr().getMemberValue());
+        } else if (annotation.isNormalAnnotationExpr()) {
+            annotation.asNormalAnnotationExpr().getPairs().forEach(pair -> values.put(pair.getNameAsString(), pair.getValue()));
+        }
+
+        AnnotationSnapshot annotationSnapshot = new AnnotationSnapshot();
+        annotationSnapshot.type = annotationClass.getName();
+        annotationSnapshot.name = annotationClass.getSimpleName();
+
+        // 成员顺序与 AnnotationAccessor 相同
+        for (Method method : annotationClass.getDeclaredMethods()) {
+            Class<?> returnType = method.getReturnType();
+            Expression expression = values.get(method.getName());
+
+            if (returnType.isArray()) {
+                Class<?> componentType = returnType.getComponentType();
+                if (expression == null) {
+                    Object defaultValue = method.getDefaultValue();
+                    for (int i = 0, length = defaultValue == null ? 0 : Array.getLength(defaultValue); i < length; i++) {
+                        annotationSnapshot.values.add(Array.get(defaultValue, i).toString());
+                    }
+                } else if (expression.isArrayInitializerExpr()) {
+                    expression.asArrayInitializerExpr().getValues().forEach(value -> annotationSnapshot.values.add(annotationValue(value, componentType)));
+                } else {
+                    annotationSnapshot.values.add(annotationValue(expression, componentType));
+                }
+            } else if (expression != null) {
+                annotationSnapshot.value = annotationValue(expression, returnType);
+            } else if (method.getDefaultValue() != null) {
+                annotationSnapshot.value = method.getDefaultValue().toString();
+            }
+        }
+
+        elementSnapshot.annotations.add(annotationSnapshot);
+    }
+
+    private void addClassAnnotations(ElementSnapshot elementSnapshot, String classpath, Set<String> added) {
+        Class<?> parentClass;
+        try {
+            parentClass = Class.forName(classpath, false, getClass().getClassLoader());
+        } catch (ClassNotFoundException e) {
+            e.printStackTrace();
+            return;
+        }
+
+        for (Annotation annotation : parentClass.getAnnotations()) {
+            if (!annotation.annotationType().isAnnotationPresent(Inherited.class) || !added.add(annotation.annotationType().getName())) {
+                continue;
+            }
+
+            AnnotationStub annotationStub = AnnotationAccessor.of(annotation.annotationType()).toStub(annotation);
+            AnnotationSnapshot annotationSnapshot = new AnnotationSnapshot();
+            annotationSnapshot.type = annotation.annotationType().getName();
+            annotationSnapshot.name = annotationStub.getName();
+            annotationSnapshot.value = annotationStub.getValue();
+            annotationSnapshot.values.addAll(annotationStub.getValues());
+            elementSnapshot.annotations.add(annotationSnapshot);
+        }
+    }
+
+    /**
+     * 与运行时注解成员值的 toString 相同
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private String annotationValue(Expression expression, Class<?> type) {
+        if (type.isEnum()) {
+            String name = expression.isFieldAccessExpr()
+                ? expression.asFieldAccessExpr().getNameAsString()
+                : expression.toString();
+
+            return Enum.valueOf((Class) type, name).toString();
+        }
+        if (type == Class.class && expression.isClassExpr()) {
+            ResolvedType resolved = expression.asClassExpr().getType().resolve();
+            if (!resolved.isReferenceType()) {
+                return resolved.describe();
+            }
+            ResolvedReferenceTypeDeclaration declaration = resolved.asReferenceType().getTypeDeclaration();
+
+            return (declaration.isInterface() ? "interface " : "class ") + binaryName(declaration);
+        }
+
+        return constantValue(expression);
+    }
+
+    /**
+     * 常量表达式的值，TemplateProcessor 也使用
+     */
+    static String constantValue(Expression expression) {
+        if (expression.isEnclosedExpr()) {
+            return constantValue(expression.asEnclosedExpr().getInner());
+        }
+        if (expression.isUnaryExpr()) {
+            UnaryExpr unary = expression.asUnaryExpr();
+            if (unary.getOperator() == UnaryExpr.Operator.MINUS) {
+                return "-" + constantValue(unary.getExpression());
+            }
+            if (unary.getOperator() == UnaryExpr.Operator.PLUS) {
+                return constantValue(unary.getExpression());
+            }
+        }
+        if (expression.isStringLiteralExpr()) {
+            return expression.asStringLiteralExpr().asString();
+        }
+        if (expression.isCharLiteralExpr()) {
+            return String.valueOf(expression.asCharLiteralExpr().asChar());
+        }
+        if (expression.isIntegerLiteralExpr()) {
+            return String.valueOf(expression.asIntegerLiteralExpr().asInt());
+        }
+        if (expression.isLongLiteralExpr()) {
+            return String.valueOf(expression.asLongLiteralExpr().asLong());
+        }
+        if (expression.isDoubleLiteralExpr()) {
+            return String.valueOf(expression.asDoubleLiteralExpr().asDouble());
+        }
+        if (expression.isBooleanLiteralExpr()) {
+            return String.valueOf(expression.asBooleanLiteralExpr().getValue());
+        }
+
+        return expression.toString();
+    }
+
+    /**
+     * getValue() 返回的值取自枚举常量的第一个构造参数
+     */
+    private String constructorArgument(EnumConstantDeclaration constant) {
+        if (constant.getArguments().isEmpty()) {
+            return null;
+        }
+
+        return constantValue(constant.getArguments().get(0));
+    }
+
+    /**
+     * 同一作用域中相同写法的类型解析结果相同
+     * <p>
+     * 作用域为由内向外第一个名称或内部类与写法第一段相同的类，都不相同时为整个文件，不考虑父类中的内部类。
+     */
+    private ResolvedReferenceTypeDeclaration resolve(Node reference, String name, Supplier<ResolvedReferenceTypeDeclaration> resolver) {
+        int dot = name.indexOf('.');
+        String first = dot < 0 ? name : name.substring(0, dot);
+
+        Node scope = reference;
+        Optional<Node> parent = reference.getParentNode();
+        while (parent.isPresent()) {
+            scope = parent.get();
+            if (scope instanceof TypeDeclaration && declares((TypeDeclaration<?>) scope, first)) {
+                break;
+            }
+            parent = scope.getParentNode();
+        }
+
+        return resolved.computeIfAbsent(scope, key -> new HashMap<>()).computeIfAbsent(name, key -> resolver.get());
+    }
+
+    private boolean declares(TypeDeclaration<?> type, String name) {
+        if (type.getNameAsString().equals(name)) {
+            return true;
+        }
+        for (BodyDeclaration<?> member : type.getMembers()) {
+            if (member instanceof TypeDeclaration && ((TypeDeclaration<?>) member).getNameAsString().equals(name)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private boolean isAssignable(TypeDeclaration<?> type, Class<?> target) {
+        try {
+            return type.resolve().getAllAncestors().stream()
+                .map(ResolvedReferenceType::getQualifiedName)
+                .anyMatch(target.getCanonicalName()::equals);
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    private List<TypeDeclaration<?>> declaredClasses(TypeDeclaration<?> owner) {
+        List<TypeDeclaration<?>> classes = new ArrayList<>();
+
+        owner.getMembers().forEach(member -> {
+            if (member instanceof TypeDeclaration) {
+                classes.add((TypeDeclaration<?>) member);
+            }
+        });
+        Collections.reverse(classes);
+
+        return classes;
+    }
+
+    private static String qualifiedName(TypeDeclaration<?> declaration) {
+        return declaration.getFullyQualifiedName().orElseThrow(() -> new IllegalStateException("Local class " + declaration.getNameAsString()));
+    }
+
+    /**
+     * 与 Class.getName 相同，内部类以 $ 分隔
+     */
+    private static String binaryName(ResolvedReferenceTypeDeclaration declaration) {
+        // 反射得到的注解声明 getClassName 为空，由全限定名截取
+        String qualifiedName = declaration.getQualifiedName();
+        String packageName = declaration.getPackageName();
+        if (packageName.isEmpty()) {
+            return qualifiedName.replace('.', '$');
+        }
+
+        return packageName + "." + qualifiedName.substring(packageName.length() + 1).replace('.', '$');
+    }
+}
@@ -0,0 +1,358 @@
+package com.kamicloud.generator.parsers;
+
+import com.kamicloud.generator.stubs.snapshot.ApiSnapshot;
+import com.kamicloud.generator.utils.Tracer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.processing.Processor;
+import javax.tools.*;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.JarURLConnection;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 在进程内编译模板源码，替代外部 javac + 重新启动 generator
+ * <p>
+ * 编译结果只保存在内存中，通过独立的 ClassLoader 加载，
+ * templates 包优先使用本次编译的类，definitions 等仍由父 ClassLoader 加载，注解类型保持一致。
+ * 源码没有变化时直接返回上次的编译结果。
+ * <p>
+ * generator.parser 为 processor 时只运行 TemplateProcessor 生成 ApiSnapshot，不生成 class。
+ */
+public class TemplateCompiler {
+    private static final Logger log = LoggerFactory.getLogger(TemplateCompiler.class);
+
+    private static final String TEMPLATE_LIST = "templates.TemplateList";
+
+    /**
+     * 已解压的嵌套 classpath，URL => 临时文件
+     */
+    private static final Map<String, String> EXTRACTED = new ConcurrentHashMap<>();
+
+    private final File templateDir;
+
+    private String fingerprint;
+    private Class<?> templateList;
+
+    private String snapshotFingerprint;
+    private ApiSnapshot snapshot;
+
+    /**
+     * @param templateDir 模板源码目录
+     */
+    public TemplateCompiler(File templateDir) {
+        this.templateDir = templateDir;
+    }
+
+    /**
+     * 编译模板目录下的所有源码
+     *
+     * @return 新加载的 TemplateList
+     */
+    public synchronized Class<?> compile() {
+        List<File> sources = listSources();
+        String currentFingerprint = fingerprint(sources);
+
+        if (templateList != null && currentFingerprint.equals(fingerprint)) {
+            return templateList;
+        }
+
+        Tracer.span("TemplateCompiler.compile").run(() -> {
+            long start = System.currentTimeMillis();
+            MemoryFileManager fileManager = call(sources, Collections.singletonList("-proc:none"), null);
+
+            try {
+                templateList = new MemoryClassLoader(fileManager.classes, getClass().getClassLoader()).loadClass(TEMPLATE_LIST);
+            } catch (ClassNotFoundException e) {
+                throw new IllegalStateException(TEMPLATE_LIST + " not found in " + templateDir, e);
+            }
+            fingerprint = currentFingerprint;
+
+            log.info("Compiled {} template source(s) in {}ms", sources.size(), System.currentTimeMillis() - start);
+        });
+
+        return templateList;
+    }
+
+    /**
+     * 只运行 TemplateProcessor，不生成 class
+     *
+     * @return 模板信息
+     */
+    public synchronized ApiSnapshot snapshot() {
+        List<File> sources = listSources();
+        String currentFingerprint = fingerprint(sources);
+
+        if (snapshot != null && currentFingerprint.equals(snapshotFingerprint)) {
+            return snapshot;
+        }
+
+        Tracer.span("TemplateCompiler.snapshot").run(() -> {
+            long start = System.currentTimeMillis();
+            TemplateProcessor processor = new TemplateProcessor();
+            call(sources, Arrays.asList(
+                "-proc:only",
+                "-sourcepath", templateDir.getParentFile().getAbsolutePath(),
+                "-A" + TemplateProcessor.RESOURCE_OPTION + "=false"
+            ), processor);
+
+            if (processor.getSnapshot() == null) {
+                throw new IllegalStateException(TEMPLATE_LIST + " not found in " + templateDir);
+            }
+            snapshot = processor.getSnapshot();
+            snapshotFingerprint = currentFingerprint;
+
+            log.info("Processed {} template source(s) in {}ms", sources.size(), System.currentTimeMillis() - start);
+        });
+
+        return snapshot;
+    }
+
+    private MemoryFileManager call(List<File> sources, List<String> extraOptions, Processor processor) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IllegalStateException("Compiling templates requires a JDK, javax.tools compiler not found");
+        }
+
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        MemoryFileManager fileManager = new MemoryFileManager(
+            compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8)
+        );
+
+        Iterable<? extends JavaFileObject> units = fileManager.getStandardFileManager().getJavaFileObjectsFromFiles(sources);
+        List<String> options = new ArrayList<>(Arrays.asList(
+            "-encoding", "UTF-8",
+            "-classpath", classpath()
+        ));
+        options.addAll(extraOptions);
+
+        JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics, options, null, units);
+        if (processor != null) {
+            task.setProcessors(Collections.singletonList(processor));
+        }
+
+        if (!task.call()) {
+            StringBuilder message = new StringBuilder("Failed to compile templates:");
+            diagnostics.getDiagnostics().forEach(diagnostic -> {
+                if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                    message.append("\n    ").append(diagnostic.toString());
+                }
+            });
+            throw new IllegalStateException(message.toString());
+        }
+
+        return fileManager;
+    }
+
+    /**
+     * 由加载 generator 的 ClassLoader 得到编译模板使用的 classpath
+     * <p>
+     * 以 Spring Boot 可执行 jar 运行时 java.class.path 只有外层 jar，嵌套的 jar 及 BOOT-INF/classes 需先解压到临时目录。
+     */
+    private String classpath() {
+        LinkedHashSet<String> entries = new LinkedHashSet<>();
+        for (ClassLoader classLoader = getClass().getClassLoader(); classLoader != null; classLoader = classLoader.getParent()) {
+            if (!(classLoader instanceof URLClassLoader)) {
+                continue;
+            }
+            for (URL url : ((URLClassLoader) classLoader).getURLs()) {
+                try {
+                    String entry = toClasspathEntry(url);
+                    if (entry != null) {
+                        entries.add(entry);
+                    }
+                } catch (IOException | URISyntaxException e) {
+                    log.warn("Ignore classpath entry {}", url, e);
+                }
+            }
+        }
+        // JDK 9 以上的应用 ClassLoader 不是 URLClassLoader
+        for (String entry : System.getProperty("java.class.path", "").split(File.pathSeparator)) {
+            if (!entry.isEmpty()) {
+                entries.add(entry);
+            }
+        }
+
+        return String.join(File.pathSeparator, entries);
+    }
+
+    private static String toClasspathEntry(URL url) throws IOException, URISyntaxException {
+        if ("file".equals(url.getProtocol())) {
+            return Paths.get(url.toURI()).toString();
+        }
+        if (!"jar".equals(url.getProtocol())) {
+            return null;
+        }
+
+        String spec = url.toString();
+        String inner = spec.substring("jar:".length(), spec.endsWith("!/") ? spec.length() - 2 : spec.length());
+        if (!inner.contains("!/")) {
+            // 普通 jar 的根目录
+            return toClasspathEntry(new URL(inner));
+        }
+
+        String extracted = EXTRACTED.get(spec);
+        if (extracted == null) {
+            extracted = extract(url, inner).getPath();
+            EXTRACTED.put(spec, extracted);
+        }
+
+        return extracted;
+    }
+
+    /**
+     * 嵌套的 jar 复制到临时文件，嵌套的目录解压到临时目录，进程退出时删除
+     */
+    private static File extract(URL url, String inner) throws IOException {
+        if (inner.endsWith(".jar")) {
+            File file = File.createTempFile("generator-", ".jar");
+            file.deleteOnExit();
+            try (InputStream input = new URL("jar:" + inner).openStream()) {
+                Files.copy(input, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            return file;
+        }
+
+        File dir = Files.createTempDirectory("generator-classes").toFile();
+        dir.deleteOnExit();
+        JarURLConnection connection = (JarURLConnection) url.openConnection();
+        JarFile jarFile = connection.getJarFile();
+        Enumeration<JarEntry> jarEntries = jarFile.entries();
+        while (jarEntries.hasMoreElements()) {
+            JarEntry jarEntry = jarEntries.nextElement();
+            File target = new File(dir, jarEntry.getName());
+            if (!target.toPath().normalize().startsWith(dir.toPath())) {
+                continue;
+            }
+            if (jarEntry.isDirectory()) {
+                target.mkdirs();
+                target.deleteOnExit();
+                continue;
+            }
+            target.getParentFile().mkdirs();
+            target.deleteOnExit();
+            try (InputStream input = jarFile.getInputStream(jarEntry)) {
+                Files.copy(input, target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+
+        return dir;
+    }
+
+    /**
+     * 与 DocParser 相同，包含子目录下的模板
+     */
+    private List<File> listSources() {
+        List<File> files;
+        try (Stream<Path> paths = Files.walk(templateDir.toPath())) {
+            files = paths
+                .filter(path -> path.toString().endsWith(".java"))
+                .sorted()
+                .map(Path::toFile)
+                .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to list template sources in " + templateDir, e);
+        }
+        if (files.isEmpty()) {
+            throw new IllegalStateException("No template sources in " + templateDir);
+        }
+
+        return files;
+    }
+
+    private String fingerprint(List<File> sources) {
+        StringBuilder builder = new StringBuilder();
+        sources.forEach(file -> builder.append(file.getPath())
+            .append(':').append(file.lastModified())
+            .append(':').append(file.length())
+            .append(';'));
+
+        return builder.toString();
+    }
+
+    /**
+     * 把编译输出保存在内存中
+     */
+    private static class MemoryFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+        private final Map<String, ByteArrayOutputStream> classes = new ConcurrentHashMap<>();
+
+        MemoryFileManager(StandardJavaFileManager fileManager) {
+            super(fileManager);
+        }
+
+        StandardJavaFileManager getStandardFileManager() {
+            return fileManager;
+        }
+
+        @Override
+        public JavaFileObject getJavaFileForOutput(Location location, String className, JavaFileObject.Kind kind, FileObject sibling) {
+            return new SimpleJavaFileObject(URI.create("mem:///" + className.replace('.', '/') + kind.extension), kind) {
+                @Override
+                public OutputStream openOutputStream() {
+                    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+                    classes.put(className, outputStream);
+                    return outputStream;
+                }
+            };
+        }
+    }
+
+    /**
+     * 本次编译出的类优先于父 ClassLoader 中的同名类
+     */
+    private static class MemoryClassLoader extends ClassLoader {
+        private final Map<String, ByteArrayOutputStream> classes;
+
+        MemoryClassLoader(Map<String, ByteArrayOutputStream> classes, ClassLoader parent) {
+            super(parent);
+            this.classes = classes;
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> clazz = findLoadedClass(name);
+                if (clazz == null && classes.containsKey(name)) {
+                    clazz = findClass(name);
+                }
+                if (clazz == null) {
+                    return super.loadClass(name, resolve);
+                }
+                if (resolve) {
+                    resolveClass(clazz);
+                }
+                return clazz;
+            }
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            ByteArrayOutputStream outputStream = classes.get(name);
+            if (outputStream == null) {
+                throw new ClassNotFoundException(name);
+            }
+            byte[] bytes = outputStream.toByteArray();
+
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+}
@@ -0,0 +1,494 @@
+package com.kamicloud.generator.parsers;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParseResult;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.EnumConstantDeclaration;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import com.github.javaparser.ast.body.VariableDeclarator;
+import com.github.javaparser.ast.expr.Expression;
+import com.google.gson.Gson;
+import com.kamicloud.generator.stubs.snapshot.*;
+import definitions.annotations.ErrorInterface;
+import definitions.annotations.FixedEnumValueInterface;
+
+import javax.annotation.processing.*;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.*;
+
+/**
+ * 编译模板时运行的注解处理器，直接从源码生成 ApiSnapshot
+ * <p>
+ * 注解、注释及枚举值都取自源码，加载时不再反射模板类，也不需要 DocParser 再次解析源码。
+ * 内部类的顺序与 Class.getDeclaredClasses 一致（javac 按声明的逆序记录内部类），生成的 stub 与 Parser 相同。
+ * <p>
+ * 只使用标准的注解处理 API，注释、字段初始值及枚举构造参数由 JavaParser 从 -sourcepath 中的源码读取。
+ * <p>
+ * javac -proc:only -processor com.kamicloud.generator.parsers.TemplateProcessor -sourcepath . -d ./build/classes/java/main templates/*.java
+ */
+@SupportedAnnotationTypes("*")
+@SupportedOptions(TemplateProcessor.RESOURCE_OPTION)
+public class TemplateProcessor extends AbstractProcessor {
+    /**
+     * 为 false 时不写入 ApiSnapshot.RESOURCE，由调用方通过 getSnapshot 获取
+     */
+    static final String RESOURCE_OPTION = "generator.resource";
+
+    private static final String TEMPLATE_LIST = "templates.TemplateList";
+
+    private final JavaParser parser = new JavaParser();
+    private Elements elements;
+    private Types types;
+    private Messager messager;
+
+    /**
+     * 顶层类 => 其源码中类、字段及枚举常量的声明，key 为与 DocParser 相同的 classpath
+     */
+    private final Map<Element, Map<String, Node>> declarations = new HashMap<>();
+
+    private ApiSnapshot snapshot;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        elements = processingEnv.getElementUtils();
+        types = processingEnv.getTypeUtils();
+        messager = processingEnv.getMessager();
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    public ApiSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (snapshot != null || roundEnv.processingOver()) {
+            return false;
+        }
+
+        // 只处理本次编译的 TemplateList，classpath 中的同名类没有源码
+        TypeElement templateList = ElementFilter.typesIn(roundEnv.getRootElements()).stream()
+            .filter(type -> type.getQualifiedName().contentEquals(TEMPLATE_LIST))
+            .findFirst()
+            .orElse(null);
+
+        if (templateList == null) {
+            return false;
+        }
+
+        snapshot = templateList(templateList);
+        declarations.clear();
+
+        if (!"false".equals(processingEnv.getOptions().get(RESOURCE_OPTION))) {
+            write(snapshot);
+        }
+
+        return false;
+    }
+
+    private void write(ApiSnapshot snapshot) {
+        try {
+            FileObject resource = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", ApiSnapshot.RESOURCE);
+            try (Writer writer = resource.openWriter()) {
+                new Gson().toJson(snapshot, writer);
+            }
+        } catch (IOException e) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "Failed to write " + ApiSnapshot.RESOURCE + ": " + e.getMessage());
+        }
+    }
+
+    private ApiSnapshot templateList(TypeElement templateList) {
+        ApiSnapshot apiSnapshot = new ApiSnapshot();
+
+        ElementFilter.fieldsIn(templateList.getEnclosedElements()).forEach(field -> {
+            List<TypeElement> classes = classLiterals(field, templateList);
+
+            switch (field.getSimpleName().toString()) {
+                case "templates":
+                    classes.forEach(template -> apiSnapshot.templates.add(template(template)));
+                    break;
+                case "errorsTemplate":
+                    classes.forEach(errorsTemplate -> apiSnapshot.errors.addAll(errors(errorsTemplate)));
+                    break;
+                case "currentTemplate":
+                    classes.forEach(currentTemplate -> apiSnapshot.currentTemplate = currentTemplate.getQualifiedName().toString());
+                    break;
+                default:
+            }
+        });
+
+        return apiSnapshot;
+    }
+
+    /**
+     * 字段初始值中的 Xxx.class，单个或数组
+     */
+    private List<TypeElement> classLiterals(VariableElement field, TypeElement context) {
+        List<TypeElement> classes = new ArrayList<>();
+        Node declaration = declaration(field);
+
+        if (!(declaration instanceof VariableDeclarator) || !((VariableDeclarator) declaration).getInitializer().isPresent()) {
+            return classes;
+        }
+
+        Expression initializer = ((VariableDeclarator) declaration).getInitializer().get();
+        List<Expression> expressions = Collections.singletonList(initializer);
+        if (initializer.isArrayCreationExpr() && initializer.asArrayCreationExpr().getInitializer().isPresent()) {
+            expressions = initializer.asArrayCreationExpr().getInitializer().get().getValues();
+        } else if (initializer.isArrayInitializerExpr()) {
+            expressions = initializer.asArrayInitializerExpr().getValues();
+        }
+
+        expressions.forEach(expression -> {
+            if (!expression.isClassExpr()) {
+                return;
+            }
+            String name = expression.asClassExpr().getType().asString();
+            TypeElement type = elements.getTypeElement(elements.getPackageOf(context).getQualifiedName() + "." + name);
+            if (type == null) {
+                type = elements.getTypeElement(name);
+            }
+
+            if (type == null) {
+                messager.printMessage(Diagnostic.Kind.ERROR, "Cannot resolve " + name + ".class", field);
+            } else {
+                classes.add(type);
+            }
+        });
+
+        return classes;
+    }
+
+    private TemplateSnapshot template(TypeElement template) {
+        TemplateSnapshot templateSnapshot = element(new TemplateSnapshot(), template);
+
+        declaredClasses(template).forEach(part -> {
+            switch (part.getSimpleName().toString()) {
+                case "Enums":
+                    declaredClasses(part).forEach(enumTemplate -> templateSnapshot.enums.add(enumTemplate(enumTemplate)));
+                    break;
+                case "Controllers":
+                    declaredClasses(part).forEach(controller -> templateSnapshot.controllers.add(controller(controller)));
+                    break;
+                case "Models":
+                    declaredClasses(part).forEach(model -> templateSnapshot.models.add(model(model)));
+                    break;
+                default:
+            }
+        });
+
+        return templateSnapshot;
+    }
+
+    private List<ErrorSnapshot> errors(TypeElement errorsTemplate) {
+        List<ErrorSnapshot> errors = new ArrayList<>();
+
+        if (!isAssignable(errorsTemplate, ErrorInterface.class)) {
+            return errors;
+        }
+
+        enumConstants(errorsTemplate).forEach(error -> {
+            ErrorSnapshot errorSnapshot = annotated(element(new ErrorSnapshot(), error), error);
+            errorSnapshot.code = constructorArgument(error);
+            errors.add(errorSnapshot);
+        });
+
+        return errors;
+    }
+
+    private ControllerSnapshot controller(TypeElement controller) {
+        ControllerSnapshot controllerSnapshot = annotated(element(new ControllerSnapshot(), controller), controller);
+
+        declaredClasses(controller).forEach(action -> {
+            ActionSnapshot actionSnapshot = annotated(element(new ActionSnapshot(), action), action);
+            actionSnapshot.parameters.addAll(parameters(action));
+            controllerSnapshot.actions.add(actionSnapshot);
+        });
+
+        return controllerSnapshot;
+    }
+
+    private ModelSnapshot model(TypeElement model) {
+        ModelSnapshot modelSnapshot = annotated(element(new ModelSnapshot(), model), model);
+
+        TypeMirror superclass = model.getSuperclass();
+        if (superclass.getKind() == TypeKind.DECLARED) {
+            modelSnapshot.parentClasspath = ((TypeElement) types.asElement(superclass)).getQualifiedName().toString();
+        }
+        modelSnapshot.parameters.addAll(parameters(model));
+
+        return modelSnapshot;
+    }
+
+    private EnumSnapshot enumTemplate(TypeElement enumTemplate) {
+        EnumSnapshot enumSnapshot = annotated(element(new EnumSnapshot(), enumTemplate), enumTemplate);
+        boolean fixedValue = isAssignable(enumTemplate, FixedEnumValueInterface.class);
+
+        enumConstants(enumTemplate).forEach(entry -> {
+            EnumSnapshot.EnumItemSnapshot item = element(new EnumSnapshot.EnumItemSnapshot(), entry);
+            if (fixedValue) {
+                item.value = constructorArgument(entry);
+            }
+            enumSnapshot.items.add(item);
+        });
+
+        return enumSnapshot;
+    }
+
+    private List<ParameterSnapshot> parameters(TypeElement owner) {
+        List<ParameterSnapshot> parameters = new ArrayList<>();
+
+        ElementFilter.fieldsIn(owner.getEnclosedElements()).forEach(field -> {
+            ParameterSnapshot parameterSnapshot = annotated(element(new ParameterSnapshot(), field), field);
+
+            TypeMirror type = field.asType();
+            while (type.getKind() == TypeKind.ARRAY) {
+                type = ((ArrayType) type).getComponentType();
+                parameterSnapshot.arrayDepth++;
+            }
+
+            if (type.getKind() == TypeKind.DECLARED) {
+                TypeElement typeElement = (TypeElement) ((DeclaredType) type).asElement();
+                parameterSnapshot.typeSimpleName = typeElement.getSimpleName().toString();
+                parameterSnapshot.typeClasspath = typeElement.getQualifiedName().toString();
+                parameterSnapshot.typeName = elements.getBinaryName(typeElement).toString();
+            } else if (type.getKind().isPrimitive()) {
+                parameterSnapshot.typeSimpleName = type.toString();
+                parameterSnapshot.typeClasspath = type.toString();
+                parameterSnapshot.typeName = type.toString();
+            } else {
+                messager.printMessage(Diagnostic.Kind.ERROR, "Unsupported parameter type " + type, field);
+                return;
+            }
+
+            parameters.add(parameterSnapshot);
+        });
+
+        return parameters;
+    }
+
+    private <T extends ElementSnapshot> T element(T elementSnapshot, Element element) {
+        elementSnapshot.name = element.getSimpleName().toString();
+        elementSnapshot.classpath = classpath(element);
+        elementSnapshot.comment = comment(element);
+
+        return elementSnapshot;
+    }
+
+    private String classpath(Element element) {
+        if (element instanceof TypeElement) {
+            return ((TypeElement) element).getQualifiedName().toString();
+        }
+
+        return ((TypeElement) element.getEnclosingElement()).getQualifiedName() + "." + element.getSimpleName();
+    }
+
+    /**
+     * 与 getAnnotations 相同，只包含 RUNTIME 注解，类还包含父类上的 @Inherited 注解
+     */
+    private <T extends ElementSnapshot> T annotated(T elementSnapshot, Element element) {
+        Set<String> added = new HashSet<>();
+
+        element.getAnnotationMirrors().forEach(mirror -> addAnnotation(elementSnapshot, mirror, added, false));
+
+        if (element instanceof TypeElement) {
+            TypeMirror superclass = ((TypeElement) element).getSuperclass();
+            while (superclass.getKind() == TypeKind.DECLARED) {
+                TypeElement parent = (TypeElement) types.asElement(superclass);
+                parent.getAnnotationMirrors().forEach(mirror -> addAnnotation(elementSnapshot, mirror, added, true));
+                superclass = parent.getSuperclass();
+            }
+        }
+
+        return elementSnapshot;
+    }
+
+    private void addAnnotation(ElementSnapshot elementSnapshot, AnnotationMirror mirror, Set<String> added, boolean inherited) {
+        TypeElement annotationType = (TypeElement) mirror.getAnnotationType().asElement();
+        Retention retention = annotationType.getAnnotation(Retention.class);
+
+        if (retention == null || retention.value() != RetentionPolicy.RUNTIME) {
+            return;
+        }
+        if (inherited && annotationType.getAnnotation(Inherited.class) == null) {
+            return;
+        }
+
+        AnnotationSnapshot annotationSnapshot = new AnnotationSnapshot();
+        annotationSnapshot.type = elements.getBinaryName(annotationType).toString();
+        annotationSnapshot.name = annotationType.getSimpleName().toString();
+
+        if (!added.add(annotationSnapshot.type)) {
+            return;
+        }
+
+        Map<? extends ExecutableElement, ? extends AnnotationValue> values = elements.getElementValuesWithDefaults(mirror);
+        ElementFilter.methodsIn(annotationType.getEnclosedElements()).forEach(method -> {
+            AnnotationValue value = values.get(method);
+            if (value == null) {
+                return;
+            }
+
+            if (value.getValue() instanceof List) {
+                ((List<?>) value.getValue()).forEach(subValue -> annotationSnapshot.values.add(annotationValue((AnnotationValue) subValue)));
+            } else {
+                annotationSnapshot.value = annotationValue(value);
+            }
+        });
+
+        elementSnapshot.annotations.add(annotationSnapshot);
+    }
+
+    /**
+     * 与运行时注解成员值的 toString 相同
+     */
+    private String annotationValue(AnnotationValue value) {
+        Object raw = value.getValue();
+
+        if (raw instanceof VariableElement) {
+            return ((VariableElement) raw).getSimpleName().toString();
+        }
+        if (raw instanceof TypeMirror && ((TypeMirror) raw).getKind() == TypeKind.DECLARED) {
+            TypeElement type = (TypeElement) ((DeclaredType) raw).asElement();
+            return (type.getKind().isInterface() ? "interface " : "class ") + elements.getBinaryName(type);
+        }
+
+        return String.valueOf(raw);
+    }
+
+    private List<TypeElement> declaredClasses(TypeElement owner) {
+        List<TypeElement> classes = new ArrayList<>(ElementFilter.typesIn(owner.getEnclosedElements()));
+        Collections.reverse(classes);
+
+        return classes;
+    }
+
+    private List<VariableElement> enumConstants(TypeElement enumTemplate) {
+        List<VariableElement> constants = new ArrayList<>();
+
+        ElementFilter.fieldsIn(enumTemplate.getEnclosedElements()).forEach(field -> {
+            if (field.getKind() == ElementKind.ENUM_CONSTANT) {
+                constants.add(field);
+            }
+        });
+
+        return constants;
+    }
+
+    private boolean isAssignable(TypeElement type, Class<?> target) {
+        TypeElement targetElement = elements.getTypeElement(target.getCanonicalName());
+
+        return targetElement != null && types.isAssignable(type.asType(), types.erasure(targetElement.asType()));
+    }
+
+    /**
+     * getValue() 返回的值取自枚举常量的第一个构造参数
+     */
+    private String constructorArgument(VariableElement constant) {
+        Node declaration = declaration(constant);
+
+        if (declaration instanceof EnumConstantDeclaration && !((EnumConstantDeclaration) declaration).getArguments().isEmpty()) {
+            return SourceParser.constantValue(((EnumConstantDeclaration) declaration).getArguments().get(0));
+        }
+
+        messager.printMessage(Diagnostic.Kind.WARNING, "getValue() of " + constant.getSimpleName() + " is unknown, using ordinal", constant);
+
+        return null;
+    }
+
+    /**
+     * 与 DocParser 相同，字段的注释属于所在的字段声明
+     */
+    private String comment(Element element) {
+        Node declaration = declaration(element);
+        if (declaration instanceof VariableDeclarator) {
+            declaration = declaration.getParentNode().orElse(null);
+        }
+        if (declaration == null) {
+            return null;
+        }
+
+        return declaration.getComment().map(DocParser::parseComment).orElse(null);
+    }
+
+    private Node declaration(Element element) {
+        Element topLevel = element;
+        while (topLevel.getEnclosingElement() != null && topLevel.getEnclosingElement().getKind() != ElementKind.PACKAGE) {
+            topLevel = topLevel.getEnclosingElement();
+        }
+
+        return declarations.computeIfAbsent(topLevel, key -> scan((TypeElement) key)).get(classpath(element));
+    }
+
+    /**
+     * 一次解析记录顶层类中所有类、字段及枚举常量的声明
+     */
+    private Map<String, Node> scan(TypeElement topLevel) {
+        Map<String, Node> nodes = new HashMap<>();
+        CharSequence source = source(topLevel);
+        if (source == null) {
+            return nodes;
+        }
+
+        ParseResult<CompilationUnit> result = parser.parse(source.toString());
+        if (!result.isSuccessful() || !result.getResult().isPresent()) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "Failed to parse " + topLevel.getQualifiedName() + ": " + result.getProblems(), topLevel);
+            return nodes;
+        }
+
+        result.getResult().get().findAll(TypeDeclaration.class).forEach(type -> {
+            TypeDeclaration<?> declaration = (TypeDeclaration<?>) type;
+            declaration.getFullyQualifiedName().ifPresent(classpath -> {
+                nodes.put(classpath, declaration);
+                declaration.getFields().forEach(field -> field.getVariables().forEach(variable -> nodes.put(classpath + "." + variable.getNameAsString(), variable)));
+                if (declaration.isEnumDeclaration()) {
+                    declaration.asEnumDeclaration().getEntries().forEach(entry -> nodes.put(classpath + "." + entry.getNameAsString(), entry));
+                }
+            });
+        });
+
+        return nodes;
+    }
+
+    /**
+     * 先从 -sourcepath 查找，未指定时 javac 也会从 classpath 查找源码
+     */
+    private CharSequence source(TypeElement topLevel) {
+        String packageName = elements.getPackageOf(topLevel).getQualifiedName().toString();
+        String fileName = topLevel.getSimpleName() + ".java";
+
+        for (StandardLocation location : Arrays.asList(StandardLocation.SOURCE_PATH, StandardLocation.CLASS_PATH)) {
+            try {
+                return processingEnv.getFiler().getResource(location, packageName, fileName).getCharContent(true);
+            } catch (IOException | IllegalArgumentException e) {
+                // 该位置未设置或不包含源码
+            }
+        }
+
+        messager.printMessage(Diagnostic.Kind.ERROR, "Source of " + topLevel.getQualifiedName() + " not found, add its root to -sourcepath", topLevel);
+
+        return null;
+    }
+}
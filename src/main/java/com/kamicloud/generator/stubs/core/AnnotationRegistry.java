@@ -0,0 +1,84 @@
+package com.kamicloud.generator.stubs.core;
+
+import definitions.annotations.Extendable;
+
+import java.util.BitSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 注解类型编号，stub 用 BitSet 记录拥有的注解
+ * <p>
+ * 编号按首次出现的顺序分配，只在本进程内有效，不能持久化。
+ */
+final class AnnotationRegistry {
+    private static final Map<String, Integer> IDS = new ConcurrentHashMap<>();
+
+    /**
+     * 带有 @Extendable 的注解编号，子节点可以继承
+     */
+    private static final BitSet EXTENDABLE = new BitSet();
+
+    private static final ClassValue<Integer> CLASS_IDS = new ClassValue<Integer>() {
+        @Override
+        protected Integer computeValue(Class<?> type) {
+            int id = id(type.getName());
+            if (type.isAnnotationPresent(Extendable.class)) {
+                markExtendable(id);
+            }
+            return id;
+        }
+    };
+
+    private AnnotationRegistry() {
+    }
+
+    static int id(Class<?> type) {
+        return CLASS_IDS.get(type);
+    }
+
+    /**
+     * @param type 注解类型的 Class.getName()
+     */
+    static int id(String type) {
+        Integer id = IDS.get(type);
+
+        return id != null ? id : register(type);
+    }
+
+    private static synchronized int register(String type) {
+        Integer id = IDS.get(type);
+        if (id != null) {
+            return id;
+        }
+        id = IDS.size();
+
+        // ModelLoader 只有类型名称，尝试加载注解类型判断是否可继承
+        try {
+            Class<?> annotationClass = Class.forName(type, false, AnnotationRegistry.class.getClassLoader());
+            if (annotationClass.isAnnotationPresent(Extendable.class)) {
+                EXTENDABLE.set(id);
+            }
+        } catch (ClassNotFoundException | LinkageError ignored) {
+        }
+        IDS.put(type, id);
+
+        return id;
+    }
+
+    private static synchronized void markExtendable(int id) {
+        EXTENDABLE.set(id);
+    }
+
+    static synchronized boolean isExtendable(int id) {
+        return EXTENDABLE.get(id);
+    }
+
+    static synchronized BitSet getExtendable() {
+        return (BitSet) EXTENDABLE.clone();
+    }
+
+    static int size() {
+        return IDS.size();
+    }
+}
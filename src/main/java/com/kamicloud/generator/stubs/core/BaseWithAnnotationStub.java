@@ -1,14 +1,11 @@
 package com.kamicloud.generator.stubs.core;
 
-import com.google.common.base.CaseFormat;
-import com.kamicloud.generator.config.DefaultProfileUtil;
-import com.kamicloud.generator.utils.CommentUtil;
 import com.kamicloud.generator.utils.StringUtil;
-import definitions.annotations.Extendable;
 
 import java.lang.annotation.Annotation;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.Objects;
 
@@ -17,18 +14,29 @@ public class BaseWithAnnotationStub implements AnnotationsInterface, CommentInte
     private String classpath;
 
     private String name;
-    private String upperCamelName;
-    private String lowerCamelName;
-    private String lowerUnderScoreName;
-    private String upperUnderScoreName;
+    /**
+     * 首次使用时从 StubNames 取得
+     */
+    private StubNames names;
 
     private BaseWithAnnotationStub parentNode;
     private HashMap<String, AnnotationStub> annotations = new HashMap<>();
+    /**
+     * 自身注解的 AnnotationRegistry 编号
+     */
+    private BitSet annotationIds = new BitSet();
+    /**
+     * resolveAnnotations 之后包含从父节点继承的 @Extendable 注解
+     */
+    private BitSet resolvedIds;
+    private AnnotationStub[] resolvedAnnotations;
     private ArrayList<String> comments = new ArrayList<>();
     private String comment;
-
-    private String dtoFolder = DefaultProfileUtil.getEnv().getProperty("generator.writers.laravel.dto-folder", "DTOs");
-    private String dtoSuffix = DefaultProfileUtil.getEnv().getProperty("generator.writers.laravel.dto-suffix", "DTO");
+    /**
+     * comment 按行拆分及换行转换的结果，首次使用时计算
+     */
+    private String[] commentLines;
+    private String brComment;
 
     /**
      * @param name 类 / 变量名称 都将转成Upper camel
@@ -39,36 +47,45 @@ public class BaseWithAnnotationStub implements AnnotationsInterface, CommentInte
     ) {
         this.name = name;
         this.classpath = classpath;
-
-        this.upperCamelName = name;
-        this.lowerCamelName = CaseFormat.UPPER_CAMEL.to(CaseFormat.LOWER_CAMEL, name);
-        this.lowerUnderScoreName = CaseFormat.UPPER_CAMEL.to(CaseFormat.LOWER_UNDERSCORE, name);
-        this.upperUnderScoreName = CaseFormat.UPPER_CAMEL.to(CaseFormat.UPPER_UNDERSCORE, name);
-
     }
 
     public String getName() {
         return name;
     }
 
+    private StubNames getNames() {
+        if (names == null) {
+            names = StubNames.of(name);
+        }
+        return names;
+    }
+
     public String getUpperCamelName() {
-        return upperCamelName;
+        return getNames().upperCamelName;
     }
 
     public String getLowerCamelName() {
-        return lowerCamelName;
+        return getNames().lowerCamelName;
     }
 
     public String getLowerUnderScoreName() {
-        return lowerUnderScoreName;
+        return getNames().lowerUnderScoreName;
     }
 
     public String getUpperUnderScoreName() {
-        return upperUnderScoreName;
+        return getNames().upperUnderScoreName;
     }
 
     public void addAnnotation(Annotation type, AnnotationStub annotationStub) {
-        annotations.put(type.annotationType().getName(), annotationStub);
+        addAnnotation(type.annotationType().getName(), annotationStub);
+    }
+
+    /**
+     * @param type 注解类型的 Class.getName()
+     */
+    public void addAnnotation(String type, AnnotationStub annotationStub) {
+        annotations.put(type, annotationStub);
+        annotationIds.set(AnnotationRegistry.id(type));
     }
 
     @Override
@@ -95,14 +112,27 @@ public class BaseWithAnnotationStub implements AnnotationsInterface, CommentInte
         });
 
         this.comment = String.join("\n", this.comments);
+        this.commentLines = null;
+        this.brComment = null;
     }
 
     public String getComment() {
         return comment;
     }
 
+    private String[] getCommentLines() {
+        if (commentLines == null) {
+            commentLines = comment.split("\n");
+        }
+        return commentLines;
+    }
+
     public String getCommentTitle() {
-        return CommentUtil.getTitle(comment);
+        if (comment == null) {
+            return "";
+        }
+
+        return getCommentLines()[0];
     }
 
     public int getCommentLength() {
@@ -110,7 +140,7 @@ public class BaseWithAnnotationStub implements AnnotationsInterface, CommentInte
             return 0;
         }
 
-        return comment.split("\n").length;
+        return getCommentLines().length;
     }
 
     public boolean hasCommentBody() {
@@ -132,7 +162,10 @@ public class BaseWithAnnotationStub implements AnnotationsInterface, CommentInte
      * @return String
      */
     public String getBrCommentBody() {
-        return StringUtil.transformLfToBr(getCommentBody());
+        if (brComment == null) {
+            brComment = StringUtil.transformLfToBr(getCommentBody());
+        }
+        return brComment;
     }
 
     public void setParentNode(BaseWithAnnotationStub parentNode) {
@@ -140,26 +173,71 @@ public class BaseWithAnnotationStub implements AnnotationsInterface, CommentInte
     }
 
     public Boolean hasAnnotation(Class<?> type) {
-        boolean hasAnnotation = annotations.containsKey(type.getCanonicalName());
-        if (type.getAnnotation(Extendable.class) != null) {
-            hasAnnotation = hasAnnotation || (parentNode != null && parentNode.hasAnnotation(type));
+        int id = AnnotationRegistry.id(type);
+        if (resolvedIds != null) {
+            return resolvedIds.get(id);
+        }
+
+        boolean hasAnnotation = annotationIds.get(id);
+        if (!hasAnnotation && parentNode != null && AnnotationRegistry.isExtendable(id)) {
+            hasAnnotation = parentNode.hasAnnotation(type);
         }
         return hasAnnotation;
     }
 
+    /**
+     * @return 注解类型的 Class.getName() => 注解，不含父节点上的注解
+     */
+    public HashMap<String, AnnotationStub> getAnnotations() {
+        return annotations;
+    }
+
     public AnnotationStub getAnnotation(Class<?> type) {
-        AnnotationStub annotationStub = annotations.get(type.getCanonicalName());
-        if (type.getAnnotation(Extendable.class) != null && annotationStub == null && parentNode != null) {
+        int id = AnnotationRegistry.id(type);
+        if (resolvedAnnotations != null) {
+            return id < resolvedAnnotations.length ? resolvedAnnotations[id] : null;
+        }
+
+        AnnotationStub annotationStub = annotations.get(type.getName());
+        if (annotationStub == null && parentNode != null && AnnotationRegistry.isExtendable(id)) {
             annotationStub = parentNode.getAnnotation(type);
         }
         return annotationStub;
     }
 
-    public String getDtoFolder() {
-        return dtoFolder;
+    /**
+     * 合并父节点上的 @Extendable 注解，之后 hasAnnotation / getAnnotation 只查本节点
+     * <p>
+     * 由 OutputStub.postParse 调用，之后不能再添加注解
+     *
+     * @param extendable AnnotationRegistry.getExtendable()
+     */
+    void resolveAnnotations(BitSet extendable) {
+        if (resolvedIds != null) {
+            return;
+        }
+
+        BitSet ids = (BitSet) annotationIds.clone();
+        AnnotationStub[] byId = new AnnotationStub[AnnotationRegistry.size()];
+        annotations.forEach((type, annotationStub) -> byId[AnnotationRegistry.id(type)] = annotationStub);
+
+        if (parentNode != null) {
+            parentNode.resolveAnnotations(extendable);
+            BitSet inherited = (BitSet) parentNode.resolvedIds.clone();
+            inherited.and(extendable);
+            inherited.andNot(ids);
+            inherited.stream().forEach(id -> byId[id] = parentNode.resolvedAnnotations[id]);
+            ids.or(inherited);
+        }
+
+        resolvedAnnotations = byId;
+        resolvedIds = ids;
     }
 
-    public String getDtoSuffix() {
-        return dtoSuffix;
+    /**
+     * @return 按 AnnotationRegistry 编号排列的生效注解，包含继承的 @Extendable 注解，resolveAnnotations 之前为null
+     */
+    AnnotationStub[] getResolvedAnnotations() {
+        return resolvedAnnotations;
     }
 }
@@ -6,6 +6,11 @@ import java.util.LinkedHashMap;
 public class EnumStub extends BaseWithAnnotationStub {
     private LinkedHashMap<String, EnumStubItem> items = new LinkedHashMap<>();
 
+    /**
+     * 与之前版本内容相同时为最早的版本名称
+     */
+    private String sharedVersion;
+
     public EnumStub(String name, String classpath) {
         super(name, classpath);
     }
@@ -22,6 +27,22 @@ public class EnumStub extends BaseWithAnnotationStub {
         return items;
     }
 
+    /**
+     * 与上一个版本的枚举完全相同，记录最早的相同版本，枚举项仍属于本版本
+     *
+     * @param version 上一个版本的名称
+     */
+    void share(EnumStub previous, String version) {
+        sharedVersion = previous.sharedVersion != null ? previous.sharedVersion : version;
+    }
+
+    /**
+     * @return 与之前版本相同时为最早的版本名称，否则为null
+     */
+    public String getSharedVersion() {
+        return sharedVersion;
+    }
+
     public static class EnumStubItem extends BaseWithAnnotationStub {
         private EnumStubItemType type;
         public EnumStubItem(String name, String classpath, EnumStubItemType type) {
@@ -3,34 +3,81 @@ package com.kamicloud.generator.stubs.core;
 import com.kamicloud.generator.interfaces.ResourceInterface;
 import definitions.annotations.RESTFul;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
+import java.util.List;
 
 public class ModelStub extends BaseWithAnnotationStub implements ResourceInterface {
     private LinkedList<ParameterStub> parameters = new LinkedList<>();
     private String parentClasspath;
     private ModelStub parent;
 
+    /**
+     * postParse 后缓存的完整字段列表
+     */
+    private List<ParameterStub> frozenParameters;
+
     private TemplateStub template;
 
+    /**
+     * 与之前版本内容相同时为最早的版本名称
+     */
+    private String sharedVersion;
+
     public ModelStub(String name, String classpath, TemplateStub template) {
         super(name, classpath);
 
         this.template = template;
     }
 
-    public LinkedList<ParameterStub> getParameters() {
-        LinkedList<ParameterStub> parameters = new LinkedList<>();
+    /**
+     * 包含父类的字段，与父类同名的字段覆盖父类字段并移到最后
+     *
+     * @return postParse 后为不可变列表
+     */
+    public List<ParameterStub> getParameters() {
+        if (frozenParameters != null) {
+            return frozenParameters;
+        }
+
+        return collectParameters();
+    }
+
+    private List<ParameterStub> collectParameters() {
+        LinkedHashMap<String, ParameterStub> parameters = new LinkedHashMap<>();
         if (parent != null) {
-            parameters.addAll(parent.getParameters());
+            parent.getParameters().forEach(parameterStub -> parameters.put(parameterStub.getName(), parameterStub));
         }
 
         this.parameters.forEach(parameterStub -> {
-            parameters.remove(parameterStub);
-            parameters.add(parameterStub);
+            parameters.remove(parameterStub.getName());
+            parameters.put(parameterStub.getName(), parameterStub);
         });
 
+        return new ArrayList<>(parameters.values());
+    }
+
+    /**
+     * 父类链接完成后缓存完整的字段列表
+     */
+    void freeze() {
+        frozenParameters = Collections.unmodifiableList(collectParameters());
+    }
+
+    /**
+     * 与上一个版本的模型完全相同，记录最早的相同版本，字段列表仍属于本版本
+     */
+    void share(ModelStub previous) {
+        sharedVersion = previous.sharedVersion != null ? previous.sharedVersion : previous.getTemplate().getName();
+    }
 
-        return parameters;
+    /**
+     * @return 与之前版本相同时为最早的版本名称，否则为null
+     */
+    public String getSharedVersion() {
+        return sharedVersion;
     }
 
     public void setParentClasspath(String parentClasspath) {
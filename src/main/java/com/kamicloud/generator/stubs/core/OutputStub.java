@@ -1,15 +1,21 @@
 package com.kamicloud.generator.stubs.core;
 
 import com.kamicloud.generator.parsers.DocParser;
+import com.kamicloud.generator.stubs.diff.ChangeSet;
+import com.kamicloud.generator.utils.Tracer;
 import com.kamicloud.generator.utils.UrlUtil;
 
-import java.util.HashMap;
-import java.util.LinkedList;
-import java.util.Observable;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
-public class OutputStub extends Observable {
+public class OutputStub {
     private HashMap<String, TemplateStub> templates = new HashMap<>();
 
+    /**
+     * TemplateList 中的版本顺序
+     */
+    private ArrayList<TemplateStub> templateList = new ArrayList<>();
+
     /**
      * 当前的接口版本
      */
@@ -21,44 +27,148 @@ public class OutputStub extends Observable {
         return templates;
     }
 
-    public HashMap<String, BaseWithAnnotationStub> classHashMap = new HashMap<>();
+    /**
+     * Parser 并行解析时写入
+     */
+    public ConcurrentHashMap<String, BaseWithAnnotationStub> classHashMap = new ConcurrentHashMap<>();
 
-    public HashMap<String, ModelStub> modelHashMap = new HashMap<>();
+    public ConcurrentHashMap<String, ModelStub> modelHashMap = new ConcurrentHashMap<>();
 
-    public void setTemplates(HashMap<String, TemplateStub> templates) {
-        setChanged();
-        this.templates = templates;
+    /**
+     * 与上次生成时解析结果的差异，为null时视为全部变化
+     */
+    private ChangeSet changes;
+
+    /**
+     * @param templates TemplateList 中的版本顺序
+     */
+    public void setTemplates(List<TemplateStub> templates) {
+        this.templates = new HashMap<>();
+        this.templateList = new ArrayList<>();
+        templates.forEach(this::addTemplate);
+    }
+
+    /**
+     * @return TemplateList 中的版本顺序，getTemplates 的迭代顺序与声明顺序无关
+     */
+    public List<TemplateStub> getTemplateList() {
+        return Collections.unmodifiableList(templateList);
     }
 
     public void addTemplate(TemplateStub templateStub) {
-        setChanged();
         this.templates.put(templateStub.getName(), templateStub);
+        this.templateList.add(templateStub);
+    }
+
+    /**
+     * 清空上次的解析结果，用于重复生成
+     */
+    public void reset() {
+        templates = new HashMap<>();
+        templateList = new ArrayList<>();
+        currentTemplate = null;
+        errors = new LinkedList<>();
+        classHashMap = new ConcurrentHashMap<>();
+        modelHashMap = new ConcurrentHashMap<>();
+        changes = null;
+    }
+
+    /**
+     * reset 只替换集合不清空，浅拷贝在下次解析后仍保留本次的结果
+     */
+    public OutputStub copy() {
+        OutputStub copy = new OutputStub();
+        copy.templates = templates;
+        copy.templateList = templateList;
+        copy.currentTemplate = currentTemplate;
+        copy.errors = errors;
+        copy.classHashMap = classHashMap;
+        copy.modelHashMap = modelHashMap;
+
+        return copy;
+    }
+
+    public ChangeSet getChanges() {
+        return changes;
+    }
+
+    public void setChanges(ChangeSet changes) {
+        this.changes = changes;
+    }
+
+    /**
+     * @return 上次生成后没有变化，可以跳过生成
+     */
+    public boolean isUnchanged(BaseWithAnnotationStub stub) {
+        return changes != null && changes.isUnchanged(stub);
     }
 
     /**
      * 模板分析完成后需要链接stub信息
+     *
+     * @param urlPrefix 以 / 开头的 api 前缀
      */
-    public void postParse() {
+    public void postParse(String urlPrefix) {
+        Tracer.span("OutputStub.postParse").run(() -> link(urlPrefix));
+    }
+
+    private void link(String urlPrefix) {
         classHashMap.forEach((classpath, commentInterface) -> {
             String comment = DocParser.classDocHashMap.get(commentInterface.getClasspath());
             commentInterface.setComment(comment);
         });
         modelHashMap.forEach((classpath, modelStub) -> {
-            modelStub.setParent(modelHashMap.get(modelStub.getParentClasspath()));
+            String parentClasspath = modelStub.getParentClasspath();
+            if (parentClasspath != null) {
+                modelStub.setParent(modelHashMap.get(parentClasspath));
+            }
         });
-        templates.forEach((version, templateStub) -> {
-            templateStub.getControllers().forEach((controllerStub -> {
-                controllerStub.getActions().forEach((action) -> {
-                    String actionName = action.getName();
+        // 父类全部链接后才能确定完整的字段列表
+        modelHashMap.forEach((classpath, modelStub) -> modelStub.freeze());
+        resolveAnnotations();
+        // 找出各版本间相同的模型及枚举
+        VersionSharing.share(templateList);
 
-                    String uri = "/" + UrlUtil.transformVersion(version) +
-                        "/" + UrlUtil.transformController(controllerStub.getName()) +
-                        "/" + UrlUtil.transformAction(actionName);
+        // 各处理器使用的接口路径只计算一次
+        templates.forEach((version, templateStub) -> {
+            String versionPath = "/" + UrlUtil.transformVersion(version);
+            templateStub.getControllers().forEach(controllerStub -> {
+                String controllerPath = versionPath + "/" + UrlUtil.transformController(controllerStub.getName());
+                controllerStub.getActions().forEach(action -> {
+                    String uri = controllerPath + "/" + UrlUtil.transformAction(action.getName());
                     action.setUri(uri);
-                    action.setFullUri("/api" + uri);
+                    action.setFullUri(urlPrefix + uri);
+                });
+            });
+        });
+    }
+
+    /**
+     * 所有 stub 合并父节点上的 @Extendable 注解，之后注解查询只需位运算
+     */
+    private void resolveAnnotations() {
+        BitSet extendable = AnnotationRegistry.getExtendable();
+
+        templates.forEach((version, templateStub) -> {
+            templateStub.resolveAnnotations(extendable);
+            templateStub.getEnums().forEach(enumStub -> {
+                enumStub.resolveAnnotations(extendable);
+                enumStub.getItems().forEach((key, item) -> item.resolveAnnotations(extendable));
+            });
+            templateStub.getModels().forEach(modelStub -> {
+                modelStub.resolveAnnotations(extendable);
+                modelStub.getParameters().forEach(parameterStub -> parameterStub.resolveAnnotations(extendable));
+            });
+            templateStub.getControllers().forEach(controllerStub -> {
+                controllerStub.resolveAnnotations(extendable);
+                controllerStub.getActions().forEach(actionStub -> {
+                    actionStub.resolveAnnotations(extendable);
+                    actionStub.getRequests().forEach(parameterStub -> parameterStub.resolveAnnotations(extendable));
+                    actionStub.getResponses().forEach(parameterStub -> parameterStub.resolveAnnotations(extendable));
                 });
-            }));
+            });
         });
+        errors.forEach(errorStub -> errorStub.resolveAnnotations(extendable));
     }
 
     public void addError(ErrorStub errorStub) {
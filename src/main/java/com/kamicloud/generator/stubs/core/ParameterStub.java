@@ -16,6 +16,11 @@ public class ParameterStub extends BaseWithAnnotationStub {
 
     protected String typeClasspath;
 
+    /**
+     * Class.getTypeName()，内部类以 $ 分隔
+     */
+    protected String typeName;
+
     public ParameterStub(String name, String classpath, String type, String typeClasspath) {
         super(name, classpath);
         this.typeSimpleName = type;
@@ -26,6 +31,10 @@ public class ParameterStub extends BaseWithAnnotationStub {
         this.arrayDepth = depth;
     }
 
+    public int getArrayDepth() {
+        return arrayDepth;
+    }
+
     public boolean isArray() {
         return arrayDepth > 0;
     }
@@ -54,6 +63,18 @@ public class ParameterStub extends BaseWithAnnotationStub {
         return typeSimpleName;
     }
 
+    public String getTypeClasspath() {
+        return typeClasspath;
+    }
+
+    public String getTypeName() {
+        return typeName;
+    }
+
+    public void setTypeName(String typeName) {
+        this.typeName = typeName;
+    }
+
     public TypeSpec getTypeSpec() {
         return type.getSpec();
     }
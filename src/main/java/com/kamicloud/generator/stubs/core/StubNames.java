@@ -0,0 +1,31 @@
+package com.kamicloud.generator.stubs.core;
+
+import com.google.common.base.CaseFormat;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 名称的各种写法，相同名称（如 id）在所有 stub 间共享，只转换一次
+ */
+final class StubNames {
+    private static final Map<String, StubNames> CACHE = new ConcurrentHashMap<>();
+
+    final String upperCamelName;
+    final String lowerCamelName;
+    final String lowerUnderScoreName;
+    final String upperUnderScoreName;
+
+    private StubNames(String name) {
+        this.upperCamelName = name;
+        this.lowerCamelName = CaseFormat.UPPER_CAMEL.to(CaseFormat.LOWER_CAMEL, name);
+        this.lowerUnderScoreName = CaseFormat.UPPER_CAMEL.to(CaseFormat.LOWER_UNDERSCORE, name);
+        this.upperUnderScoreName = CaseFormat.UPPER_CAMEL.to(CaseFormat.UPPER_UNDERSCORE, name);
+    }
+
+    static StubNames of(String name) {
+        StubNames names = CACHE.get(name);
+
+        return names != null ? names : CACHE.computeIfAbsent(name, StubNames::new);
+    }
+}
@@ -0,0 +1,157 @@
+package com.kamicloud.generator.stubs.core;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * 找出与上一个版本内容完全相同的模型及枚举，记录最早的相同版本，LaravelWriter 据此生成继承该版本的类
+ * <p>
+ * 引用的模型或枚举也必须相同，版本顺序为 TemplateList 中的顺序。只比较内容，各版本的 stub 不共享，
+ * 字段的 classpath 及引用的类型属于各自的版本；其他处理器仍按版本分别渲染。
+ * 需在 resolveAnnotations 之后调用，注解包含继承的 @Extendable 注解。
+ */
+final class VersionSharing {
+    private VersionSharing() {
+    }
+
+    static void share(List<TemplateStub> templates) {
+        Version previous = null;
+
+        for (TemplateStub templateStub : templates) {
+            Version current = new Version(templateStub);
+            if (previous != null) {
+                share(previous, current);
+            }
+            previous = current;
+        }
+    }
+
+    private static void share(Version previous, Version current) {
+        Set<String> candidates = new HashSet<>();
+        current.fingerprints.forEach((name, fingerprint) -> {
+            if (fingerprint.equals(previous.fingerprints.get(name))) {
+                candidates.add(name);
+            }
+        });
+
+        // 引用了不相同的模型或枚举时不能共享
+        boolean changed = true;
+        while (changed) {
+            changed = candidates.removeIf(name -> current.references.get(name).stream()
+                .anyMatch(reference -> current.fingerprints.containsKey(reference) && !candidates.contains(reference)));
+        }
+
+        candidates.forEach(name -> {
+            BaseWithAnnotationStub stub = current.stubs.get(name);
+            if (stub instanceof ModelStub) {
+                ((ModelStub) stub).share((ModelStub) previous.stubs.get(name));
+            } else {
+                ((EnumStub) stub).share((EnumStub) previous.stubs.get(name), previous.templateStub.getName());
+            }
+        });
+    }
+
+    /**
+     * 一个版本中的模型及枚举，以去掉模板前缀的 classpath 作为名称
+     */
+    private static class Version {
+        final TemplateStub templateStub;
+        final String prefix;
+        final Map<String, BaseWithAnnotationStub> stubs = new HashMap<>();
+        final Map<String, String> fingerprints = new HashMap<>();
+        final Map<String, List<String>> references = new HashMap<>();
+
+        Version(TemplateStub templateStub) {
+            this.templateStub = templateStub;
+            this.prefix = templateStub.getClasspath() + ".";
+
+            templateStub.getEnums().forEach(enumStub -> {
+                String name = relative(enumStub.getClasspath());
+                stubs.put(name, enumStub);
+                fingerprints.put(name, fingerprint(enumStub));
+                references.put(name, Collections.emptyList());
+            });
+            templateStub.getModels().forEach(modelStub -> {
+                String name = relative(modelStub.getClasspath());
+                List<String> modelReferences = new ArrayList<>();
+                if (modelStub.getParentClasspath() != null) {
+                    modelReferences.add(relative(modelStub.getParentClasspath()));
+                }
+                modelStub.getParameters().forEach(parameterStub -> modelReferences.add(relative(parameterStub.getTypeClasspath())));
+
+                stubs.put(name, modelStub);
+                fingerprints.put(name, fingerprint(modelStub));
+                references.put(name, modelReferences);
+            });
+        }
+
+        /**
+         * @return 本版本内的类去掉模板前缀，其他类保持不变
+         */
+        private String relative(String classpath) {
+            if (classpath == null) {
+                return "";
+            }
+
+            return classpath.startsWith(prefix) ? classpath.substring(prefix.length()) : classpath;
+        }
+
+        private String fingerprint(EnumStub enumStub) {
+            Hasher hasher = Hashing.murmur3_128().newHasher();
+            putElement(hasher, enumStub);
+            enumStub.getItems().forEach((key, item) -> {
+                putString(hasher, key);
+                putString(hasher, item.getName());
+                putString(hasher, item.getType().name());
+                putElement(hasher, item);
+            });
+
+            return hasher.hash().toString();
+        }
+
+        private String fingerprint(ModelStub modelStub) {
+            Hasher hasher = Hashing.murmur3_128().newHasher();
+            putElement(hasher, modelStub);
+            putString(hasher, relative(modelStub.getParentClasspath()));
+            modelStub.getParameters().forEach(parameterStub -> {
+                putElement(hasher, parameterStub);
+                putString(hasher, relative(parameterStub.getTypeClasspath()));
+                putString(hasher, parameterStub.getTypeSimpleName());
+                putString(hasher, parameterStub.getType().getClass().getName());
+                hasher.putInt(parameterStub.getArrayDepth());
+            });
+
+            return hasher.hash().toString();
+        }
+
+        private static void putElement(Hasher hasher, BaseWithAnnotationStub stub) {
+            putString(hasher, stub.getName());
+            putString(hasher, stub.getComment());
+            // 编号只在本进程内有效，各版本在同一进程中比较
+            AnnotationStub[] annotations = stub.getResolvedAnnotations();
+            for (int id = 0; id < annotations.length; id++) {
+                AnnotationStub annotationStub = annotations[id];
+                if (annotationStub == null) {
+                    continue;
+                }
+                hasher.putInt(id);
+                putString(hasher, annotationStub.getValue());
+                hasher.putInt(annotationStub.getValues().size());
+                annotationStub.getValues().forEach(value -> putString(hasher, value));
+            }
+            hasher.putInt(-1);
+        }
+
+        private static void putString(Hasher hasher, String value) {
+            if (value == null) {
+                hasher.putInt(-1);
+                return;
+            }
+            hasher.putInt(value.length());
+            hasher.putString(value, StandardCharsets.UTF_8);
+        }
+    }
+}
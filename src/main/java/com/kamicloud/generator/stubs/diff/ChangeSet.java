@@ -0,0 +1,130 @@
+package com.kamicloud.generator.stubs.diff;
+
+import com.kamicloud.generator.stubs.core.BaseWithAnnotationStub;
+
+import java.util.*;
+
+/**
+ * 两次解析结果之间的差异，由 ModelDiff 生成
+ * <p>
+ * 接口变化时所在的控制器也视为有变化，处理器可以跳过 isUnchanged 的实体。
+ */
+public class ChangeSet {
+    public enum Kind {
+        ADDED("+"),
+        REMOVED("-"),
+        CHANGED("~");
+
+        private final String symbol;
+
+        Kind(String symbol) {
+            this.symbol = symbol;
+        }
+
+        public String getSymbol() {
+            return symbol;
+        }
+    }
+
+    public enum EntityType {
+        TEMPLATE,
+        CONTROLLER,
+        ACTION,
+        MODEL,
+        ENUM,
+        ERROR
+    }
+
+    public static class Change {
+        private final Kind kind;
+        private final EntityType type;
+        private final String classpath;
+        private final List<String> details;
+
+        Change(Kind kind, EntityType type, String classpath, List<String> details) {
+            this.kind = kind;
+            this.type = type;
+            this.classpath = classpath;
+            this.details = Collections.unmodifiableList(details);
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        public EntityType getType() {
+            return type;
+        }
+
+        public String getClasspath() {
+            return classpath;
+        }
+
+        /**
+         * @return 变化的字段、参数及注解，如 +request id、~@Methods
+         */
+        public List<String> getDetails() {
+            return details;
+        }
+
+        @Override
+        public String toString() {
+            String change = kind.getSymbol() + " " + type.name().toLowerCase() + " " + classpath;
+
+            return details.isEmpty() ? change : change + ": " + String.join(", ", details);
+        }
+    }
+
+    private final List<Change> changes = new ArrayList<>();
+
+    /**
+     * 有变化的实体及包含变化的控制器
+     */
+    private final Set<String> touched = new HashSet<>();
+
+    void add(Change change, String parentClasspath) {
+        changes.add(change);
+        touched.add(change.getClasspath());
+        if (parentClasspath != null) {
+            touched.add(parentClasspath);
+        }
+    }
+
+    public List<Change> getChanges() {
+        return Collections.unmodifiableList(changes);
+    }
+
+    public boolean isEmpty() {
+        return changes.isEmpty();
+    }
+
+    /**
+     * @param stub 本次解析结果中的模板、控制器、接口、模型、枚举或错误
+     * @return 上次解析中存在且内容相同
+     */
+    public boolean isUnchanged(BaseWithAnnotationStub stub) {
+        return !touched.contains(stub.getClasspath());
+    }
+
+    /**
+     * @return 每行一个变化，没有变化时为空
+     */
+    public String toReport() {
+        StringBuilder report = new StringBuilder();
+        changes.forEach(change -> report.append(change).append('\n'));
+
+        return report.toString();
+    }
+
+    @Override
+    public String toString() {
+        if (changes.isEmpty()) {
+            return "no changes";
+        }
+
+        StringBuilder report = new StringBuilder();
+        changes.forEach(change -> report.append("\n    ").append(change));
+
+        return report.toString();
+    }
+}
@@ -0,0 +1,280 @@
+package com.kamicloud.generator.stubs.diff;
+
+import com.kamicloud.generator.stubs.core.*;
+import com.kamicloud.generator.stubs.diff.ChangeSet.Change;
+import com.kamicloud.generator.stubs.diff.ChangeSet.EntityType;
+import com.kamicloud.generator.stubs.diff.ChangeSet.Kind;
+
+import java.util.*;
+
+/**
+ * 比较两次解析结果，以 classpath 作为实体标识
+ * <p>
+ * 两边各遍历一次建立索引，再逐个比较实体自身的内容，子实体单独比较。
+ */
+public class ModelDiff {
+    private ModelDiff() {
+    }
+
+    /**
+     * @param before 上次解析结果，需已 postParse
+     * @param after  本次解析结果，需已 postParse
+     */
+    public static ChangeSet diff(OutputStub before, OutputStub after) {
+        ChangeSet changeSet = new ChangeSet();
+        Index beforeIndex = new Index(before);
+        Index afterIndex = new Index(after);
+
+        for (EntityType type : EntityType.values()) {
+            Map<String, Entry> beforeEntries = beforeIndex.get(type);
+            Map<String, Entry> afterEntries = afterIndex.get(type);
+
+            afterEntries.forEach((classpath, entry) -> {
+                Entry previous = beforeEntries.get(classpath);
+                if (previous == null) {
+                    changeSet.add(new Change(Kind.ADDED, type, classpath, Collections.emptyList()), entry.parentClasspath);
+                    return;
+                }
+
+                List<String> details = new ArrayList<>();
+                compare(type, previous, entry, details);
+                if (!details.isEmpty()) {
+                    changeSet.add(new Change(Kind.CHANGED, type, classpath, details), entry.parentClasspath);
+                }
+            });
+
+            beforeEntries.forEach((classpath, entry) -> {
+                if (!afterEntries.containsKey(classpath)) {
+                    changeSet.add(new Change(Kind.REMOVED, type, classpath, Collections.emptyList()), entry.parentClasspath);
+                }
+            });
+        }
+
+        return changeSet;
+    }
+
+    private static void compare(EntityType type, Entry before, Entry after, List<String> details) {
+        compareElement(before.stub, after.stub, details);
+
+        switch (type) {
+            case TEMPLATE:
+                if (((TemplateStub) before.stub).isCurrent() != ((TemplateStub) after.stub).isCurrent()) {
+                    details.add("current");
+                }
+                break;
+            case ACTION:
+                ActionStub beforeAction = (ActionStub) before.stub;
+                ActionStub afterAction = (ActionStub) after.stub;
+                compareParameters("request", beforeAction.getRequests(), afterAction.getRequests(), details);
+                compareParameters("response", beforeAction.getResponses(), afterAction.getResponses(), details);
+                break;
+            case MODEL:
+                ModelStub beforeModel = (ModelStub) before.stub;
+                ModelStub afterModel = (ModelStub) after.stub;
+                if (!Objects.equals(beforeModel.getParentClasspath(), afterModel.getParentClasspath())) {
+                    details.add("parent");
+                }
+                if (!Objects.equals(beforeModel.getSharedVersion(), afterModel.getSharedVersion())) {
+                    details.add("shared version");
+                }
+                // 包含父模型的字段
+                compareParameters("parameter", beforeModel.getParameters(), afterModel.getParameters(), details);
+                break;
+            case ENUM:
+                if (!Objects.equals(((EnumStub) before.stub).getSharedVersion(), ((EnumStub) after.stub).getSharedVersion())) {
+                    details.add("shared version");
+                }
+                compareItems(((EnumStub) before.stub).getItems(), ((EnumStub) after.stub).getItems(), details);
+                break;
+            case ERROR:
+                if (!Objects.equals(((ErrorStub) before.stub).getCode(), ((ErrorStub) after.stub).getCode())) {
+                    details.add("code");
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * 名称、注释及注解
+     */
+    private static void compareElement(BaseWithAnnotationStub before, BaseWithAnnotationStub after, List<String> details) {
+        if (!before.getName().equals(after.getName())) {
+            details.add("name");
+        }
+        if (!Objects.equals(before.getComment(), after.getComment())) {
+            details.add("comment");
+        }
+        compareAnnotations("", before.getAnnotations(), after.getAnnotations(), details);
+    }
+
+    private static void compareAnnotations(
+        String prefix,
+        Map<String, AnnotationStub> before,
+        Map<String, AnnotationStub> after,
+        List<String> details
+    ) {
+        after.forEach((type, annotationStub) -> {
+            AnnotationStub previous = before.get(type);
+            if (previous == null) {
+                details.add("+" + prefix + "@" + annotationStub.getName());
+            } else if (!sameAnnotation(previous, annotationStub)) {
+                details.add("~" + prefix + "@" + annotationStub.getName());
+            }
+        });
+        before.forEach((type, annotationStub) -> {
+            if (!after.containsKey(type)) {
+                details.add("-" + prefix + "@" + annotationStub.getName());
+            }
+        });
+    }
+
+    private static boolean sameAnnotation(AnnotationStub before, AnnotationStub after) {
+        return Objects.equals(before.getValue(), after.getValue()) && before.getValues().equals(after.getValues());
+    }
+
+    private static void compareParameters(
+        String kind,
+        List<ParameterStub> before,
+        List<ParameterStub> after,
+        List<String> details
+    ) {
+        Map<String, ParameterStub> beforeParameters = new LinkedHashMap<>();
+        before.forEach(parameterStub -> beforeParameters.put(parameterStub.getName(), parameterStub));
+        Map<String, ParameterStub> afterParameters = new LinkedHashMap<>();
+        after.forEach(parameterStub -> afterParameters.put(parameterStub.getName(), parameterStub));
+
+        List<String> beforeOrder = new ArrayList<>();
+        List<String> afterOrder = new ArrayList<>();
+
+        afterParameters.forEach((name, parameterStub) -> {
+            ParameterStub previous = beforeParameters.get(name);
+            if (previous == null) {
+                details.add("+" + kind + " " + name);
+                return;
+            }
+            afterOrder.add(name);
+
+            List<String> parameterDetails = new ArrayList<>();
+            if (!Objects.equals(previous.getTypeClasspath(), parameterStub.getTypeClasspath()) ||
+                previous.getArrayDepth() != parameterStub.getArrayDepth()
+            ) {
+                parameterDetails.add("type " + typeOf(previous) + " -> " + typeOf(parameterStub));
+            }
+            if (!Objects.equals(previous.getComment(), parameterStub.getComment())) {
+                parameterDetails.add("comment");
+            }
+            compareAnnotations("", previous.getAnnotations(), parameterStub.getAnnotations(), parameterDetails);
+
+            if (!parameterDetails.isEmpty()) {
+                details.add("~" + kind + " " + name + " (" + String.join(", ", parameterDetails) + ")");
+            }
+        });
+        beforeParameters.forEach((name, parameterStub) -> {
+            if (!afterParameters.containsKey(name)) {
+                details.add("-" + kind + " " + name);
+            } else {
+                beforeOrder.add(name);
+            }
+        });
+
+        if (!beforeOrder.equals(afterOrder)) {
+            details.add(kind + " order");
+        }
+    }
+
+    /**
+     * 同名类型可能来自不同的包，输出完整的 classpath
+     */
+    private static String typeOf(ParameterStub parameterStub) {
+        StringBuilder type = new StringBuilder(String.valueOf(parameterStub.getTypeClasspath()));
+        for (int i = 0; i < parameterStub.getArrayDepth(); i++) {
+            type.append("[]");
+        }
+
+        return type.toString();
+    }
+
+    private static void compareItems(
+        Map<String, EnumStub.EnumStubItem> before,
+        Map<String, EnumStub.EnumStubItem> after,
+        List<String> details
+    ) {
+        List<String> beforeOrder = new ArrayList<>();
+        List<String> afterOrder = new ArrayList<>();
+
+        after.forEach((key, item) -> {
+            EnumStub.EnumStubItem previous = before.get(key);
+            if (previous == null) {
+                details.add("+item " + key);
+                return;
+            }
+            afterOrder.add(key);
+
+            if (!Objects.equals(previous.getName(), item.getName()) || previous.getType() != item.getType()) {
+                details.add("~item " + key + " value " + previous.getName() + " -> " + item.getName());
+            }
+            if (!Objects.equals(previous.getComment(), item.getComment())) {
+                details.add("~item " + key + " comment");
+            }
+            compareAnnotations("item " + key + " ", previous.getAnnotations(), item.getAnnotations(), details);
+        });
+        before.forEach((key, item) -> {
+            if (!after.containsKey(key)) {
+                details.add("-item " + key);
+            } else {
+                beforeOrder.add(key);
+            }
+        });
+
+        if (!beforeOrder.equals(afterOrder)) {
+            details.add("item order");
+        }
+    }
+
+    private static class Entry {
+        final BaseWithAnnotationStub stub;
+        /**
+         * 接口所在的控制器，接口变化时控制器也需要重新生成
+         */
+        final String parentClasspath;
+
+        Entry(BaseWithAnnotationStub stub, String parentClasspath) {
+            this.stub = stub;
+            this.parentClasspath = parentClasspath;
+        }
+    }
+
+    /**
+     * 实体类型 => classpath => 实体
+     */
+    private static class Index {
+        private final EnumMap<EntityType, Map<String, Entry>> entries = new EnumMap<>(EntityType.class);
+
+        Index(OutputStub output) {
+            for (EntityType type : EntityType.values()) {
+                entries.put(type, new LinkedHashMap<>());
+            }
+
+            output.getTemplateList().forEach(templateStub -> {
+                put(EntityType.TEMPLATE, templateStub, null);
+                templateStub.getEnums().forEach(enumStub -> put(EntityType.ENUM, enumStub, null));
+                templateStub.getModels().forEach(modelStub -> put(EntityType.MODEL, modelStub, null));
+                templateStub.getControllers().forEach(controllerStub -> {
+                    put(EntityType.CONTROLLER, controllerStub, null);
+                    controllerStub.getActions().forEach(actionStub -> put(EntityType.ACTION, actionStub, controllerStub.getClasspath()));
+                });
+            });
+            output.getErrors().forEach(errorStub -> put(EntityType.ERROR, errorStub, null));
+        }
+
+        private void put(EntityType type, BaseWithAnnotationStub stub, String parentClasspath) {
+            entries.get(type).put(stub.getClasspath(), new Entry(stub, parentClasspath));
+        }
+
+        Map<String, Entry> get(EntityType type) {
+            return entries.get(type);
+        }
+    }
+}
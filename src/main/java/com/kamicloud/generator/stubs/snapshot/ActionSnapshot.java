@@ -0,0 +1,11 @@
+package com.kamicloud.generator.stubs.snapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ActionSnapshot extends ElementSnapshot {
+    /**
+     * 请求和响应参数，按声明顺序
+     */
+    public List<ParameterSnapshot> parameters = new ArrayList<>();
+}
@@ -0,0 +1,22 @@
+package com.kamicloud.generator.stubs.snapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class AnnotationSnapshot {
+    /**
+     * 注解类型的 Class.getName()
+     */
+    public String type;
+    public String name;
+
+    /**
+     * 非数组成员的值，没有时为 null
+     */
+    public String value;
+
+    /**
+     * 数组成员的所有元素
+     */
+    public List<String> values = new ArrayList<>();
+}
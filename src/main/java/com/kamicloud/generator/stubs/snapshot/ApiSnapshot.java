@@ -0,0 +1,29 @@
+package com.kamicloud.generator.stubs.snapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 完整的模板信息，由 TemplateProcessor 在编译模板时生成
+ */
+public class ApiSnapshot {
+    /**
+     * 编译输出目录中的位置
+     */
+    public static final String RESOURCE = "META-INF/generator/api.json";
+
+    /**
+     * 按 TemplateList.templates 的顺序
+     */
+    public List<TemplateSnapshot> templates = new ArrayList<>();
+
+    /**
+     * TemplateList.currentTemplate 的 classpath
+     */
+    public String currentTemplate;
+
+    /**
+     * 模板没有实现 ErrorInterface 时为空
+     */
+    public List<ErrorSnapshot> errors = new ArrayList<>();
+}
@@ -0,0 +1,8 @@
+package com.kamicloud.generator.stubs.snapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ControllerSnapshot extends ElementSnapshot {
+    public List<ActionSnapshot> actions = new ArrayList<>();
+}
@@ -0,0 +1,22 @@
+package com.kamicloud.generator.stubs.snapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 模板中的一个类、枚举常量或字段，保存源码中的原始信息，由 ModelLoader 转换成对应的 stub
+ */
+public class ElementSnapshot {
+    public String name;
+    public String classpath;
+
+    /**
+     * 注释内容，没有注释时为 null
+     */
+    public String comment;
+
+    /**
+     * 运行时可见的注解
+     */
+    public List<AnnotationSnapshot> annotations = new ArrayList<>();
+}
@@ -0,0 +1,15 @@
+package com.kamicloud.generator.stubs.snapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class EnumSnapshot extends ElementSnapshot {
+    public List<EnumItemSnapshot> items = new ArrayList<>();
+
+    public static class EnumItemSnapshot extends ElementSnapshot {
+        /**
+         * 实现 FixedEnumValueInterface 时构造参数的值，否则为 null
+         */
+        public String value;
+    }
+}
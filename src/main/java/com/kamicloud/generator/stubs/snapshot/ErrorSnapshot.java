@@ -0,0 +1,8 @@
+package com.kamicloud.generator.stubs.snapshot;
+
+public class ErrorSnapshot extends ElementSnapshot {
+    /**
+     * 构造参数的值，即 ErrorInterface.getValue()
+     */
+    public String code;
+}
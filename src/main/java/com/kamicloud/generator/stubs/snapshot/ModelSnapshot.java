@@ -0,0 +1,9 @@
+package com.kamicloud.generator.stubs.snapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ModelSnapshot extends ElementSnapshot {
+    public String parentClasspath;
+    public List<ParameterSnapshot> parameters = new ArrayList<>();
+}
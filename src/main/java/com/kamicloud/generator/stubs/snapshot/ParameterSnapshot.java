@@ -0,0 +1,16 @@
+package com.kamicloud.generator.stubs.snapshot;
+
+public class ParameterSnapshot extends ElementSnapshot {
+    /**
+     * 去掉数组后的类型
+     */
+    public String typeSimpleName;
+    public String typeClasspath;
+
+    /**
+     * Class.getTypeName()，内部类以 $ 分隔
+     */
+    public String typeName;
+
+    public int arrayDepth;
+}
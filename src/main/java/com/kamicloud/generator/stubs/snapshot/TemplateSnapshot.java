@@ -0,0 +1,13 @@
+package com.kamicloud.generator.stubs.snapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 内部类的顺序与 Class.getDeclaredClasses 相同
+ */
+public class TemplateSnapshot extends ElementSnapshot {
+    public List<EnumSnapshot> enums = new ArrayList<>();
+    public List<ModelSnapshot> models = new ArrayList<>();
+    public List<ControllerSnapshot> controllers = new ArrayList<>();
+}
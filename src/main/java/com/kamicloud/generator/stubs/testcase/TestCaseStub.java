@@ -26,6 +26,7 @@ public class TestCaseStub implements ResourceInterface {
     private String method;
     private String model;
     private String id;
+    private String urlPrefix;
     private LinkedHashMap<String, String> params = new LinkedHashMap<>();
 
     private Response response;
@@ -73,7 +74,10 @@ public class TestCaseStub implements ResourceInterface {
 //        return user;
 //    }
 
-    public static LinkedList<TestCaseStub> getTestCasesFromFile(File file) throws FileNotFoundException {
+    /**
+     * @param urlPrefix 以 / 开头的 api 前缀
+     */
+    public static LinkedList<TestCaseStub> getTestCasesFromFile(File file, String urlPrefix) throws FileNotFoundException {
 
         FileInputStream fileInputStream = new FileInputStream(file);
 
@@ -81,8 +85,10 @@ public class TestCaseStub implements ResourceInterface {
 
 
         LinkedList<TestCaseStub> collection = new LinkedList<>();
+        TestCaseStub root = new TestCaseStub();
+        root.urlPrefix = urlPrefix;
 
-        collection.addAll(getTestCasesFromNode(file, attributes, null));
+        collection.addAll(getTestCasesFromNode(file, attributes, root));
 
         return collection;
     }
@@ -122,11 +128,12 @@ public class TestCaseStub implements ResourceInterface {
         testCaseStub.method = getString(method, prev.method);
         testCaseStub.model = getString(model, prev.model);
         testCaseStub.id = getString(id, prev.id);
+        testCaseStub.urlPrefix = prev.urlPrefix;
 
         if (testCaseStub.api == null) {
             // 对于手动指定请求的接口，不使用默认的目录映射
             if (testCaseStub.version != null && testCaseStub.controller != null && testCaseStub.action != null) {
-                testCaseStub.api = UrlUtil.getUrlWithPrefix(testCaseStub.version, testCaseStub.controller, testCaseStub.action);
+                testCaseStub.api = UrlUtil.getUrlWithPrefix(testCaseStub.urlPrefix, testCaseStub.version, testCaseStub.controller, testCaseStub.action);
             } else {
                 List<String> paths = Arrays.asList(file.getAbsolutePath().split("[\\\\/]"));
                 int size = paths.size();
@@ -184,9 +191,9 @@ public class TestCaseStub implements ResourceInterface {
 
     public String getApi() {
         if (isResource()) {
-            return api == null ? UrlUtil.getResourceUrlWithPrefix(version, model, id).get(method) : api;
+            return api == null ? UrlUtil.getResourceUrlWithPrefix(urlPrefix, version, model, id).get(method) : api;
         }
-        return api == null ? UrlUtil.getUrlWithPrefix(version, controller, action) : api;
+        return api == null ? UrlUtil.getUrlWithPrefix(urlPrefix, version, controller, action) : api;
     }
 
     public String getHttpMethod() {
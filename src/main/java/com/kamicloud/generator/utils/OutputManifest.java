@@ -0,0 +1,259 @@
+package com.kamicloud.generator.utils;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 输出文件清单，记录每个输出文件的内容摘要
+ * <p>
+ * 内容未变化的文件不再重写。写入的文件先保存为临时文件，所有文件写入完成后由 publish 依次替换，再删除不再生成的文件；
+ * 生成失败时调用 discard，输出目录保持上次的内容。替换过程中新旧文件仍可能短暂同时存在。
+ */
+public class OutputManifest {
+    private static final Logger log = LoggerFactory.getLogger(OutputManifest.class);
+
+    private final File manifestFile;
+
+    private final OutputSink sink;
+
+    /**
+     * 上次生成时的 路径 => 摘要
+     */
+    private Map<String, String> previous = new ConcurrentHashMap<>();
+
+    /**
+     * 本次生成的 路径 => 摘要
+     */
+    private final Map<String, String> current = new ConcurrentHashMap<>();
+
+    /**
+     * 等待 publish 时清理的目录
+     */
+    private final Set<File> pruneDirs = ConcurrentHashMap.newKeySet();
+
+    private final AtomicInteger written = new AtomicInteger();
+    private final AtomicInteger unchanged = new AtomicInteger();
+    private final AtomicInteger deleted = new AtomicInteger();
+
+    /**
+     * @param manifestFile 清单保存位置，为null时不持久化
+     */
+    public OutputManifest(File manifestFile) {
+        this(manifestFile, new OutputSink(0, 1));
+    }
+
+    /**
+     * @param manifestFile 清单保存位置，为null时不持久化
+     * @param sink         实际写入磁盘的输出队列
+     */
+    public OutputManifest(File manifestFile, OutputSink sink) {
+        this.manifestFile = manifestFile;
+        this.sink = sink;
+    }
+
+    public void load() {
+        previous = new ConcurrentHashMap<>();
+        current.clear();
+        pruneDirs.clear();
+        written.set(0);
+        unchanged.set(0);
+        deleted.set(0);
+
+        if (manifestFile == null || !manifestFile.exists()) {
+            return;
+        }
+
+        try (Reader reader = Files.newBufferedReader(manifestFile.toPath(), StandardCharsets.UTF_8)) {
+            HashMap<String, String> entries = new Gson().fromJson(reader, new TypeToken<HashMap<String, String>>() {}.getType());
+            if (entries != null) {
+                previous.putAll(entries);
+            }
+        } catch (Exception e) {
+            log.warn("Ignore broken output manifest {}", manifestFile, e);
+        }
+    }
+
+    /**
+     * 写入文件，内容与上次生成一致时跳过
+     *
+     * @param file    目标文件
+     * @param content 文件内容，提交到 OutputSink 后不能再修改
+     * @return 是否需要写入磁盘，写入在 publish 后完成
+     */
+    public boolean write(File file, byte[] content) throws IOException {
+        return write(file, content, Hashing.sha256().hashBytes(content).toString());
+    }
+
+    /**
+     * 与 write(File, byte[]) 相同，摘要已在生成内容时计算
+     *
+     * @param digest 由 digest() 创建，已更新过全部内容
+     */
+    public boolean write(File file, byte[] content, MessageDigest digest) throws IOException {
+        return write(file, content, HashCode.fromBytes(digest.digest()).toString());
+    }
+
+    /**
+     * 与清单中记录的摘要算法相同
+     */
+    public static MessageDigest digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private boolean write(File file, byte[] content, String hash) throws IOException {
+        String path = file.getAbsoluteFile().toPath().normalize().toString();
+
+        current.put(path, hash);
+
+        if (hash.equals(previous.get(path)) && file.isFile() && file.length() == content.length) {
+            unchanged.incrementAndGet();
+            return false;
+        }
+
+        sink.write(file, content);
+        written.incrementAndGet();
+
+        return true;
+    }
+
+    /**
+     * 沿用上次生成的文件，不重新生成内容
+     *
+     * @param file 目标文件
+     * @return 上次生成过该文件且文件仍存在，否则需要重新生成
+     */
+    public boolean keep(File file) {
+        String path = file.getAbsoluteFile().toPath().normalize().toString();
+        String hash = previous.get(path);
+
+        if (hash == null || !file.isFile()) {
+            return false;
+        }
+        current.put(path, hash);
+        unchanged.incrementAndGet();
+
+        return true;
+    }
+
+    /**
+     * 保留已存在的文件，不覆盖也不在 publish 时删除
+     *
+     * @param file 已存在的目标文件，可能已被手动修改
+     */
+    public void preserve(File file) throws IOException {
+        String path = file.getAbsoluteFile().toPath().normalize().toString();
+
+        current.put(path, Hashing.sha256().hashBytes(Files.readAllBytes(file.toPath())).toString());
+        unchanged.incrementAndGet();
+    }
+
+    /**
+     * publish 时删除目录下本次没有生成的文件
+     *
+     * @param dir 完全由生成器管理的目录
+     */
+    public void prune(File dir) {
+        pruneDirs.add(dir.getAbsoluteFile().toPath().normalize().toFile());
+    }
+
+    /**
+     * 所有文件写入完成后调用，替换本次写入的文件，再删除 prune 目录下不再生成的文件
+     * <p>
+     * 写入过程中不修改任何输出文件，使用生成目录的应用不会看到缺少文件的中间状态。
+     *
+     * @throws IOException 有文件替换失败，未替换的文件保留上次的内容，不删除任何文件
+     */
+    public void publish() throws IOException {
+        try {
+            sink.commit();
+        } catch (IOException e) {
+            discard();
+            throw e;
+        }
+        pruneDirs.forEach(dir -> {
+            if (dir.exists()) {
+                pruneFile(dir);
+            }
+        });
+        pruneDirs.clear();
+    }
+
+    /**
+     * 生成失败时调用，放弃还未替换的文件，清单中这些文件仍记录上次的摘要
+     */
+    public void discard() {
+        sink.discard().forEach(path -> current.remove(path.toString()));
+        pruneDirs.clear();
+    }
+
+    private boolean pruneFile(File file) {
+        if (file.isFile()) {
+            if (current.containsKey(file.getPath())) {
+                return false;
+            }
+            previous.remove(file.getPath());
+            deleted.incrementAndGet();
+            return file.delete();
+        }
+
+        File[] files = file.listFiles();
+        boolean empty = true;
+        if (files != null) {
+            for (File child : files) {
+                empty &= pruneFile(child);
+            }
+        }
+
+        return empty && file.delete();
+    }
+
+    public void save() {
+        log.info("Output files: {} written, {} unchanged, {} deleted", written.get(), unchanged.get(), deleted.get());
+
+        if (manifestFile == null) {
+            return;
+        }
+
+        // 保留其他流程生成且仍存在的文件
+        TreeMap<String, String> entries = new TreeMap<>();
+        previous.forEach((path, hash) -> {
+            if (new File(path).isFile()) {
+                entries.put(path, hash);
+            }
+        });
+        entries.putAll(current);
+
+        File parent = manifestFile.getAbsoluteFile().getParentFile();
+        if (!parent.exists()) {
+            parent.mkdirs();
+        }
+        try (Writer writer = Files.newBufferedWriter(manifestFile.toPath(), StandardCharsets.UTF_8)) {
+            new Gson().toJson(entries, writer);
+        } catch (IOException e) {
+            log.warn("Failed to save output manifest {}", manifestFile, e);
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.kamicloud.generator.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 所有处理器共用的输出队列，渲染线程提交内容后继续渲染，由 I/O 线程写入磁盘
+ * <p>
+ * 队列已满时提交方阻塞，内存中最多保留 capacity 个未写入的文件。生成结束时调用 flush 等待全部写入。
+ * <p>
+ * 文件先写入同目录下的临时文件，commit 时才依次原子替换目标文件，读取方不会读到只写了一半的文件；
+ * 生成失败时 discard 删除临时文件，保留上次的输出。
+ */
+public class OutputSink {
+    /**
+     * 写入中的临时文件后缀
+     */
+    private static final String TEMP_SUFFIX = ".generating";
+
+    private final ExecutorService executorService;
+    private final int capacity;
+    private final Semaphore permits;
+
+    /**
+     * 已创建的目录
+     */
+    private final Map<Path, Boolean> directories = new ConcurrentHashMap<>();
+
+    /**
+     * 已写入临时文件、等待 commit 的 目标文件 => 临时文件
+     */
+    private final Map<Path, Path> staged = new ConcurrentHashMap<>();
+
+    /**
+     * 上次 flush 之后第一个写入失败的异常
+     */
+    private final AtomicReference<IOException> failure = new AtomicReference<>();
+
+    /**
+     * @param threads  I/O 线程数，为0时在提交的线程中直接写入
+     * @param capacity 队列中最多等待写入的文件数
+     */
+    public OutputSink(int threads, int capacity) {
+        this.capacity = Math.max(capacity, 1);
+        this.permits = new Semaphore(this.capacity);
+        this.executorService = threads > 0 ? Executors.newFixedThreadPool(threads, new SinkThreadFactory()) : null;
+    }
+
+    /**
+     * 提交文件内容，队列已满时等待，commit 之前目标文件不变
+     *
+     * @param file    目标文件
+     * @param content 文件内容，提交后不能再修改
+     */
+    public void write(File file, byte[] content) throws IOException {
+        Path path = file.getAbsoluteFile().toPath().normalize();
+        if (executorService == null) {
+            writeFile(path, content);
+            return;
+        }
+
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for output queue");
+        }
+
+        try {
+            executorService.execute(() -> {
+                try {
+                    Tracer.span("OutputSink.write", "file", path.toString()).run(() -> writeFile(path, content));
+                } catch (IOException e) {
+                    if (!failure.compareAndSet(null, e)) {
+                        failure.get().addSuppressed(e);
+                    }
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private void writeFile(Path path, byte[] content) throws IOException {
+        Path parent = path.getParent();
+        createDirectories(parent);
+
+        Path temp = path.resolveSibling("." + path.getFileName() + TEMP_SUFFIX);
+        try {
+            stage(temp, content);
+        } catch (NoSuchFileException e) {
+            // 目录在创建后被删除
+            directories.remove(parent);
+            createDirectories(parent);
+            stage(temp, content);
+        }
+        staged.put(path, temp);
+    }
+
+    private static void stage(Path temp, byte[] content) throws IOException {
+        try {
+            Files.write(temp, content);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    private static void replace(Path temp, Path path) throws IOException {
+        try {
+            Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private void createDirectories(Path dir) throws IOException {
+        try {
+            // 同一目录只创建一次，其他线程等待创建完成
+            directories.computeIfAbsent(dir, key -> {
+                try {
+                    Files.createDirectories(key);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return Boolean.TRUE;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * 等待已提交的文件全部写入临时文件，需在所有处理器结束后调用
+     *
+     * @throws IOException 有文件写入失败，其他失败在 getSuppressed 中
+     */
+    public void flush() throws IOException {
+        if (executorService != null) {
+            try {
+                permits.acquire(capacity);
+                permits.release(capacity);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while flushing output queue");
+            }
+        }
+        // 下次生成时目录可能已被删除
+        directories.clear();
+
+        IOException e = failure.getAndSet(null);
+        if (e != null) {
+            throw e;
+        }
+    }
+
+    /**
+     * flush 成功后用临时文件替换全部目标文件，替换只是重命名，新旧文件同时存在的时间很短
+     *
+     * @throws IOException 有文件替换失败，未替换的文件仍等待 commit 或 discard
+     */
+    public void commit() throws IOException {
+        IOException error = null;
+        for (Map.Entry<Path, Path> entry : staged.entrySet()) {
+            try {
+                replace(entry.getValue(), entry.getKey());
+                staged.remove(entry.getKey());
+            } catch (IOException e) {
+                if (error == null) {
+                    error = e;
+                } else {
+                    error.addSuppressed(e);
+                }
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    /**
+     * 删除还未替换的临时文件，目标文件保留上次的内容
+     *
+     * @return 被放弃的目标文件
+     */
+    public Set<Path> discard() {
+        Set<Path> discarded = new HashSet<>();
+        staged.forEach((path, temp) -> {
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException e) {
+                // 下次写入同一文件时覆盖
+            }
+            discarded.add(path);
+        });
+        staged.clear();
+
+        return discarded;
+    }
+
+    private static class SinkThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "output-" + count.incrementAndGet());
+            // 常驻进程退出时不等待
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.kamicloud.generator.utils;
 
 import com.google.common.base.CaseFormat;
+import com.kamicloud.generator.config.GeneratorSettings;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.thymeleaf.context.Context;
 import org.thymeleaf.spring5.SpringTemplateEngine;
@@ -12,6 +13,9 @@ public class StringUtil {
     @Autowired
     protected SpringTemplateEngine springTemplateEngine;
 
+    @Autowired
+    protected GeneratorSettings generatorSettings;
+
     public String lowerCamelToLowerUnderscore(String string) {
         return CaseFormat.LOWER_CAMEL.to(CaseFormat.LOWER_UNDERSCORE, string);
     }
@@ -23,12 +27,15 @@ public class StringUtil {
         return lf.replace("\n", "<br>");
     }
 
+    /**
+     * 模板中可以通过 settings 读取生成配置
+     */
     public String renderTemplate(String path, Object params) {
         Locale locale = Locale.forLanguageTag("cn-zh");
         Context context = new Context(locale);
         context.setVariable("params", params);
-        String content = springTemplateEngine.process(path, context);
+        context.setVariable("settings", generatorSettings);
 
-        return content;
+        return Tracer.span("renderTemplate", "template", path).call(() -> springTemplateEngine.process(path, context));
     }
 }
@@ -0,0 +1,184 @@
+package com.kamicloud.generator.utils;
+
+import com.google.gson.Gson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * 记录生成各阶段耗时，输出 Chrome trace-event 格式，可用 chrome://tracing 或 Perfetto 打开
+ * <p>
+ * 未调用 start 时 span 不做任何记录。
+ * <pre>
+ * return Tracer.span("renderTemplate", "template", path).call(() -> ...);
+ * </pre>
+ */
+public class Tracer {
+    private static final Logger log = LoggerFactory.getLogger(Tracer.class);
+
+    private static final Span NOOP = new Span(null, null);
+
+    private static volatile Collector collector;
+
+    private Tracer() {
+    }
+
+    /**
+     * 开始记录，丢弃之前未保存的记录
+     */
+    public static void start() {
+        collector = new Collector();
+    }
+
+    public static boolean isEnabled() {
+        return collector != null;
+    }
+
+    /**
+     * @param name 阶段名
+     * @param tags 标签，按 key, value 交替传入
+     * @return 通过 run 或 call 执行阶段内的代码，结束时自动关闭
+     */
+    public static Span span(String name, String... tags) {
+        Collector current = collector;
+        if (current == null) {
+            return NOOP;
+        }
+
+        Map<String, String> args = new LinkedHashMap<>();
+        for (int i = 0; i + 1 < tags.length; i += 2) {
+            args.put(tags[i], tags[i + 1]);
+        }
+
+        return new Span(current, name, args);
+    }
+
+    /**
+     * 停止记录并写入文件
+     *
+     * @param file trace.json
+     */
+    public static void save(File file) {
+        Collector current = collector;
+        collector = null;
+        if (current == null) {
+            return;
+        }
+
+        List<Object> events = new ArrayList<>();
+        current.threads.forEach((id, name) -> {
+            LinkedHashMap<String, Object> event = new LinkedHashMap<>();
+            event.put("name", "thread_name");
+            event.put("ph", "M");
+            event.put("pid", 1);
+            event.put("tid", id);
+            event.put("args", Collections.singletonMap("name", name));
+            events.add(event);
+        });
+        events.addAll(current.events);
+
+        LinkedHashMap<String, Object> trace = new LinkedHashMap<>();
+        trace.put("traceEvents", events);
+        trace.put("displayTimeUnit", "ms");
+
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (!parent.exists()) {
+            parent.mkdirs();
+        }
+        try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            new Gson().toJson(trace, writer);
+            log.info("Trace with {} spans written to {}", current.events.size(), file);
+        } catch (IOException e) {
+            log.warn("Failed to write trace {}", file, e);
+        }
+    }
+
+    private static class Collector {
+        private final long origin = System.nanoTime();
+        private final Queue<Map<String, Object>> events = new ConcurrentLinkedQueue<>();
+        private final Map<Long, String> threads = new ConcurrentHashMap<>();
+    }
+
+    @FunctionalInterface
+    public interface Block<E extends Exception> {
+        void run() throws E;
+    }
+
+    @FunctionalInterface
+    public interface Task<T, E extends Exception> {
+        T call() throws E;
+    }
+
+    public static class Span implements AutoCloseable {
+        private final Collector collector;
+        private final String name;
+        private final Map<String, String> args;
+        private final long start;
+
+        private Span(Collector collector, String name) {
+            this(collector, name, null);
+        }
+
+        private Span(Collector collector, String name, Map<String, String> args) {
+            this.collector = collector;
+            this.name = name;
+            this.args = args;
+            this.start = collector == null ? 0 : System.nanoTime();
+        }
+
+        /**
+         * 执行 block 并记录耗时，block 抛出异常时同样记录
+         */
+        public <E extends Exception> void run(Block<E> block) throws E {
+            try {
+                block.run();
+            } finally {
+                close();
+            }
+        }
+
+        /**
+         * 执行 task 并记录耗时
+         *
+         * @return task 的返回值
+         */
+        public <T, E extends Exception> T call(Task<T, E> task) throws E {
+            try {
+                return task.call();
+            } finally {
+                close();
+            }
+        }
+
+        @Override
+        public void close() {
+            if (collector == null) {
+                return;
+            }
+            long end = System.nanoTime();
+            Thread thread = Thread.currentThread();
+            collector.threads.putIfAbsent(thread.getId(), thread.getName());
+
+            LinkedHashMap<String, Object> event = new LinkedHashMap<>();
+            event.put("name", name);
+            event.put("cat", "generator");
+            event.put("ph", "X");
+            event.put("ts", (start - collector.origin) / 1000.0);
+            event.put("dur", (end - start) / 1000.0);
+            event.put("pid", 1);
+            event.put("tid", thread.getId());
+            if (!args.isEmpty()) {
+                event.put("args", args);
+            }
+            collector.events.add(event);
+        }
+    }
+}
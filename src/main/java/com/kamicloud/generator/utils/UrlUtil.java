@@ -1,7 +1,6 @@
 package com.kamicloud.generator.utils;
 
 import com.google.common.base.CaseFormat;
-import com.kamicloud.generator.config.DefaultProfileUtil;
 
 import java.util.HashMap;
 
@@ -23,27 +22,19 @@ public class UrlUtil {
         return CaseFormat.UPPER_CAMEL.to(CaseFormat.LOWER_UNDERSCORE, model);
     }
 
-    public static String getUrlPrefix() {
-        return getUrlPrefix(false);
-    }
-
-    public static String getUrlPrefix(boolean noRoot) {
-        return (noRoot ? "" : "/") + DefaultProfileUtil.getEnv().getProperty("generator.api-prefix", "api");
-    }
-
-    public static String getUrlWithPrefix(String version, String controller, String action) {
-        return String.join("/", getUrlPrefix(), getUrl(version, controller, action));
+    public static String getUrlWithPrefix(String urlPrefix, String version, String controller, String action) {
+        return String.join("/", urlPrefix, getUrl(version, controller, action));
     }
 
     private static String getUrl(String version, String controller, String action) {
         return String.join("/", transformVersion(version), transformController(controller), transformAction(action));
     }
 
-    public static HashMap<String, String> getResourceUrlWithPrefix(String version, String model, String id) {
+    public static HashMap<String, String> getResourceUrlWithPrefix(String urlPrefix, String version, String model, String id) {
         return new HashMap<String, String>() {{
             String base = String.join(
                 "/",
-                getUrlPrefix(),
+                urlPrefix,
                 transformVersion(version),
                 "restful",
                 transformModel(model)
@@ -0,0 +1,132 @@
+package com.kamicloud.generator.watch;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * 监听模板源码及stub目录，变化后回调
+ * <p>
+ * 编辑器保存时通常会连续触发多个事件，收到事件后等待一个静默期再合并回调。
+ */
+public class TemplateWatcher {
+    private static final Logger log = LoggerFactory.getLogger(TemplateWatcher.class);
+
+    /**
+     * 合并连续事件的静默期
+     */
+    private static final long QUIET_MILLIS = 100;
+
+    private final File templateDir;
+    private final File stubDir;
+    private final HashMap<WatchKey, Path> keys = new HashMap<>();
+
+    /**
+     * @param templateDir 模板源码目录
+     * @param stubDir     stub目录，不存在于文件系统时(如jar内)为null
+     */
+    public TemplateWatcher(File templateDir, File stubDir) {
+        this.templateDir = templateDir.getAbsoluteFile();
+        this.stubDir = stubDir == null ? null : stubDir.getAbsoluteFile();
+    }
+
+    /**
+     * 阻塞监听，直到线程被中断
+     *
+     * @param callback 变化的文件
+     */
+    public void watch(Consumer<Changes> callback) throws IOException {
+        try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+            register(watchService, templateDir.toPath());
+            if (stubDir != null) {
+                register(watchService, stubDir.toPath());
+            }
+            log.info("Watching {}{}", templateDir, stubDir == null ? "" : " and " + stubDir);
+
+            while (!Thread.currentThread().isInterrupted()) {
+                Changes changes = new Changes();
+                WatchKey key = watchService.take();
+
+                // 合并静默期内的所有事件
+                while (key != null) {
+                    collect(watchService, key, changes);
+                    key = watchService.poll(QUIET_MILLIS, TimeUnit.MILLISECONDS);
+                }
+
+                if (!changes.isEmpty()) {
+                    callback.accept(changes);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void collect(WatchService watchService, WatchKey key, Changes changes) throws IOException {
+        Path dir = keys.get(key);
+
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (dir == null || event.kind() == OVERFLOW) {
+                continue;
+            }
+            Path path = dir.resolve((Path) event.context());
+
+            if (event.kind() == ENTRY_CREATE && Files.isDirectory(path)) {
+                register(watchService, path);
+                continue;
+            }
+
+            if (stubDir != null && path.startsWith(stubDir.toPath())) {
+                if (path.toString().endsWith(".stub")) {
+                    changes.stubs.add(path.toFile());
+                }
+            } else if (path.toString().endsWith(".java")) {
+                changes.templates.add(path.toFile());
+            }
+        }
+
+        if (!key.reset()) {
+            keys.remove(key);
+        }
+    }
+
+    private void register(WatchService watchService, Path root) throws IOException {
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                keys.put(dir.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE), dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    public static class Changes {
+        private final LinkedHashSet<File> templates = new LinkedHashSet<>();
+        private final LinkedHashSet<File> stubs = new LinkedHashSet<>();
+
+        public LinkedHashSet<File> getTemplates() {
+            return templates;
+        }
+
+        public LinkedHashSet<File> getStubs() {
+            return stubs;
+        }
+
+        public boolean isEmpty() {
+            return templates.isEmpty() && stubs.isEmpty();
+        }
+    }
+}
@@ -1,11 +1,8 @@
 package com.kamicloud.generator.writers;
 
-import com.kamicloud.generator.config.DefaultProfileUtil;
 import com.kamicloud.generator.interfaces.PHPNamespacePathTransformerInterface;
 import com.kamicloud.generator.stubs.core.OutputStub;
 import com.kamicloud.generator.stubs.testcase.TestCaseStub;
-import com.kamicloud.generator.utils.FileUtil;
-import com.kamicloud.generator.utils.UrlUtil;
 import com.kamicloud.generator.writers.components.common.FileCombiner;
 import com.kamicloud.generator.writers.components.php.ClassCombiner;
 import com.kamicloud.generator.writers.components.php.ClassMethodCombiner;
@@ -36,12 +33,11 @@ public class AutoTestWriter extends BaseWriter implements PHPNamespacePathTransf
 
     @Override
     void update(OutputStub output) {
-        outputDir = new File(Objects.requireNonNull(env.getProperty("generator.writers.laravel-auto-test.path")));
-        root = new File(env.getProperty("generator.writers.laravel-auto-test.testcases-path", ""));
+        outputDir = new File(Objects.requireNonNull(generatorSettings.getAutoTestPath()));
+        root = new File(generatorSettings.getAutoTestTestcasesPath());
+        apiMap = new HashMap<>();
+        rawTestCases = new LinkedList<>();
         File testDir = new File(outputDir.getAbsolutePath() + "/tests/Generated");
-        if (DefaultProfileUtil.isAutoTestForceReplace()) {
-            FileUtil.deleteAllFilesOfDir(testDir);
-        }
         try {
             ClassCombiner.setNamespacePathTransformer(this);
 
@@ -59,9 +55,12 @@ public class AutoTestWriter extends BaseWriter implements PHPNamespacePathTransf
 
             getTestResponse(output);
 
-
+            // 重新生成全部文件后只删除不再生成的文件
+            if (generatorSettings.isAutoTestForceReplace()) {
+                outputManifest.prune(testDir);
+            }
         } catch (Exception e) {
-            e.printStackTrace();
+            fail(e);
         }
 
     }
@@ -72,11 +71,11 @@ public class AutoTestWriter extends BaseWriter implements PHPNamespacePathTransf
                 try {
                     getTestCases(file);
                 } catch (Exception e) {
-                    e.printStackTrace();
+                    fail(e);
                 }
             });
         } else {
-            LinkedList<TestCaseStub> test = TestCaseStub.getTestCasesFromFile(root);
+            LinkedList<TestCaseStub> test = TestCaseStub.getTestCasesFromFile(root, generatorSettings.getUrlPrefix());
             rawTestCases.addAll(test);
         }
     }
@@ -87,7 +86,7 @@ public class AutoTestWriter extends BaseWriter implements PHPNamespacePathTransf
                 try {
                     requestApi(requestStub);
                 } catch (IOException e) {
-                    e.printStackTrace();
+                    fail(e);
                 }
 
             });
@@ -96,16 +95,18 @@ public class AutoTestWriter extends BaseWriter implements PHPNamespacePathTransf
                 if (request.isResource()) {
                     FileCombiner.build(
                         outputDir.getAbsolutePath() + "/tests/Generated/" + path,
-                        stringUtil.renderTemplate("laravel/testing/resource", requests)
+                        stringUtil.renderTemplate("laravel/testing/resource", requests),
+                        generatorSettings.isAutoTestForceReplace()
                     );
                 } else {
                     FileCombiner.build(
                         outputDir.getAbsolutePath() + "/tests/Generated/" + path,
-                        stringUtil.renderTemplate("laravel/testing/transaction", requests)
+                        stringUtil.renderTemplate("laravel/testing/transaction", requests),
+                        generatorSettings.isAutoTestForceReplace()
                     );
                 }
             } catch (IOException e) {
-                e.printStackTrace();
+                fail(e);
             }
         });
         output.getTemplates().forEach((version, templateStub) -> {
@@ -117,14 +118,12 @@ public class AutoTestWriter extends BaseWriter implements PHPNamespacePathTransf
                             "Tests\\TestCase"
                         );
                     } catch (Exception e) {
-                        e.printStackTrace();
+                        fail(e);
                     }
                 }
             });
             templateStub.getControllers().forEach(controllerStub -> controllerStub.getActions().forEach((actionStub) -> {
-                String actionName = actionStub.getName();
-
-                String url = UrlUtil.getUrlWithPrefix(version, controllerStub.getName(), actionName);
+                String url = actionStub.getFullUri();
 
                 AtomicReference<Integer> i = new AtomicReference<>(0);
                 LinkedList<TestCaseStub> requests = apiMap.get(url);
@@ -135,7 +134,7 @@ public class AutoTestWriter extends BaseWriter implements PHPNamespacePathTransf
                     );
                     classCombiner.addTrait("Illuminate\\Foundation\\Testing\\DatabaseTransactions");
 
-                    if (requests != null && !classCombiner.exists()) {
+                    if (requests != null && (generatorSettings.isAutoTestForceReplace() || !classCombiner.exists())) {
                         requests.forEach(requestStub -> {
                             try {
                                 requestApi(requestStub);
@@ -184,7 +183,7 @@ public class AutoTestWriter extends BaseWriter implements PHPNamespacePathTransf
 
                                 i.getAndSet(i.get() + 1);
                             } catch (Exception e) {
-                                e.printStackTrace();
+                                fail(e);
                             }
                         });
                         classCombiner.toFile();
@@ -192,7 +191,7 @@ public class AutoTestWriter extends BaseWriter implements PHPNamespacePathTransf
 
 
                 } catch (Exception e) {
-                    e.printStackTrace();
+                    fail(e);
                 }
             }));
         });
@@ -221,7 +220,7 @@ public class AutoTestWriter extends BaseWriter implements PHPNamespacePathTransf
         }
         RequestBody requestBody = builder.build();
         RequestBody formBody = formBuilder.build();
-        String testHost = env.getProperty("test-host", "http://localhost");
+        String testHost = generatorSettings.getTestHost();
 
         Request request = new Request.Builder()
             .url(testHost + api + "?__test_mode=1")
@@ -1,8 +1,11 @@
 package com.kamicloud.generator.writers;
 
-import com.kamicloud.generator.config.GeneratorProperties;
+import com.kamicloud.generator.config.GeneratorSettings;
 import com.kamicloud.generator.stubs.core.OutputStub;
+import com.kamicloud.generator.utils.OutputManifest;
+import com.kamicloud.generator.utils.OutputSink;
 import com.kamicloud.generator.utils.StringUtil;
+import com.kamicloud.generator.utils.Tracer;
 import com.kamicloud.generator.utils.UrlUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.env.Environment;
@@ -13,7 +16,7 @@ import java.io.File;
 import java.util.*;
 
 @Component
-abstract class BaseWriter implements Observer {
+public abstract class BaseWriter {
     File dir = new File("");
     @Autowired
     protected SpringTemplateEngine springTemplateEngine;
@@ -28,28 +31,60 @@ abstract class BaseWriter implements Observer {
     protected StringUtil stringUtil;
 
     @Autowired
-    GeneratorProperties generatorProperties;
+    GeneratorSettings generatorSettings;
+
+    @Autowired
+    protected OutputManifest outputManifest;
+
+    @Autowired
+    protected OutputSink outputSink;
 
     protected HashMap<String, String> processes = new HashMap<>();
 
-    @Override
-    public void update(Observable o, Object arg) {
-        String name = getName();
-        ArrayList<String> writers;
-        GeneratorProperties.Process process = generatorProperties.getProcess();
+    /**
+     * 本次执行中捕获的异常，执行结束后由 run 抛出
+     */
+    private final List<Exception> failures = Collections.synchronizedList(new ArrayList<>());
 
-        if (env.getProperty("process", "").equals("laravel-auto-test")) {
-            writers = process.getLaravelAutoTest();
-        } else {
-            writers = process.getDefaults();
-        }
+    /**
+     * 当前流程是否需要执行该处理器
+     *
+     * @param processName --process 参数
+     * @return boolean
+     */
+    public boolean isEnabled(String processName) {
+        List<String> writers = generatorSettings.getWriters(processName);
 
-        if (writers == null || !writers.contains(name)) {
-            return;
+        return writers != null && writers.contains(getName());
+    }
+
+    /**
+     * 执行处理器，有文件生成失败时在全部执行完后抛出异常，WriterExecutor 据此保留上次生成的文件
+     */
+    void run(OutputStub output) {
+        failures.clear();
+        Tracer.span(getName() + ".update").run(() -> {
+            postConstruct();
+            update(output);
+        });
+
+        if (!failures.isEmpty()) {
+            IllegalStateException exception = new IllegalStateException(
+                failures.size() + " failure(s) in writer " + getName(),
+                failures.get(0)
+            );
+            failures.stream().skip(1).forEach(exception::addSuppressed);
+            failures.clear();
+            throw exception;
         }
+    }
 
-        postConstruct();
-        update((OutputStub) o);
+    /**
+     * 记录生成失败，继续生成其他文件
+     */
+    protected void fail(Exception e) {
+        e.printStackTrace();
+        failures.add(e);
     }
 
     abstract String getName();
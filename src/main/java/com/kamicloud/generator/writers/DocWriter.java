@@ -1,8 +1,6 @@
 package com.kamicloud.generator.writers;
 
-import com.google.common.base.CaseFormat;
-import com.kamicloud.generator.utils.CommentUtil;
-import com.kamicloud.generator.utils.UrlUtil;
+import com.kamicloud.generator.utils.Tracer;
 import com.kamicloud.generator.writers.components.common.FileCombiner;
 import com.kamicloud.generator.writers.components.common.MultiLinesCombiner;
 import definitions.annotations.*;
@@ -10,7 +8,6 @@ import com.kamicloud.generator.stubs.core.EnumStub;
 import com.kamicloud.generator.stubs.core.OutputStub;
 import com.kamicloud.generator.stubs.core.TemplateStub;
 import com.kamicloud.generator.stubs.core.ParameterStub;
-import com.kamicloud.generator.utils.FileUtil;
 import definitions.annotations.Optional;
 
 import java.io.*;
@@ -38,18 +35,20 @@ public class DocWriter extends BaseWriter {
         )) + "/resources/docs");
         docPrefix = env.getProperty("generator.writers.laravel-doc.http-prefix", "docs");
         output.getTemplates().forEach((version, templateStub) -> {
-            outputDir = new File(docPath.getAbsolutePath() + "/" + version);
-            File generatedDir = new File(outputDir.getAbsolutePath() + "/generated");
-            if (generatedDir.exists()) {
-                FileUtil.deleteAllFilesOfDir(generatedDir);
-            }
-//            (new File(outputDir.getAbsolutePath() + "/generated/apis")).mkdirs();
-
-            writeIndex(templateStub);
-            writeOverview(version, templateStub);
-            writeModels(templateStub);
-            writeAPIs(version, templateStub);
-            writeEnums(templateStub);
+            Tracer.span("laravel-doc.version", "version", version).run(() -> {
+                outputDir = new File(docPath.getAbsolutePath() + "/" + version);
+                File generatedDir = new File(outputDir.getAbsolutePath() + "/generated");
+    //            (new File(outputDir.getAbsolutePath() + "/generated/apis")).mkdirs();
+
+                writeIndex(templateStub);
+                writeOverview(version, templateStub);
+                writeModels(templateStub);
+                writeAPIs(version, templateStub);
+                writeEnums(templateStub);
+
+                // 只删除不再生成的文件
+                outputManifest.prune(generatedDir);
+            });
         });
         writeErrors(output);
     }
@@ -75,10 +74,9 @@ public class DocWriter extends BaseWriter {
             ));
 
             o.getControllers().forEach(controller -> {
-                String comment = controller.getComment();
                 index.addLine(
                     "  - [" + controller.getName() +
-                    CommentUtil.getTitle(comment) +
+                    controller.getCommentTitle() +
                     "](/" + docPrefix +
                     "/{{version}}/generated/apis/" +
                     controller.getName() +
@@ -88,7 +86,7 @@ public class DocWriter extends BaseWriter {
 
             index.toFile();
         } catch (IOException e) {
-            e.printStackTrace();
+            fail(e);
         }
 
     }
@@ -101,7 +99,7 @@ public class DocWriter extends BaseWriter {
                 false
             );
         } catch (IOException e) {
-            e.printStackTrace();
+            fail(e);
         }
     }
 
@@ -113,7 +111,7 @@ public class DocWriter extends BaseWriter {
                 FileCombiner file = new FileCombiner();
                 file.setFileName(outputDir.getAbsolutePath() + "/generated/apis/" + controller.getName() + ".md");
 
-                String controllerTitle = "# " + controller.getName() + CommentUtil.getTitle(controller.getComment());
+                String controllerTitle = "# " + controller.getName() + controller.getCommentTitle();
 
                 file.addLine(controllerTitle);
                 apiOverview.addLine("##" + controllerTitle);
@@ -136,8 +134,7 @@ public class DocWriter extends BaseWriter {
                 controller.getActions().forEach((action) -> {
                     String actionName = action.getName();
 
-                    String comment = action.getComment();
-                    comment = comment != null ? CommentUtil.getTitle(comment) : "";
+                    String comment = action.getCommentTitle();
                     if (action.hasAnnotation(Named.class)) {
                         actionName = action.getAnnotation(Named.class).getValue() + "@" + actionName;
                     }
@@ -151,11 +148,9 @@ public class DocWriter extends BaseWriter {
 
                 file.addLine("");
                 controller.getActions().forEach((action) -> {
-                    String actionName = action.getName();
-
                     file.addBlock(new MultiLinesCombiner(
                         "<a name=\"" + action.getName() + "\"></a>",
-                        "## " + action.getName() + CommentUtil.getTitle(action.getComment())
+                        "## " + action.getName() + action.getCommentTitle()
                     ));
                     file.addLine("");
                     if (action.hasAnnotation(Methods.class)) {
@@ -164,7 +159,7 @@ public class DocWriter extends BaseWriter {
                         file.addLine("`POST`");
                     }
                     file.addLine("");
-                    file.addLine("`" + UrlUtil.getUrlWithPrefix(version, controller.getName(), actionName) + "`");
+                    file.addLine("`" + action.getFullUri() + "`");
                     file.addLine("");
                     if (action.hasCommentBody()) {
                         file.addLine("\n> {primary} " + transformLfToBr(action.getComment()) + "\n");
@@ -175,14 +170,14 @@ public class DocWriter extends BaseWriter {
                 file.toFile();
 
             } catch (IOException e) {
-                e.printStackTrace();
+                fail(e);
             }
         });
 
         try {
             apiOverview.toFile();
         } catch (IOException e) {
-            e.printStackTrace();
+            fail(e);
         }
     }
 
@@ -199,7 +194,7 @@ public class DocWriter extends BaseWriter {
                 // 输出模型每一个请求参数
                 blocks.addLine(
                     "|" + error.getCode() +
-                    "|" + CaseFormat.UPPER_CAMEL.to(CaseFormat.UPPER_UNDERSCORE, error.getName()) +
+                    "|" + error.getUpperUnderScoreName() +
                     "|" + comment + " |"
                 );
             });
@@ -219,7 +214,7 @@ public class DocWriter extends BaseWriter {
 
             overview.toFile();
         } catch (IOException e) {
-            e.printStackTrace();
+            fail(e);
         }
     }
 
@@ -231,8 +226,7 @@ public class DocWriter extends BaseWriter {
             output.getModels().forEach((model) -> {
                 String modelName = model.getName();
 
-                String comment = model.getComment();
-                comment = comment != null ? CommentUtil.getTitle(comment) : "";
+                String comment = model.getCommentTitle();
 
                 file.addLine("  - [" + (model.isResource() ? "`REST`" : "") + modelName + comment + "](#" + modelName + ")");
             });
@@ -242,7 +236,7 @@ public class DocWriter extends BaseWriter {
             output.getModels().forEach((model) -> {
                 file.addBlock(new MultiLinesCombiner(
                     "<a name=\"" + model.getName() + "\"></a>",
-                    "## " + (model.isResource() ? "`REST`" : "") + model.getName() + CommentUtil.getTitle(model.getComment())
+                    "## " + (model.isResource() ? "`REST`" : "") + model.getName() + model.getCommentTitle()
                 ));
 
                 if (model.isResource()) {
@@ -260,7 +254,7 @@ public class DocWriter extends BaseWriter {
             file.toFile();
 
         } catch (IOException e) {
-            e.printStackTrace();
+            fail(e);
         }
 
     }
@@ -273,8 +267,7 @@ public class DocWriter extends BaseWriter {
             output.getEnums().forEach((enumStub) -> {
                 String enumName = enumStub.getName();
 
-                String comment = enumStub.getComment();
-                comment = comment != null ? CommentUtil.getTitle(comment) : "";
+                String comment = enumStub.getCommentTitle();
 
                 file.addLine("  - [" + enumName + comment + "](#" + enumName + ")");
             });
@@ -286,7 +279,7 @@ public class DocWriter extends BaseWriter {
             }).forEach(enumStub -> {
                 file.addBlock(new MultiLinesCombiner(
                     "<a name=\"" + enumStub.getName() + "\"></a>",
-                    "## " + enumStub.getName() + CommentUtil.getTitle(enumStub.getComment())
+                    "## " + enumStub.getName() + enumStub.getCommentTitle()
                 ));
 
                 if (enumStub.hasCommentBody()) {
@@ -314,7 +307,7 @@ public class DocWriter extends BaseWriter {
 
             file.toFile();
         } catch (IOException e) {
-            e.printStackTrace();
+            fail(e);
         }
     }
 
@@ -324,7 +317,7 @@ public class DocWriter extends BaseWriter {
      * @param file 输出流
      * @param parameters 参数
      */
-    private void writeParameters(String title, FileCombiner file, LinkedList<ParameterStub> parameters) {
+    private void writeParameters(String title, FileCombiner file, List<ParameterStub> parameters) {
         if (parameters.isEmpty()) {
             return;
         }
@@ -44,7 +44,7 @@ public class JavaClientWriter extends BaseWriter {
 //                writeRoute(templateStub);
 //                writeErrors(templateStub);
             } catch (Exception e) {
-                e.printStackTrace();
+                fail(e);
             }
 
         });
@@ -65,7 +65,7 @@ public class JavaClientWriter extends BaseWriter {
 
                 classCombiner.toFile();
             } catch (Exception e) {
-                e.printStackTrace();
+                fail(e);
             }
         });
     }
@@ -3,7 +3,7 @@ package com.kamicloud.generator.writers;
 import com.google.common.base.CaseFormat;
 import com.kamicloud.generator.interfaces.PHPNamespacePathTransformerInterface;
 import com.kamicloud.generator.stubs.core.*;
-import com.kamicloud.generator.utils.FileUtil;
+import com.kamicloud.generator.utils.Tracer;
 import com.kamicloud.generator.writers.components.common.FileCombiner;
 import com.kamicloud.generator.writers.components.php.*;
 import definitions.annotations.*;
@@ -94,21 +94,22 @@ public class LaravelWriter extends BaseWriter implements PHPNamespacePathTransfo
         }
         generatedDir = new File(outputDir.getAbsolutePath() + "/app/Generated");
         routePath = new File(outputDir.getAbsolutePath() + "/routes/generated_routes.php");
-        FileUtil.deleteAllFilesOfDir(generatedDir);
     }
 
     @Override
     public void update(OutputStub output) {
         output.getTemplates().forEach((version, templateStub) -> {
             try {
-                ClassCombiner.setNamespacePathTransformer(this);
-                writeHttp(version, templateStub);
-                writeModels(version, templateStub);
-                writeEnums(version, templateStub.getEnums().stream().filter(enumStub -> {
-                    return !enumStub.hasAnnotation(Versionless.class);
-                }).collect(Collectors.toList()));
+                Tracer.span("laravel.version", "version", version).run(() -> {
+                    ClassCombiner.setNamespacePathTransformer(this);
+                    writeHttp(version, templateStub);
+                    writeModels(version, templateStub, output);
+                    writeEnums(version, templateStub.getEnums().stream().filter(enumStub -> {
+                        return !enumStub.hasAnnotation(Versionless.class);
+                    }).collect(Collectors.toList()), output, true);
+                });
             } catch (Exception e) {
-                e.printStackTrace();
+                fail(e);
             }
 
         });
@@ -124,35 +125,59 @@ public class LaravelWriter extends BaseWriter implements PHPNamespacePathTransfo
 
             writeEnums(boFolder, output.getCurrentTemplate().getEnums().stream().filter(enumStub -> {
                 return enumStub.hasAnnotation(AsBO.class) || enumStub.hasAnnotation(Versionless.class);
-            }).collect(Collectors.toList()));
+            }).collect(Collectors.toList()), output, output.isUnchanged(output.getCurrentTemplate()));
         } catch (Exception e) {
-            e.printStackTrace();
+            fail(e);
         }
+
+        // 只删除不再生成的文件
+        outputManifest.prune(generatedDir);
     }
 
-    private void writeModels(String version, TemplateStub templateStub) {
+    /**
+     * @param output 用于跳过上次生成后没有变化的模型
+     */
+    private void writeModels(String version, TemplateStub templateStub, OutputStub output) {
         templateStub.getModels().forEach((modelStub) -> {
-            String modelName = modelStub.getName();
+            boolean unchanged = output.isUnchanged(modelStub);
             if (modelStub.hasAnnotation(AsBO.class) &&
                 templateStub.isCurrent()
             ) {
-                writeModel(boFolder, modelStub);
+                // 当前版本切换后 BO 来自另一个模板
+                writeModel(boFolder, modelStub, unchanged && output.isUnchanged(templateStub));
             }
-            writeModel(version, modelStub);
+            writeModel(version, modelStub, unchanged);
         });
     }
 
-    private void writeModel(String version, ModelStub modelStub) {
+    /**
+     * @param unchanged 模型没有变化，上次生成的文件仍存在时不再生成
+     */
+    private void writeModel(String version, ModelStub modelStub, boolean unchanged) {
         try {
             String modelName = modelStub.getName();
-            ClassCombiner modelClassCombiner = new ClassCombiner(
-                "App\\Generated\\" + version + "\\" + modelStub.getDtoFolder() + "\\" + modelName + modelStub.getDtoSuffix(),
-                baseDTONamespace
-            );
+            String modelNamespace = "App\\Generated\\" + version + "\\" + generatorSettings.getDtoFolder() + "\\" + modelName + generatorSettings.getDtoSuffix();
+            ClassCombiner modelClassCombiner = new ClassCombiner(modelNamespace, baseDTONamespace);
+
+            // RESTFul 文件由 stub 模板渲染，总是重新生成
+            if (unchanged && !modelStub.isResource() && modelClassCombiner.keep()) {
+                return;
+            }
+
+            String sharedClass = getSharedClass(version, modelStub.getSharedVersion(), generatorSettings.getDtoFolder() + "\\" + modelName + generatorSettings.getDtoSuffix());
+            if (sharedClass != null) {
+                modelClassCombiner = new ClassCombiner(modelNamespace);
+                modelClassCombiner.setExtend(sharedClass);
+                modelClassCombiner.toFile();
+                if (modelStub.isResource()) {
+                    writeRESTFul(version, modelStub);
+                }
+                return;
+            }
 
             modelClassCombiner.addTrait(valueHelperNamespace);
 
-            LinkedList<ParameterStub> parameters = modelStub.getParameters();
+            List<ParameterStub> parameters = modelStub.getParameters();
 
             writeParameterAttributes(parameters, modelClassCombiner);
             writeParameterGetters(parameters, modelClassCombiner);
@@ -167,7 +192,7 @@ public class LaravelWriter extends BaseWriter implements PHPNamespacePathTransfo
             }
 
         } catch (Exception e) {
-            e.printStackTrace();
+            fail(e);
         }
     }
 
@@ -210,7 +235,7 @@ public class LaravelWriter extends BaseWriter implements PHPNamespacePathTransfo
                 stringUtil.renderTemplate("laravel/restful/service", modelStub)
             );
         } catch (IOException e) {
-            e.printStackTrace();
+            fail(e);
         }
     }
 
@@ -224,98 +249,122 @@ public class LaravelWriter extends BaseWriter implements PHPNamespacePathTransfo
     private void writeHttp(String version, TemplateStub o) {
         o.getControllers().forEach(controllerStub -> {
             try {
-                String serviceClassName = "App\\Http\\" + serviceFolder + "\\" + version + "\\" + controllerStub.getName() + serviceSuffix;
-                ClassCombiner controllerClassCombiner = new ClassCombiner(
-                    "App\\Generated\\Controllers\\" + version + "\\" + controllerStub.getName() + "Controller",
-                    "App\\Http\\Controllers\\Controller"
-                );
-
-                new ClassAttributeCombiner(controllerClassCombiner, "handler", "public");
-
-                ClassMethodCombiner constructor = ClassMethodCombiner.build(
-                    controllerClassCombiner,
-                    "__construct",
-                    "public"
-                ).setBody(
-                    "$this->handler = $handler;"
-                );
-
-                new ClassMethodParameterCombiner(constructor, "handler", serviceClassName);
-
-                controllerStub.getActions().forEach((action) -> {
-                    String actionName = action.getName();
-
-                    try {
-                        String messageClassName = "App\\Generated\\" + version + "\\Messages\\" + controllerStub.getName() + "\\" + actionName + "Message";
-
-                        ClassCombiner messageClassCombiner = new ClassCombiner(
-                            messageClassName,
-                            baseMessageNamespace
-                        );
-
-                        String lowerCamelActionName = CaseFormat.UPPER_CAMEL.to(CaseFormat.LOWER_CAMEL, action.getName());
-
-                        controllerClassCombiner.addUse(serviceClassName);
-                        controllerClassCombiner.addUse("DB");
-
-                        ClassMethodCombiner actionClassMethodCombiner = new ClassMethodCombiner(controllerClassCombiner, lowerCamelActionName);
-                        new ClassMethodParameterCombiner(actionClassMethodCombiner, "message", messageClassName);
-
-                        String getResponseMethod = "getResponse";
-                        if (action.hasAnnotation(FileResponse.class)) {
-                            getResponseMethod = "getFileResponse";
-                        }
-
-                        actionClassMethodCombiner.setBody(
-                            "$message->validateInput();",
-                            "$message->forceRequestScalarTypes();",
-                            "$this->handler->" + lowerCamelActionName + "($message);",
-                            "$message->validateOutput();",
-                            "$message->forceResponseScalarTypes();",
-                            "return $message->" + getResponseMethod + "();"
-                        );
-                        if (action.hasAnnotation(Transactional.class)) {
-                            actionClassMethodCombiner.wrapBody(
-                                "return DB::transaction(function () use ($message) {",
-                                "});"
-                            );
+                Tracer.span("laravel.controller", "version", version, "controller", controllerStub.getName()).run(() -> {
+                    String serviceClassName = "App\\Http\\" + serviceFolder + "\\" + version + "\\" + controllerStub.getName() + serviceSuffix;
+                    ClassCombiner controllerClassCombiner = new ClassCombiner(
+                        "App\\Generated\\Controllers\\" + version + "\\" + controllerStub.getName() + "Controller",
+                        "App\\Http\\Controllers\\Controller"
+                    );
+
+                    new ClassAttributeCombiner(controllerClassCombiner, "handler", "public");
+
+                    ClassMethodCombiner constructor = ClassMethodCombiner.build(
+                        controllerClassCombiner,
+                        "__construct",
+                        "public"
+                    ).setBody(
+                        "$this->handler = $handler;"
+                    );
+
+                    new ClassMethodParameterCombiner(constructor, "handler", serviceClassName);
+
+                    controllerStub.getActions().forEach((action) -> {
+                        String actionName = action.getName();
+
+                        try {
+                            Tracer.span(
+                                "laravel.action",
+                                "version", version,
+                                "controller", controllerStub.getName(),
+                                "action", actionName
+                            ).run(() -> {
+                                String messageClassName = "App\\Generated\\" + version + "\\Messages\\" + controllerStub.getName() + "\\" + actionName + "Message";
+
+                                ClassCombiner messageClassCombiner = new ClassCombiner(
+                                    messageClassName,
+                                    baseMessageNamespace
+                                );
+
+                                String lowerCamelActionName = action.getLowerCamelName();
+
+                                controllerClassCombiner.addUse(serviceClassName);
+                                controllerClassCombiner.addUse("DB");
+
+                                ClassMethodCombiner actionClassMethodCombiner = new ClassMethodCombiner(controllerClassCombiner, lowerCamelActionName);
+                                new ClassMethodParameterCombiner(actionClassMethodCombiner, "message", messageClassName);
+
+                                String getResponseMethod = "getResponse";
+                                if (action.hasAnnotation(FileResponse.class)) {
+                                    getResponseMethod = "getFileResponse";
+                                }
+
+                                actionClassMethodCombiner.setBody(
+                                    "$message->validateInput();",
+                                    "$message->forceRequestScalarTypes();",
+                                    "$this->handler->" + lowerCamelActionName + "($message);",
+                                    "$message->validateOutput();",
+                                    "$message->forceResponseScalarTypes();",
+                                    "return $message->" + getResponseMethod + "();"
+                                );
+                                if (action.hasAnnotation(Transactional.class)) {
+                                    actionClassMethodCombiner.wrapBody(
+                                        "return DB::transaction(function () use ($message) {",
+                                        "});"
+                                    );
+                                }
+
+                                messageClassCombiner.addTrait(valueHelperNamespace);
+                                // message
+                                writeParameterGetters(action.getRequests(), messageClassCombiner);
+                                writeParameterAttributes(action.getRequests(), messageClassCombiner);
+                                writeParameterAttributes(action.getResponses(), messageClassCombiner);
+                                writeGetAttributeMapMethod(version, "requestRules", action.getRequests(), messageClassCombiner);
+                                writeGetAttributeMapMethod(version, "responseRules", action.getResponses(), messageClassCombiner);
+                                if (action.hasAnnotation(FileResponse.class)) {
+                                    ClassMethodCombiner setResponseMethod = new ClassMethodCombiner(messageClassCombiner, "setFileResponse");
+                                    new ClassMethodParameterCombiner(setResponseMethod, "fileResponse");
+                                    setResponseMethod.addBody("$this->fileResponse = $fileResponse;");
+                                } else {
+                                    ClassMethodCombiner setResponseMethod = new ClassMethodCombiner(messageClassCombiner, "setResponse");
+                                    writeMethodParameters(action.getResponses(), setResponseMethod);
+                                }
+
+                                messageClassCombiner.toFile();
+                            });
+                        } catch (Exception e) {
+                            fail(e);
                         }
-
-                        messageClassCombiner.addTrait(valueHelperNamespace);
-                        // message
-                        writeParameterGetters(action.getRequests(), messageClassCombiner);
-                        writeParameterAttributes(action.getRequests(), messageClassCombiner);
-                        writeParameterAttributes(action.getResponses(), messageClassCombiner);
-                        writeGetAttributeMapMethod(version, "requestRules", action.getRequests(), messageClassCombiner);
-                        writeGetAttributeMapMethod(version, "responseRules", action.getResponses(), messageClassCombiner);
-                        if (action.hasAnnotation(FileResponse.class)) {
-                            ClassMethodCombiner setResponseMethod = new ClassMethodCombiner(messageClassCombiner, "setFileResponse");
-                            new ClassMethodParameterCombiner(setResponseMethod, "fileResponse");
-                            setResponseMethod.addBody("$this->fileResponse = $fileResponse;");
-                        } else {
-                            ClassMethodCombiner setResponseMethod = new ClassMethodCombiner(messageClassCombiner, "setResponse");
-                            writeMethodParameters(action.getResponses(), setResponseMethod);
-                        }
-
-                        messageClassCombiner.toFile();
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                    }
+                    });
+                    controllerClassCombiner.toFile();
                 });
-                controllerClassCombiner.toFile();
             } catch (Exception e) {
-                e.printStackTrace();
+                fail(e);
             }
         });
     }
 
-    private void writeEnums(String version, List<EnumStub> enumStubs) {
+    /**
+     * @param output          用于跳过上次生成后没有变化的枚举
+     * @param sourceUnchanged 枚举所在的模板与上次生成时相同
+     */
+    private void writeEnums(String version, List<EnumStub> enumStubs, OutputStub output, boolean sourceUnchanged) {
         enumStubs.forEach(enumStub -> {
             try {
                 ClassCombiner enumClassCombiner = new ClassCombiner(
                     "App\\Generated\\" + version + "\\Enums\\" + enumStub.getName(),
                     baseEnumNamespace
                 );
+                if (sourceUnchanged && output.isUnchanged(enumStub) && enumClassCombiner.keep()) {
+                    return;
+                }
+
+                String sharedClass = getSharedClass(version, enumStub.getSharedVersion(), "Enums\\" + enumStub.getName());
+                if (sharedClass != null) {
+                    ClassCombiner sharedClassCombiner = new ClassCombiner("App\\Generated\\" + version + "\\Enums\\" + enumStub.getName());
+                    sharedClassCombiner.setExtend(sharedClass);
+                    sharedClassCombiner.toFile();
+                    return;
+                }
 
                 ClassConstantCombiner mapConstant = new ClassConstantCombiner(
                     "_MAP",
@@ -342,18 +391,33 @@ public class LaravelWriter extends BaseWriter implements PHPNamespacePathTransfo
 
                 enumClassCombiner.toFile();
             } catch (Exception e) {
-                e.printStackTrace();
+                fail(e);
             }
         });
     }
 
+    /**
+     * 开启 generator.writers.laravel.share-versions 时，与之前版本相同的模型及枚举只继承之前版本的类
+     *
+     * @param sharedVersion ModelStub / EnumStub.getSharedVersion()
+     * @param className     App\\Generated\\{version}\\ 之后的类名
+     * @return 不共享时为null
+     */
+    private String getSharedClass(String version, String sharedVersion, String className) {
+        if (!generatorSettings.isLaravelShareVersions() || sharedVersion == null || version.equals(boFolder)) {
+            return null;
+        }
+
+        return "\\App\\Generated\\" + sharedVersion + "\\" + className;
+    }
+
     private void writeErrors(OutputStub o) throws Exception {
         ClassCombiner errorCodeClassCombiner = new ClassCombiner("App\\Generated\\Exceptions\\ErrorCode");
         o.getErrors().forEach(error -> {
             try {
                 // error code
                 ClassConstantCombiner constant = new ClassConstantCombiner(
-                    CaseFormat.UPPER_CAMEL.to(CaseFormat.UPPER_UNDERSCORE, error.getName()),
+                    error.getUpperUnderScoreName(),
                     null
                 );
                 constant.addLine(error.getCode());
@@ -368,13 +432,13 @@ public class LaravelWriter extends BaseWriter implements PHPNamespacePathTransfo
                 new ClassMethodParameterCombiner(constructMethodCombiner, "message", null, "null");
                 constructMethodCombiner.addBody(
                     "parent::__construct($message, ErrorCode::" +
-                        CaseFormat.UPPER_CAMEL.to(CaseFormat.UPPER_UNDERSCORE, error.getName()) +
+                        error.getUpperUnderScoreName() +
                         ");"
                 );
 
                 exceptionClassCombiner.toFile();
             } catch (Exception e) {
-                e.printStackTrace();
+                fail(e);
             }
         });
         errorCodeClassCombiner.toFile();
@@ -422,11 +486,11 @@ public class LaravelWriter extends BaseWriter implements PHPNamespacePathTransfo
         return null;
     }
 
-    private void writeParameterAttributes(LinkedList<ParameterStub> parameters, ClassCombiner classCombiner) {
+    private void writeParameterAttributes(List<ParameterStub> parameters, ClassCombiner classCombiner) {
         parameters.forEach((parameterStub) -> new ClassAttributeCombiner(classCombiner, parameterStub.getName(), "protected"));
     }
 
-    private void writeParameterGetters(LinkedList<ParameterStub> parameters, ClassCombiner classCombiner) {
+    private void writeParameterGetters(List<ParameterStub> parameters, ClassCombiner classCombiner) {
         parameters.forEach((parameterStub) -> {
             writeParameterGetter(
                 parameterStub,
@@ -459,7 +523,7 @@ public class LaravelWriter extends BaseWriter implements PHPNamespacePathTransfo
         String returnType;
 
         if (type.getSpec() == TypeSpec.MODEL) {
-            returnType = parameterStub.getTypeSimpleName() + parameterStub.getDtoSuffix();
+            returnType = parameterStub.getTypeSimpleName() + generatorSettings.getDtoSuffix();
         } else if (type.getSpec() == TypeSpec.ENUM || type.getSpec() == TypeSpec.DATE) {
             returnType = "mixed";
         } else {
@@ -477,7 +541,7 @@ public class LaravelWriter extends BaseWriter implements PHPNamespacePathTransfo
         classMethodCombiner.addComment("@return " + returnType);
     }
 
-    private void writeParameterSetters(LinkedList<ParameterStub> parameters, ClassCombiner classCombiner) {
+    private void writeParameterSetters(List<ParameterStub> parameters, ClassCombiner classCombiner) {
         parameters.forEach((parameterStub) -> writeParameterSetter(parameterStub, classCombiner));
     }
 
@@ -488,7 +552,7 @@ public class LaravelWriter extends BaseWriter implements PHPNamespacePathTransfo
         new ClassMethodParameterCombiner(classMethodCombiner, parameterStub.getName());
     }
 
-    private void writeMethodParameters(LinkedList<ParameterStub> parameters, ClassMethodCombiner classMethodCombiner) {
+    private void writeMethodParameters(List<ParameterStub> parameters, ClassMethodCombiner classMethodCombiner) {
         parameters.forEach((parameterStub) -> writeMethodParameter(parameterStub, classMethodCombiner));
     }
 
@@ -502,7 +566,7 @@ public class LaravelWriter extends BaseWriter implements PHPNamespacePathTransfo
      * @param parameters    参数
      * @param classCombiner 目标类
      */
-    private void writeGetAttributeMapMethod(String version, String methodName, LinkedList<ParameterStub> parameters, ClassCombiner classCombiner) {
+    private void writeGetAttributeMapMethod(String version, String methodName, List<ParameterStub> parameters, ClassCombiner classCombiner) {
         classCombiner.addUse("Kamicloud\\StubApi\\Utils\\Constants");
         ClassMethodCombiner classMethodCombiner = new ClassMethodCombiner(classCombiner, methodName);
 
@@ -533,8 +597,8 @@ public class LaravelWriter extends BaseWriter implements PHPNamespacePathTransfo
                 types.add("Constants::ARRAY");
             }
             if (isModel) {
-                classCombiner.addUse("App\\Generated\\" + version + "\\" + parameterStub.getDtoFolder() + "\\" + typeName + parameterStub.getDtoSuffix());
-                rule = typeName + parameterStub.getDtoSuffix() + "::class";
+                classCombiner.addUse("App\\Generated\\" + version + "\\" + generatorSettings.getDtoFolder() + "\\" + typeName + generatorSettings.getDtoSuffix());
+                rule = typeName + generatorSettings.getDtoSuffix() + "::class";
             } else if (isEnum) {
                 classCombiner.addUse("App\\Generated\\" + version + "\\Enums\\" + typeName);
                 rule = typeName + "::class";
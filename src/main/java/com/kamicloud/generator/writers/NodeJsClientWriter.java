@@ -49,7 +49,7 @@ public class NodeJsClientWriter extends BaseWriter {
         try {
             file.toFile();
         } catch (IOException e) {
-            e.printStackTrace();
+            fail(e);
         }
 
     }
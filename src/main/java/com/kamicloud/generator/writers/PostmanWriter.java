@@ -9,9 +9,7 @@ import com.kamicloud.generator.stubs.core.TemplateStub;
 import com.kamicloud.generator.stubs.postman.*;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
 import java.nio.charset.StandardCharsets;
 import java.util.Objects;
 
@@ -43,15 +41,10 @@ public class PostmanWriter extends BaseWriter {
 
             String jsonString = gson.toJson(postmanStub);
 
-            FileOutputStream fileOutputStream = new FileOutputStream(outputPath.getAbsolutePath());
-            OutputStreamWriter outputStreamWriter = new OutputStreamWriter(fileOutputStream, StandardCharsets.UTF_8);
-            outputStreamWriter.write(jsonString);
-
-            outputStreamWriter.close();
-            fileOutputStream.close();
+            outputManifest.write(outputPath, jsonString.getBytes(StandardCharsets.UTF_8));
 
         } catch (IOException e) {
-            e.printStackTrace();
+            fail(e);
         }
     }
 
@@ -70,10 +63,14 @@ public class PostmanWriter extends BaseWriter {
 
     private void templateOutput(PostmanItemStub postmanStub, String version, TemplateStub templateStub) {
         PostmanItemStub restfulItemStub = new PostmanItemStub("RESTFul");
+        String apiPrefix = generatorSettings.getApiPrefix();
+        String versionPath = UrlUtil.transformVersion(version);
 
         templateStub.getModels().forEach(modelStub -> {
             if (modelStub.isResource()) {
                 PostmanItemStub restfulOne = new PostmanItemStub(modelStub.getName() + " " + (modelStub.getComment() == null ? "" : modelStub.getComment()));
+                String[] resourcePath = new String[]{apiPrefix, versionPath, "restful", UrlUtil.transformModel(modelStub.getName())};
+                String[] resourceItemPath = new String[]{apiPrefix, versionPath, "restful", UrlUtil.transformModel(modelStub.getName()), "1"};
 
                 restfulItemStub.addItem(restfulOne);
 
@@ -104,55 +101,27 @@ public class PostmanWriter extends BaseWriter {
                 indexRequest.setMethod("GET");
                 indexRequest.setUrl(new PostmanItemRequestUrlStub(new String[]{
                     "{{host}}"
-                }, new String[]{
-                    UrlUtil.getUrlPrefix(true),
-                    UrlUtil.transformVersion(version),
-                    "restful",
-                    UrlUtil.transformAction(modelStub.getName())
-                }));
+                }, resourcePath));
 
                 storeRequest.setMethod("PUT");
                 storeRequest.setUrl(new PostmanItemRequestUrlStub(new String[]{
                     "{{host}}"
-                }, new String[]{
-                    UrlUtil.getUrlPrefix(true),
-                    UrlUtil.transformVersion(version),
-                    "restful",
-                    UrlUtil.transformAction(modelStub.getName())
-                }));
+                }, resourcePath));
 
                 showRequest.setMethod("GET");
                 showRequest.setUrl(new PostmanItemRequestUrlStub(new String[]{
                     "{{host}}"
-                }, new String[]{
-                    UrlUtil.getUrlPrefix(true),
-                    UrlUtil.transformVersion(version),
-                    "restful",
-                    UrlUtil.transformAction(modelStub.getName()),
-                    "1"
-                }));
+                }, resourceItemPath));
 
                 updateRequest.setMethod("PATCH");
                 updateRequest.setUrl(new PostmanItemRequestUrlStub(new String[]{
                     "{{host}}"
-                }, new String[]{
-                    UrlUtil.getUrlPrefix(true),
-                    UrlUtil.transformVersion(version),
-                    "restful",
-                    UrlUtil.transformAction(modelStub.getName()),
-                    "1"
-                }));
+                }, resourceItemPath));
 
                 destroyRequest.setMethod("DELETE");
                 destroyRequest.setUrl(new PostmanItemRequestUrlStub(new String[]{
                     "{{host}}"
-                }, new String[]{
-                    UrlUtil.getUrlPrefix(true),
-                    UrlUtil.transformVersion(version),
-                    "restful",
-                    UrlUtil.transformAction(modelStub.getName()),
-                    "1"
-                }));
+                }, resourceItemPath));
 
 
             }
@@ -184,10 +153,11 @@ public class PostmanWriter extends BaseWriter {
                 postmanItemRequestStub.setUrl(postmanItemRequestUrlStub);
 
                 postmanItemRequestUrlStub.addHost("{{host}}");
-                postmanItemRequestUrlStub.addPath(UrlUtil.getUrlPrefix(true));
-                postmanItemRequestUrlStub.addPath(UrlUtil.transformVersion(version));
-                postmanItemRequestUrlStub.addPath(UrlUtil.transformController(controller.getName()));
-                postmanItemRequestUrlStub.addPath(UrlUtil.transformAction(action.getName()));
+                // postParse 中计算的 /版本/控制器/接口
+                postmanItemRequestUrlStub.addPath(apiPrefix);
+                for (String path : action.getUri().substring(1).split("/")) {
+                    postmanItemRequestUrlStub.addPath(path);
+                }
 
                 postmanItemRequestBodyStub.addParameter(new PostmanParameterStub("__test_mode", "1"));
                 postmanItemRequestBodyStub.addParameter(new PostmanParameterStub("__user", ""));
@@ -1,9 +1,9 @@
 package com.kamicloud.generator.writers;
 
 import com.kamicloud.generator.stubs.core.OutputStub;
-import com.kamicloud.generator.utils.UrlUtil;
 
-import java.io.*;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
 
 public class TestCaseWriter extends BaseWriter {
 
@@ -32,44 +32,33 @@ public class TestCaseWriter extends BaseWriter {
                     try {
                         String actionName = actionStub.getName();
                         String path = "/" + version + "/" + controllerStub.getName() + "/" + actionName;
-                        String url = UrlUtil.getUrlWithPrefix(version, controllerStub.getName(), actionName);
+                        String url = actionStub.getFullUri();
                         File file = new File(outputDir.getAbsolutePath() + path + ".yml");
-                        file.getParentFile().mkdirs();
                         if (file.exists()) {
                             return;
                         }
 
-                        file.createNewFile();
-
-                        FileOutputStream fileOutputStream = new FileOutputStream(file);
-                        OutputStreamWriter outputStreamWriter = new OutputStreamWriter(fileOutputStream);
-
-                        outputStreamWriter.write("# __api: /api" + url + "\n");
-                        outputStreamWriter.write("__enabled: false\n");
-//                        outputStreamWriter.write("# __version:\n");
-//                        outputStreamWriter.write("__controller: " + controllerStub.getName() + "\n");
-//                        outputStreamWriter.write("__action: " + actionName + "\n");
-                        outputStreamWriter.write("__role:\n");
-                        outputStreamWriter.write("__user:\n");
-                        outputStreamWriter.write("__anchor:\n");
-                        outputStreamWriter.write("__params:\n");
+                        StringBuilder content = new StringBuilder();
+                        content.append("# __api: /api").append(url).append("\n");
+                        content.append("__enabled: false\n");
+//                        content.append("# __version:\n");
+//                        content.append("__controller: ").append(controllerStub.getName()).append("\n");
+//                        content.append("__action: ").append(actionName).append("\n");
+                        content.append("__role:\n");
+                        content.append("__user:\n");
+                        content.append("__anchor:\n");
+                        content.append("__params:\n");
 
                         actionStub.getRequests().forEach((requestStub) -> {
-                            try {
-                                String requestName = requestStub.getName();
-                                outputStreamWriter.write("  " + requestName + ":\n");
-                            } catch (Exception e) {
-                                e.printStackTrace();
-                            }
+                            String requestName = requestStub.getName();
+                            content.append("  ").append(requestName).append(":\n");
                         });
-                        outputStreamWriter.write("# __testcases:\n");
-                        outputStreamWriter.write("\n");
-
+                        content.append("# __testcases:\n");
+                        content.append("\n");
 
-                        outputStreamWriter.close();
-                        fileOutputStream.close();
+                        outputSink.write(file, content.toString().getBytes(StandardCharsets.UTF_8));
                     } catch (Exception e) {
-                        e.printStackTrace();
+                        fail(e);
                     }
                 });
             });
@@ -0,0 +1,101 @@
+package com.kamicloud.generator.writers;
+
+import com.kamicloud.generator.config.GeneratorSettings;
+import com.kamicloud.generator.stubs.core.OutputStub;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * 并行执行各个处理器
+ * <p>
+ * 解析结束后模型只读，处理器之间互不依赖，
+ * 每个处理器独占一个线程，单个处理器失败不影响其他处理器。
+ */
+public class WriterExecutor {
+    private static final Logger log = LoggerFactory.getLogger(WriterExecutor.class);
+
+    @Autowired
+    GeneratorSettings generatorSettings;
+
+    private final LinkedList<BaseWriter> writers = new LinkedList<>();
+
+    public void addWriter(BaseWriter writer) {
+        writers.add(writer);
+    }
+
+    /**
+     * @param output  解析完成的模型
+     * @param process --process 参数
+     * @return 是否全部处理器执行成功
+     */
+    public boolean execute(OutputStub output, String process) {
+        List<BaseWriter> enabledWriters = writers.stream()
+            .filter(writer -> writer.isEnabled(process))
+            .collect(Collectors.toList());
+
+        if (enabledWriters.isEmpty()) {
+            return true;
+        }
+
+        ExecutorService executorService = Executors.newFixedThreadPool(
+            Math.min(enabledWriters.size(), generatorSettings.getWriterThreads()),
+            new WriterThreadFactory()
+        );
+        LinkedHashMap<String, Future<Long>> futures = new LinkedHashMap<>();
+        long start = System.nanoTime();
+
+        enabledWriters.forEach(writer -> futures.put(writer.getName(), executorService.submit(() -> {
+            long writerStart = System.nanoTime();
+            writer.run(output);
+            return System.nanoTime() - writerStart;
+        })));
+
+        boolean success = true;
+        StringBuilder summary = new StringBuilder();
+
+        try {
+            for (String name : futures.keySet()) {
+                summary.append("\n    ").append(name).append(": ");
+                try {
+                    long elapsed = futures.get(name).get();
+                    summary.append(TimeUnit.NANOSECONDS.toMillis(elapsed)).append("ms");
+                } catch (ExecutionException e) {
+                    success = false;
+                    summary.append("failed");
+                    log.error("Writer {} failed", name, e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executorService.shutdownNow();
+            return false;
+        }
+
+        executorService.shutdown();
+
+        log.info(
+            "Writers finished in {}ms:{}",
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+            summary
+        );
+
+        return success;
+    }
+
+    private static class WriterThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            return new Thread(runnable, "writer-" + count.incrementAndGet());
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.kamicloud.generator.writers.components.common;
+
+import com.kamicloud.generator.interfaces.CombinerInterface;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * 按行保存代码，每行只记录内容引用及缩进层级，不为每行创建对象
+ * <p>
+ * 缩进在输出时才生成，indent 及 insertLines 不会复制已有行的内容。null 行输出时跳过。
+ */
+public class CodeBuffer implements CombinerInterface {
+    public static final String INDENT = "    ";
+
+    private String[] lines = new String[8];
+    private int[] indents = new int[8];
+    private int size;
+
+    public CodeBuffer() {
+    }
+
+    public CodeBuffer(String... lines) {
+        for (String line : lines) {
+            addLine(line);
+        }
+    }
+
+    public CodeBuffer addLine(String line) {
+        return addLine(0, line);
+    }
+
+    /**
+     * @param indent 缩进层级，每级为 INDENT
+     */
+    public CodeBuffer addLine(int indent, String line) {
+        insert(size, indent, line);
+        return this;
+    }
+
+    /**
+     * 在 index 行之前插入
+     */
+    public void insertLines(int index, String... lines) {
+        for (int i = 0; i < lines.length; i++) {
+            insert(index + i, 0, lines[i]);
+        }
+    }
+
+    /**
+     * 所有已有的行增加缩进层级
+     */
+    public void indent(int levels) {
+        for (int i = 0; i < size; i++) {
+            indents[i] += levels;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(lines, 0, size, null);
+        size = 0;
+    }
+
+    @Override
+    public String toString() {
+        return CombinerInterface.render(this);
+    }
+
+    @Override
+    public void appendTo(Appendable out) throws IOException {
+        appendTo(out, "");
+    }
+
+    /**
+     * @param prefix 每行前额外输出的内容，用于外层缩进
+     */
+    public void appendTo(Appendable out, String prefix) throws IOException {
+        for (int i = 0; i < size; i++) {
+            String line = lines[i];
+            if (line == null) {
+                continue;
+            }
+            out.append(prefix);
+            for (int level = indents[i]; level > 0; level--) {
+                out.append(INDENT);
+            }
+            out.append(line).append('\n');
+        }
+    }
+
+    private void insert(int index, int indent, String line) {
+        if (size == lines.length) {
+            lines = Arrays.copyOf(lines, size * 2);
+            indents = Arrays.copyOf(indents, size * 2);
+        }
+        if (index < size) {
+            System.arraycopy(lines, index, lines, index + 1, size - index);
+            System.arraycopy(indents, index, indents, index + 1, size - index);
+        }
+        lines[index] = line;
+        indents[index] = indent;
+        size++;
+    }
+}
@@ -2,20 +2,31 @@ package com.kamicloud.generator.writers.components.common;
 
 import com.kamicloud.generator.interfaces.CombinerInterface;
 
-import java.util.LinkedList;
+import java.io.IOException;
+import java.util.ArrayList;
 
 public class Combiner implements CombinerInterface {
-    protected LinkedList<CombinerInterface> blocks = new LinkedList<>();
+    protected ArrayList<CombinerInterface> blocks = new ArrayList<>();
+
+    /**
+     * 连续 addLine 的行保存在同一个 CodeBuffer 中，addBlock 后重新创建
+     */
+    private CodeBuffer lines;
 
     public void addBlock(CombinerInterface block) {
         blocks.add(block);
+        lines = null;
     }
 
     public void addLine(String line) {
         if (line == null) {
             line = "";
         }
-        blocks.add(new MultiLinesCombiner(line));
+        if (lines == null) {
+            lines = new CodeBuffer();
+            blocks.add(lines);
+        }
+        lines.addLine(line);
     }
 
     public void addLine() {
@@ -23,10 +34,14 @@ public class Combiner implements CombinerInterface {
     }
 
     public String toString() {
-        StringBuilder stringBuilder = new StringBuilder();
-        blocks.forEach(block -> stringBuilder.append(block));
+        return CombinerInterface.render(this);
+    }
 
-        return stringBuilder.toString();
+    @Override
+    public void appendTo(Appendable out) throws IOException {
+        for (CombinerInterface block : blocks) {
+            block.appendTo(out);
+        }
     }
 
     public void addMultiLines(String... lines) {
@@ -1,26 +1,35 @@
 package com.kamicloud.generator.writers.components.common;
 
-import com.kamicloud.generator.config.DefaultProfileUtil;
 import com.kamicloud.generator.interfaces.CombinerInterface;
-import org.springframework.core.env.Environment;
+import com.kamicloud.generator.utils.OutputManifest;
+import com.kamicloud.generator.utils.Tracer;
 
-import java.io.File;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.io.OutputStreamWriter;
+import java.io.*;
 import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
 
 public class FileCombiner extends Combiner implements FileWriter, CombinerInterface {
+    private static OutputManifest manifest = new OutputManifest(null);
+    private static String forceSuffix;
+
     protected String fileName;
 
+    public static void setManifest(OutputManifest manifest) {
+        FileCombiner.manifest = manifest;
+    }
+
+    /**
+     * @param forceSuffix 所有文件名追加的后缀，为 null 时不追加
+     */
+    public static void setForceSuffix(String forceSuffix) {
+        FileCombiner.forceSuffix = forceSuffix;
+    }
+
     public void setFileName(String fileName) {
         this.fileName = fileName;
-        Environment environment = DefaultProfileUtil.getEnv();
-
-        String suffix = environment.getProperty("generator.writers.force-suffix");
 
-        if (suffix != null) {
-            this.fileName = fileName + suffix;
+        if (forceSuffix != null) {
+            this.fileName = fileName + forceSuffix;
         }
     }
 
@@ -33,31 +42,41 @@ public class FileCombiner extends Combiner implements FileWriter, CombinerInterf
         return new File(getOutputFilename()).exists();
     }
 
-    public void toFile() throws IOException {
-        String fileName = getOutputFilename();
-        File file = new File(fileName);
-        if (!file.getParentFile().exists()) {
-            file.getParentFile().mkdirs();
-        }
-        FileOutputStream fileOutputStream = new FileOutputStream(fileName);
-        OutputStreamWriter outputStreamWriter = new OutputStreamWriter(fileOutputStream, StandardCharsets.UTF_8);
-
-        outputStreamWriter.write(toString());
+    /**
+     * 内容没有变化时沿用上次生成的文件
+     *
+     * @return 是否可以跳过生成
+     */
+    public boolean keep() {
+        return manifest.keep(new File(getOutputFilename()));
+    }
 
-        outputStreamWriter.close();
-        fileOutputStream.close();
+    public void toFile() throws IOException {
+        Tracer.span("toFile", "file", getOutputFilename()).run(() -> {
+            // 各层 combiner 直接写入编码后的字节，同时计算摘要，不再拼接完整的字符串
+            ByteArrayOutputStream content = new ByteArrayOutputStream(8192);
+            DigestOutputStream digest = new DigestOutputStream(content, OutputManifest.digest());
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(digest, StandardCharsets.UTF_8))) {
+                appendTo(writer);
+            }
+            manifest.write(new File(getOutputFilename()), content.toByteArray(), digest.getMessageDigest());
+        });
     }
 
     public static void build(String fileName, String content) throws IOException {
         build(fileName, content, false);
     }
 
+    /**
+     * @param replace 为 false 时不覆盖已存在的文件，该文件仍记录在清单中，不会被清理
+     */
     public static void build(String fileName, String content, boolean replace) throws IOException {
-        if (new File(fileName).exists() && !replace) {
-            return;
-        }
         FileCombiner fileCombiner = new FileCombiner();
         fileCombiner.setFileName(fileName);
+        if (!replace && fileCombiner.exists()) {
+            manifest.preserve(new File(fileCombiner.getOutputFilename()));
+            return;
+        }
         fileCombiner.addBlock(new MultiLinesCombiner(content));
 
         fileCombiner.toFile();
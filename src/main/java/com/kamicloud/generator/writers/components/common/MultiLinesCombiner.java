@@ -2,24 +2,28 @@ package com.kamicloud.generator.writers.components.common;
 
 import com.kamicloud.generator.interfaces.CombinerInterface;
 
-import java.util.Arrays;
-import java.util.LinkedList;
+import java.io.IOException;
 
 public class MultiLinesCombiner extends Combiner implements CombinerInterface {
-    private LinkedList<String> blocks;
+    private final CodeBuffer content = new CodeBuffer();
 
     public MultiLinesCombiner(String ...blocks) {
-        this.blocks = new LinkedList<>(Arrays.asList(blocks));
+        for (String block : blocks) {
+            addLine(block);
+        }
     }
 
     public String toString() {
-        StringBuilder stringBuilder = new StringBuilder();
-        blocks.forEach(block -> stringBuilder.append(block).append("\n"));
+        return CombinerInterface.render(this);
+    }
 
-        return stringBuilder.toString();
+    @Override
+    public void appendTo(Appendable out) throws IOException {
+        content.appendTo(out);
     }
 
     public void addLine(String line) {
-        blocks.add(line);
+        // 与 StringBuilder.append 相同，null 输出为 "null"
+        content.addLine(String.valueOf(line));
     }
 }
@@ -2,6 +2,8 @@ package com.kamicloud.generator.writers.components.java;
 
 import com.kamicloud.generator.interfaces.CombinerInterface;
 
+import java.io.IOException;
+
 public class ClassAttributeCombiner implements CombinerInterface {
     private ClassCombiner classCombiner;
     private String type;
@@ -18,7 +20,12 @@ public class ClassAttributeCombiner implements CombinerInterface {
     }
 
     public String toString() {
-        return "    " + access + " " + type + " " + name + ";\n";
+        return CombinerInterface.render(this);
+    }
+
+    @Override
+    public void appendTo(Appendable out) throws IOException {
+        out.append("    ").append(access).append(" ").append(type).append(" ").append(name).append(";\n");
     }
 
     public ClassCombiner getClassCombiner() {
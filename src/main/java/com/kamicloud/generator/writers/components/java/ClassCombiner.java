@@ -75,18 +75,22 @@ public class ClassCombiner extends FileCombiner implements CombinerInterface, Ad
     }
 
     public String toString() {
-        StringBuilder content = new StringBuilder();
+        return CombinerInterface.render(this);
+    }
 
+    @Override
+    public void appendTo(Appendable content) throws IOException {
         content.append("package ").append(classpath).append(";\n\n");
 
         HashSet<String> unqiueUses = new HashSet<>(imports);
+        String self = packagePath + "\\" + className;
 
-        unqiueUses.forEach(use -> {
-            if (use.equals(packagePath + "\\" + className)) {
-                return;
+        for (String use : unqiueUses) {
+            if (use.equals(self)) {
+                continue;
             }
             content.append("use ").append(use).append(";\n");
-        });
+        }
         if (unqiueUses.size() > 0) {
             content.append("\n");
         }
@@ -104,16 +108,18 @@ public class ClassCombiner extends FileCombiner implements CombinerInterface, Ad
         content.append("{\n");
 
 //        constants.forEach(constant -> content.append(constant.toString()).append("\n"));
-        attributes.forEach(attribute -> content.append(attribute.toString()));
+        for (ClassAttributeCombiner attribute : attributes) {
+            attribute.appendTo(content);
+        }
         if (attributes.size() > 0) {
             content.append("\n");
         }
-        methods.forEach(method -> content.append(method.toString()).append("\n"));
-
+        for (ClassMethodCombiner method : methods) {
+            method.appendTo(content);
+            content.append("\n");
+        }
 
         content.append("}\n");
-
-        return content.toString();
     }
 
 //    public static String getNamespaceFromFullNamespace(String namespace) {
@@ -168,12 +174,4 @@ public class ClassCombiner extends FileCombiner implements CombinerInterface, Ad
         ClassCombiner.root = root;
         ClassCombiner.javaClasspath = javaClasspath;
     }
-
-    @Override
-    public void toFile() throws IOException {
-        blocks.clear();
-        blocks.add(this);
-
-        super.toFile();
-    }
 }
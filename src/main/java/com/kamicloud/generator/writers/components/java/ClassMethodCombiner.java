@@ -1,7 +1,9 @@
 package com.kamicloud.generator.writers.components.java;
 
 import com.kamicloud.generator.interfaces.CombinerInterface;
+import com.kamicloud.generator.writers.components.common.CodeBuffer;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -12,7 +14,7 @@ public class ClassMethodCombiner implements CombinerInterface, AddImportInterfac
     private String access;
     private boolean statical = false;
     private ArrayList<ClassMethodParameterCombiner> parameters = new ArrayList<>();
-    private ArrayList<String> body = new ArrayList<>();
+    private final CodeBuffer body = new CodeBuffer();
     private ArrayList<String> comments = new ArrayList<>();
 
     private ClassCombiner classCombiner;
@@ -52,15 +54,10 @@ public class ClassMethodCombiner implements CombinerInterface, AddImportInterfac
     }
 
     public void wrapBody(ArrayList<String> header, ArrayList<String> footer) {
-        ArrayList<String> body = new ArrayList<>(header);
-
-        this.body.forEach(line -> {
-            body.add(intend + line);
-        });
-
-        body.addAll(footer);
-
-        this.body = body;
+        // 只修改已有行的缩进层级，不复制内容
+        body.indent(1);
+        body.insertLines(0, header.toArray(new String[0]));
+        footer.forEach(body::addLine);
     }
 
     public void setBody(String ...body) {
@@ -68,12 +65,12 @@ public class ClassMethodCombiner implements CombinerInterface, AddImportInterfac
     }
 
     public void setBody(ArrayList<String> body) {
-        this.body = new ArrayList<>();
+        this.body.clear();
         body.forEach(this::addBody);
     }
 
     public void addBody(String line) {
-        body.add(line);
+        body.addLine(line);
     }
 
     public void addBody(String ...lines) {
@@ -93,11 +90,16 @@ public class ClassMethodCombiner implements CombinerInterface, AddImportInterfac
 
     @Override
     public String toString() {
-        StringBuilder content = new StringBuilder();
+        return CombinerInterface.render(this);
+    }
 
+    @Override
+    public void appendTo(Appendable content) throws IOException {
         if (comments.size() > 0) {
             content.append("    /**\n");
-            comments.forEach(comment -> content.append("     * ").append(comment).append("\n"));
+            for (String comment : comments) {
+                content.append("     * ").append(comment).append("\n");
+            }
             content.append("     */\n");
         }
         content.append(intend).append(access != null ? access : "public").append(" ");
@@ -105,21 +107,15 @@ public class ClassMethodCombiner implements CombinerInterface, AddImportInterfac
             content.append("static ");
         }
         content.append("function ").append(name).append("(");
-        ArrayList<String> parameterArray = new ArrayList<>();
-
-        parameters.forEach(parameter -> parameterArray.add(parameter.toString()));
-        content.append(String.join(", ", parameterArray));
-        content.append(") {");
-        if (body != null && body.size() > 0) {
-            body.forEach(line -> {
-                if (line != null) {
-                    content.append(intend).append(intend).append(line).append("\n");
-                }
-            });
+        for (int i = 0; i < parameters.size(); i++) {
+            if (i > 0) {
+                content.append(", ");
+            }
+            parameters.get(i).appendTo(content);
         }
+        content.append(") {");
+        body.appendTo(content, intend + intend);
         content.append(intend).append("}\n");
-
-        return content.toString();
     }
 
     public ClassCombiner getClassCombiner() {
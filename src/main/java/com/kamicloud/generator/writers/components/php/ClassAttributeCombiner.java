@@ -2,6 +2,8 @@ package com.kamicloud.generator.writers.components.php;
 
 import com.kamicloud.generator.interfaces.CombinerInterface;
 
+import java.io.IOException;
+
 public class ClassAttributeCombiner implements CombinerInterface {
     private ClassCombiner classCombiner;
     private String name;
@@ -20,7 +22,12 @@ public class ClassAttributeCombiner implements CombinerInterface {
 
     @Override
     public String toString() {
-        return "    " + access + " $" + name + ";\n";
+        return CombinerInterface.render(this);
+    }
+
+    @Override
+    public void appendTo(Appendable out) throws IOException {
+        out.append("    ").append(access).append(" $").append(name).append(";\n");
     }
 
     public ClassCombiner getClassCombiner() {
@@ -2,6 +2,7 @@ package com.kamicloud.generator.writers.components.php;
 
 import com.kamicloud.generator.interfaces.PHPNamespacePathTransformerInterface;
 import com.kamicloud.generator.interfaces.CombinerInterface;
+import com.kamicloud.generator.writers.components.common.FileCombiner;
 import com.kamicloud.generator.writers.components.common.FileWriter;
 
 import java.io.*;
@@ -10,7 +11,10 @@ import java.util.Arrays;
 import java.util.HashSet;
 
 public class ClassCombiner implements FileWriter, CombinerInterface, AddUseInterface {
-    private static PHPNamespacePathTransformerInterface namespacePathTransformer;
+    /**
+     * 处理器并行执行，每个线程使用各自的路径转换
+     */
+    private static final ThreadLocal<PHPNamespacePathTransformerInterface> namespacePathTransformer = new ThreadLocal<>();
     protected String fileName;
     private String namespace;
     private ArrayList<String> uses = new ArrayList<>();
@@ -36,14 +40,23 @@ public class ClassCombiner implements FileWriter, CombinerInterface, AddUseInter
             this.extend = addUse(extend);
         }
 
-        if (namespacePathTransformer == null) {
+        if (namespacePathTransformer.get() == null) {
             throw new Exception("no namespacePathTransformer found.");
         }
-        this.fileName = namespacePathTransformer.namespaceToPath(namespace);
+        this.fileName = namespacePathTransformer.get().namespaceToPath(namespace);
+    }
+
+    /**
+     * 直接使用完整类名作为父类，不添加 use，用于父类与当前类同名的情况
+     *
+     * @param extend 以 \\ 开头的完整类名
+     */
+    public void setExtend(String extend) {
+        this.extend = extend;
     }
 
     public static void setNamespacePathTransformer(PHPNamespacePathTransformerInterface namespacePathTransformer) {
-        ClassCombiner.namespacePathTransformer = namespacePathTransformer;
+        ClassCombiner.namespacePathTransformer.set(namespacePathTransformer);
     }
 
     public ClassCombiner addConstant(ClassConstantCombiner classConstantCombiner) {
@@ -82,18 +95,22 @@ public class ClassCombiner implements FileWriter, CombinerInterface, AddUseInter
     }
 
     public String toString() {
-        StringBuilder content = new StringBuilder();
+        return CombinerInterface.render(this);
+    }
 
+    @Override
+    public void appendTo(Appendable content) throws IOException {
         content.append("namespace ").append(namespace).append(";\n\n");
 
         HashSet<String> unqiueUses = new HashSet<>(uses);
+        String self = namespace + "\\" + className;
 
-        unqiueUses.forEach(use -> {
-            if (use.equals(namespace + "\\" + className)) {
-                return;
+        for (String use : unqiueUses) {
+            if (use.equals(self)) {
+                continue;
             }
             content.append("use ").append(use).append(";\n");
-        });
+        }
         if (unqiueUses.size() > 0) {
             content.append("\n");
         }
@@ -110,21 +127,28 @@ public class ClassCombiner implements FileWriter, CombinerInterface, AddUseInter
         content.append("\n");
         content.append("{\n");
 
-        traits.forEach(trait -> content.append("    use ").append(trait).append(";\n"));
+        for (String trait : traits) {
+            content.append("    use ").append(trait).append(";\n");
+        }
         if (traits.size() > 0) {
             content.append("\n");
         }
-        constants.forEach(constant -> content.append(constant.toString()).append("\n"));
-        attributes.forEach(attribute -> content.append(attribute.toString()));
+        for (ClassConstantCombiner constant : constants) {
+            constant.appendTo(content);
+            content.append("\n");
+        }
+        for (ClassAttributeCombiner attribute : attributes) {
+            attribute.appendTo(content);
+        }
         if (attributes.size() > 0) {
             content.append("\n");
         }
-        methods.forEach(method -> content.append(method.toString()).append("\n"));
-
+        for (ClassMethodCombiner method : methods) {
+            method.appendTo(content);
+            content.append("\n");
+        }
 
         content.append("}\n");
-
-        return content.toString();
     }
 
     public static String getNamespaceFromFullNamespace(String namespace) {
@@ -166,6 +190,17 @@ public class ClassCombiner implements FileWriter, CombinerInterface, AddUseInter
         this.fileName = fileName;
     }
 
+    /**
+     * @return 上次生成的文件仍然有效，可以跳过生成
+     */
+    public boolean keep() {
+        // 与 PHPFileCombiner.toFile 相同的文件名
+        FileCombiner fileCombiner = new FileCombiner();
+        fileCombiner.setFileName(fileName);
+
+        return fileCombiner.keep();
+    }
+
     @Override
     public void toFile() throws IOException {
         PHPFileCombiner fileCombiner = new PHPFileCombiner();
@@ -3,6 +3,7 @@ package com.kamicloud.generator.writers.components.php;
 import com.kamicloud.generator.stubs.core.EnumStub;
 import com.kamicloud.generator.interfaces.CombinerInterface;
 
+import java.io.IOException;
 import java.util.ArrayList;
 
 public class ClassConstantCombiner implements CombinerInterface {
@@ -27,17 +28,27 @@ public class ClassConstantCombiner implements CombinerInterface {
 
     @Override
     public String toString() {
+        return CombinerInterface.render(this);
+    }
+
+    @Override
+    public void appendTo(Appendable out) throws IOException {
         String intend = "    ";
-        String valueString = String.join("\n" + intend, lines);
-        String prefix = intend + access + " const " + name + " = ";
-        if (type != null) {
-            if (type != EnumStub.EnumStubItemType.STRING) {
-                return prefix + valueString + ";\n";
-            } else {
-                return prefix + "'" + valueString + "';\n";
+        boolean quoted = type == EnumStub.EnumStubItemType.STRING;
+
+        out.append(intend).append(access).append(" const ").append(name).append(" = ");
+        if (quoted) {
+            out.append('\'');
+        }
+        for (int i = 0; i < lines.size(); i++) {
+            if (i > 0) {
+                out.append('\n').append(intend);
             }
+            out.append(lines.get(i));
         }
-
-        return prefix + valueString + ";\n";
+        if (quoted) {
+            out.append('\'');
+        }
+        out.append(";\n");
     }
 }
@@ -2,6 +2,8 @@ package com.kamicloud.generator.writers.components.php;
 
 import com.kamicloud.generator.interfaces.CombinerInterface;
 
+import java.io.IOException;
+
 public class ClassMethodParameterCombiner implements CombinerInterface, AddUseInterface {
 
     private ClassMethodCombiner classMethodCombiner;
@@ -30,17 +32,18 @@ public class ClassMethodParameterCombiner implements CombinerInterface, AddUseIn
 
     @Override
     public String toString() {
-        String string;
-        if (type == null) {
-            string = "$" + name;
-        } else {
-            string = type + " $" + name;
+        return CombinerInterface.render(this);
+    }
+
+    @Override
+    public void appendTo(Appendable out) throws IOException {
+        if (type != null) {
+            out.append(type).append(' ');
         }
+        out.append('$').append(name);
         if (defaultValue != null) {
-            string += " = " + defaultValue;
+            out.append(" = ").append(defaultValue);
         }
-
-        return string;
     }
 
     @Override
@@ -11,8 +11,9 @@ public class PHPFileCombiner extends Combiner implements FileWriter, CombinerInt
     protected String fileName;
 
     @Override
-    public String toString() {
-        return "<?php\n\n" + super.toString();
+    public void appendTo(Appendable out) throws IOException {
+        out.append("<?php\n\n");
+        super.appendTo(out);
     }
 
     @Override
@@ -1,5 +1,5 @@
 cd ..
 javac -d "./storage/generator" -encoding UTF-8 -classpath "./storage/generator/*;./storage/generator;."  .\resources\generator\definitions\types\* .\resources\generator\templates\*
-java -classpath "./storage/generator/*;./storage/generator;./resources/generator;." com.kamicloud.generator.Generator
+java -classpath "./storage/generator/*;./storage/generator;./resources/generator;." com.kamicloud.generator.GeneratorCli
 php artisan stub-api:sync-services
 pause
@@ -0,0 +1,6 @@
+cd ..
+java -classpath "./storage/generator/*;./storage/generator" com.kamicloud.generator.daemon.GeneratorClient %*
+if errorlevel 1 goto end
+php artisan stub-api:sync-services
+:end
+pause
@@ -0,0 +1,143 @@
+package com.kamicloud.generator.config;
+
+import com.kamicloud.generator.daemon.GeneratorDaemon;
+import org.junit.Test;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class GeneratorSettingsTest {
+    @Test
+    public void defaultsAreFilledIn() {
+        GeneratorSettings settings = new GeneratorSettings(new GeneratorProperties(), new StandardEnvironment());
+
+        assertEquals("", settings.getProcess());
+        assertEquals("api", settings.getApiPrefix());
+        assertEquals("/api", settings.getUrlPrefix());
+        assertEquals("./src/main/java/templates", settings.getTemplatePath());
+        assertEquals("http://localhost", settings.getTestHost());
+        assertEquals("./build/generator/manifest.json", settings.getManifestPath());
+        assertEquals("./build/generator/parse-cache.json", settings.getParseCachePath());
+        assertEquals("reflection", settings.getParser());
+        assertFalse(settings.isCompileTemplates());
+        assertEquals("", settings.getTracePath());
+        assertEquals("", settings.getDiffReportPath());
+        assertEquals(GeneratorDaemon.DEFAULT_PORT, settings.getDaemonPort());
+        assertEquals(Runtime.getRuntime().availableProcessors(), settings.getWriterThreads());
+        assertEquals(2, settings.getIoThreads());
+        assertEquals(256, settings.getIoQueue());
+        assertNull(settings.getForceSuffix());
+        assertEquals("DTOs", settings.getDtoFolder());
+        assertEquals("DTO", settings.getDtoSuffix());
+        assertFalse(settings.isLaravelShareVersions());
+        assertNull(settings.getAutoTestPath());
+        assertEquals("", settings.getAutoTestTestcasesPath());
+        assertFalse(settings.isAutoTestForceReplace());
+        assertNull(settings.getWriters(""));
+    }
+
+    @Test
+    public void configuredValuesAreUsed() {
+        GeneratorProperties properties = new GeneratorProperties();
+        properties.setApiPrefix("v");
+        properties.setParser("source");
+        properties.setDaemonPort(9000);
+        properties.setTestHost("http://api.test");
+        // 为空时不保存清单
+        properties.setManifestPath("");
+        properties.getWriters().setThreads(3);
+        properties.getWriters().setIoThreads(0);
+        properties.getWriters().setIoQueue(16);
+        GeneratorProperties.Writers.Laravel laravel = new GeneratorProperties.Writers.Laravel();
+        laravel.setDtoFolder("Dto");
+        laravel.setShareVersions(true);
+        properties.getWriters().setLaravel(laravel);
+        GeneratorProperties.Writers.LaravelAutoTest autoTest = new GeneratorProperties.Writers.LaravelAutoTest();
+        autoTest.setPath("./output/laravel");
+        autoTest.setForceReplace(true);
+        properties.getWriters().setLaravelAutoTest(autoTest);
+
+        StandardEnvironment env = new StandardEnvironment();
+        env.getPropertySources().addFirst(new MapPropertySource("args", Collections.singletonMap("process", "laravel-auto-test")));
+
+        GeneratorSettings settings = new GeneratorSettings(properties, env);
+
+        assertEquals("laravel-auto-test", settings.getProcess());
+        assertEquals("/v", settings.getUrlPrefix());
+        assertEquals("source", settings.getParser());
+        assertEquals("http://api.test", settings.getTestHost());
+        assertEquals("", settings.getManifestPath());
+        assertEquals(9000, settings.getDaemonPort());
+        assertEquals(3, settings.getWriterThreads());
+        // 0 表示在处理器线程中直接写入
+        assertEquals(0, settings.getIoThreads());
+        assertEquals(16, settings.getIoQueue());
+        assertEquals("Dto", settings.getDtoFolder());
+        assertEquals("DTO", settings.getDtoSuffix());
+        assertTrue(settings.isLaravelShareVersions());
+        assertEquals("./output/laravel", settings.getAutoTestPath());
+        assertTrue(settings.isAutoTestForceReplace());
+    }
+
+    @Test
+    public void invalidThreadCountsFallBackToDefaults() {
+        GeneratorProperties properties = new GeneratorProperties();
+        properties.getWriters().setThreads(0);
+        properties.getWriters().setIoThreads(-1);
+        properties.getWriters().setIoQueue(0);
+
+        GeneratorSettings settings = new GeneratorSettings(properties, new StandardEnvironment());
+
+        assertEquals(Runtime.getRuntime().availableProcessors(), settings.getWriterThreads());
+        assertEquals(2, settings.getIoThreads());
+        assertEquals(256, settings.getIoQueue());
+    }
+
+    @Test
+    public void residentModesCompileTemplates() {
+        assertTrue(new GeneratorSettings(new GeneratorProperties(), resident("daemon")).isCompileTemplates());
+        assertTrue(new GeneratorSettings(new GeneratorProperties(), resident("watch")).isCompileTemplates());
+
+        GeneratorProperties properties = new GeneratorProperties();
+        properties.setParser("source");
+        assertFalse(new GeneratorSettings(properties, resident("daemon")).isCompileTemplates());
+        assertFalse(new GeneratorSettings(properties, resident("watch")).isCompileTemplates());
+    }
+
+    @Test
+    public void writersAreSnapshotPerProcess() {
+        GeneratorProperties properties = new GeneratorProperties();
+        ArrayList<String> defaults = new ArrayList<>(Arrays.asList("laravel", "doc"));
+        properties.getProcess().setDefaults(defaults);
+        properties.getProcess().setLaravelAutoTest(new ArrayList<>(Collections.singletonList("laravel-auto-test")));
+
+        GeneratorSettings settings = new GeneratorSettings(properties, new StandardEnvironment());
+        defaults.add("postman");
+
+        List<String> writers = settings.getWriters("");
+        assertEquals(Arrays.asList("laravel", "doc"), writers);
+        assertEquals(Collections.singletonList("laravel-auto-test"), settings.getWriters("laravel-auto-test"));
+        try {
+            writers.add("postman");
+            fail("expected UnsupportedOperationException");
+        } catch (UnsupportedOperationException expected) {
+            // 只读
+        }
+    }
+
+    /**
+     * @param mode --watch 或 --daemon
+     */
+    private static StandardEnvironment resident(String mode) {
+        StandardEnvironment env = new StandardEnvironment();
+        env.getPropertySources().addFirst(new MapPropertySource("args", Collections.singletonMap(mode, "")));
+
+        return env;
+    }
+}
@@ -0,0 +1,103 @@
+package com.kamicloud.generator.parsers;
+
+import com.kamicloud.generator.stubs.core.*;
+import com.kamicloud.generator.stubs.snapshot.ApiSnapshot;
+import definitions.types.EnumType;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class ParseCacheTest {
+    /**
+     * HashMap 中的迭代顺序为 V1_1、V1、V2、V3
+     */
+    private static final List<String> VERSIONS = Arrays.asList("V1", "V1_1", "V2", "V3");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void cachedOutputKeepsTemplateOrder() {
+        OutputStub parsed = parsed();
+        ParseCache cache = new ParseCache(new File(folder.getRoot(), "parse-cache.json"));
+        cache.save("fingerprint", parsed);
+
+        ApiSnapshot snapshot = cache.load("fingerprint");
+        assertNotNull(snapshot);
+        OutputStub loaded = new OutputStub();
+        ModelLoader modelLoader = new ModelLoader();
+        modelLoader.outputStub = loaded;
+        modelLoader.load(snapshot);
+        loaded.postParse("/api");
+
+        assertEquals(VERSIONS, names(loaded.getTemplateList()));
+        assertEquals("V1", loaded.getCurrentTemplate().getName());
+        for (int i = 0; i < VERSIONS.size(); i++) {
+            TemplateStub expected = parsed.getTemplateList().get(i);
+            TemplateStub actual = loaded.getTemplateList().get(i);
+
+            assertEquals(expected.getModels().get(0).getSharedVersion(), actual.getModels().get(0).getSharedVersion());
+            assertEquals(expected.getEnums().get(0).getSharedVersion(), actual.getEnums().get(0).getSharedVersion());
+        }
+        assertNull(loaded.getTemplates().get("V1").getModels().get(0).getSharedVersion());
+        assertEquals("V1", loaded.getTemplates().get("V1_1").getModels().get(0).getSharedVersion());
+    }
+
+    @Test
+    public void fingerprintMismatchMisses() {
+        ParseCache cache = new ParseCache(new File(folder.getRoot(), "parse-cache.json"));
+        cache.save("fingerprint", parsed());
+
+        assertNull(cache.load("other"));
+        assertNull(cache.load(null));
+    }
+
+    /**
+     * 与 Parser 相同，按 TemplateList 的顺序加入内容相同的各版本
+     */
+    private static OutputStub parsed() {
+        OutputStub output = new OutputStub();
+        VERSIONS.forEach(name -> {
+            TemplateStub template = version(name);
+            output.addTemplate(template);
+            if (name.equals("V1")) {
+                output.setCurrentTemplate(template);
+            }
+        });
+        output.postParse("/api");
+
+        return output;
+    }
+
+    /**
+     * 一个枚举 Status 及引用它的模型 User
+     */
+    private static TemplateStub version(String name) {
+        TemplateStub template = new TemplateStub(name, "templates.Template" + name);
+        String prefix = template.getClasspath();
+
+        EnumStub status = new EnumStub("Status", prefix + ".Enums.Status");
+        status.addItem("A", prefix + ".Enums.Status.A", "a", EnumStub.EnumStubItemType.STRING);
+        template.addEnum(status);
+
+        ModelStub user = new ModelStub("User", prefix + ".Models.User", template);
+        ParameterStub parameter = new ParameterStub("status", prefix + ".Models.User.status", "Status", status.getClasspath());
+        parameter.setTypeName(prefix + "$Enums$Status");
+        parameter.setType(new EnumType());
+        user.addParameter(parameter);
+        template.addModel(user);
+
+        return template;
+    }
+
+    private static List<String> names(List<TemplateStub> templates) {
+        return templates.stream().map(TemplateStub::getName).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,102 @@
+package com.kamicloud.generator.stubs.core;
+
+import definitions.annotations.Memo;
+import definitions.annotations.Middleware;
+import definitions.annotations.Optional;
+import definitions.annotations.Transactional;
+import org.junit.Test;
+
+import java.util.BitSet;
+
+import static org.junit.Assert.*;
+
+public class AnnotationRegistryTest {
+    @Test
+    public void classAndNameShareId() {
+        int id = AnnotationRegistry.id(Optional.class);
+
+        assertEquals(id, AnnotationRegistry.id(Optional.class));
+        assertEquals(id, AnnotationRegistry.id(Optional.class.getName()));
+        assertNotEquals(id, AnnotationRegistry.id(Memo.class));
+        assertTrue(id < AnnotationRegistry.size());
+    }
+
+    @Test
+    public void extendableDetectedFromClassAndName() {
+        // ModelLoader 只有类型名称
+        int middleware = AnnotationRegistry.id(Middleware.class.getName());
+        int transactional = AnnotationRegistry.id(Transactional.class);
+        int optional = AnnotationRegistry.id(Optional.class);
+
+        assertTrue(AnnotationRegistry.isExtendable(middleware));
+        assertTrue(AnnotationRegistry.isExtendable(transactional));
+        assertFalse(AnnotationRegistry.isExtendable(optional));
+    }
+
+    @Test
+    public void unknownTypeIsNotExtendable() {
+        int id = AnnotationRegistry.id("definitions.annotations.Missing");
+
+        assertFalse(AnnotationRegistry.isExtendable(id));
+        assertEquals(id, AnnotationRegistry.id("definitions.annotations.Missing"));
+    }
+
+    @Test
+    public void getExtendableIsCopy() {
+        int optional = AnnotationRegistry.id(Optional.class);
+        BitSet extendable = AnnotationRegistry.getExtendable();
+        extendable.set(optional);
+
+        assertFalse(AnnotationRegistry.isExtendable(optional));
+    }
+
+    @Test
+    public void onlyExtendableAnnotationsAreInherited() {
+        ControllerStub controller = new ControllerStub("User", "templates.TemplateV1.Controllers.User");
+        AnnotationStub transactional = new AnnotationStub("Transactional");
+        controller.addAnnotation(Transactional.class.getName(), transactional);
+        controller.addAnnotation(Memo.class.getName(), new AnnotationStub("Memo"));
+        ActionStub action = new ActionStub("Get", controller.getClasspath() + ".Get");
+        action.setParentNode(controller);
+
+        // resolveAnnotations 之前逐级查找父节点
+        assertTrue(action.hasAnnotation(Transactional.class));
+        assertFalse(action.hasAnnotation(Memo.class));
+
+        action.resolveAnnotations(AnnotationRegistry.getExtendable());
+
+        assertTrue(action.hasAnnotation(Transactional.class));
+        assertSame(transactional, action.getAnnotation(Transactional.class));
+        assertFalse(action.hasAnnotation(Memo.class));
+        assertNull(action.getAnnotation(Memo.class));
+        // getAnnotations 不含父节点上的注解
+        assertTrue(action.getAnnotations().isEmpty());
+    }
+
+    @Test
+    public void ownAnnotationOverridesInherited() {
+        ControllerStub controller = new ControllerStub("User", "templates.TemplateV1.Controllers.User");
+        controller.addAnnotation(Middleware.class.getName(), new AnnotationStub("Middleware"));
+        ActionStub action = new ActionStub("Get", controller.getClasspath() + ".Get");
+        AnnotationStub own = new AnnotationStub("Middleware");
+        action.addAnnotation(Middleware.class.getName(), own);
+        action.setParentNode(controller);
+
+        action.resolveAnnotations(AnnotationRegistry.getExtendable());
+
+        assertSame(own, action.getAnnotation(Middleware.class));
+    }
+
+    @Test
+    public void annotationRegisteredAfterResolveIsAbsent() {
+        ActionStub action = new ActionStub("Get", "templates.TemplateV1.Controllers.User.Get");
+        action.resolveAnnotations(AnnotationRegistry.getExtendable());
+
+        // 注解类型在 resolveAnnotations 之后才编号
+        assertFalse(action.hasAnnotation(Late.class));
+        assertNull(action.getAnnotation(Late.class));
+    }
+
+    private @interface Late {
+    }
+}
@@ -0,0 +1,41 @@
+package com.kamicloud.generator.stubs.core;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class OutputStubTest {
+    @Test
+    public void postParseComputesActionUris() {
+        TemplateStub template = new TemplateStub("V1_1", "templates.TemplateV1_1");
+        ControllerStub controller = new ControllerStub("UserProfile", template.getClasspath() + ".Controllers.UserProfile");
+        ActionStub action = new ActionStub("GetAvatarUrl", controller.getClasspath() + ".GetAvatarUrl");
+        controller.addAction(action);
+        template.addController(controller);
+
+        OutputStub output = new OutputStub();
+        output.addTemplate(template);
+        output.postParse("/open");
+
+        assertEquals("/v1_1/user_profile/get_avatar_url", action.getUri());
+        assertEquals("/open/v1_1/user_profile/get_avatar_url", action.getFullUri());
+    }
+
+    @Test
+    public void templateListKeepsDeclaredOrder() {
+        TemplateStub v1 = new TemplateStub("V1", "templates.TemplateV1");
+        TemplateStub v11 = new TemplateStub("V1_1", "templates.TemplateV1_1");
+        TemplateStub v2 = new TemplateStub("V2", "templates.TemplateV2");
+
+        OutputStub output = new OutputStub();
+        output.setTemplates(Arrays.asList(v1, v11, v2));
+
+        assertEquals(Arrays.asList(v1, v11, v2), output.getTemplateList());
+        assertSame(v11, output.getTemplates().get("V1_1"));
+
+        output.reset();
+        assertTrue(output.getTemplateList().isEmpty());
+    }
+}
@@ -0,0 +1,55 @@
+package com.kamicloud.generator.stubs.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class StubNamesTest {
+    @Test
+    public void convertsUpperCamelName() {
+        StubNames names = StubNames.of("UserProfileId");
+
+        assertEquals("UserProfileId", names.upperCamelName);
+        assertEquals("userProfileId", names.lowerCamelName);
+        assertEquals("user_profile_id", names.lowerUnderScoreName);
+        assertEquals("USER_PROFILE_ID", names.upperUnderScoreName);
+    }
+
+    @Test
+    public void sameNameIsShared() {
+        assertSame(StubNames.of("Id"), StubNames.of("Id"));
+        assertNotSame(StubNames.of("Id"), StubNames.of("Name"));
+    }
+
+    @Test
+    public void stubsUseSharedNames() {
+        ParameterStub a = new ParameterStub("createdAt", "templates.TemplateV1.Models.User.createdAt", "String", "java.lang.String");
+        ParameterStub b = new ParameterStub("createdAt", "templates.TemplateV1.Models.Article.createdAt", "String", "java.lang.String");
+
+        assertEquals("created_at", a.getLowerUnderScoreName());
+        assertEquals("CREATED_AT", a.getUpperUnderScoreName());
+        assertSame(a.getLowerCamelName(), b.getLowerCamelName());
+    }
+
+    @Test
+    public void commentPartsFollowSetComment() {
+        ModelStub model = new ModelStub("User", "templates.TemplateV1.Models.User", null);
+        assertEquals("", model.getCommentTitle());
+        assertEquals(0, model.getCommentLength());
+        assertFalse(model.hasCommentBody());
+        assertNull(model.getBrCommentBody());
+
+        model.setComment(" 用户 \n\n  详细说明 ");
+
+        assertEquals("用户", model.getCommentTitle());
+        assertEquals(2, model.getCommentLength());
+        assertTrue(model.hasCommentBody());
+        assertEquals("用户<br>详细说明", model.getBrCommentBody());
+
+        // 追加注释后重新拆分
+        model.setComment("补充");
+
+        assertEquals(3, model.getCommentLength());
+        assertEquals("用户<br>详细说明<br>补充", model.getBrCommentBody());
+    }
+}
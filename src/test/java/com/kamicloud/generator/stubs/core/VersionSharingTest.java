@@ -0,0 +1,129 @@
+package com.kamicloud.generator.stubs.core;
+
+import definitions.annotations.Transactional;
+import definitions.types.EnumType;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import static org.junit.Assert.*;
+
+public class VersionSharingTest {
+    @Test
+    public void identicalVersionsShareEarliestVersion() {
+        TemplateStub v1 = version("V1", "A", "B");
+        TemplateStub v2 = version("V2", "A", "B");
+        TemplateStub v3 = version("V3", "A", "B");
+
+        share(v1, v2, v3);
+
+        assertNull(model(v1).getSharedVersion());
+        assertNull(v1.getEnums().get(0).getSharedVersion());
+        assertEquals("V1", model(v2).getSharedVersion());
+        assertEquals("V1", v2.getEnums().get(0).getSharedVersion());
+        assertEquals("V1", model(v3).getSharedVersion());
+        assertEquals("V1", v3.getEnums().get(0).getSharedVersion());
+    }
+
+    @Test
+    public void sharedStubsKeepTheirOwnData() {
+        TemplateStub v1 = version("V1", "A");
+        TemplateStub v2 = version("V2", "A");
+
+        share(v1, v2);
+
+        ParameterStub parameter = model(v2).getParameters().get(0);
+        assertEquals("templates.TemplateV2.Models.User.status", parameter.getClasspath());
+        assertEquals("templates.TemplateV2.Enums.Status", parameter.getTypeClasspath());
+        assertNotSame(v1.getEnums().get(0).getItems(), v2.getEnums().get(0).getItems());
+    }
+
+    @Test
+    public void changedEnumIsNotSharedNorItsReferences() {
+        TemplateStub v1 = version("V1", "A");
+        TemplateStub v2 = version("V2", "A", "B");
+
+        share(v1, v2);
+
+        assertNull(v2.getEnums().get(0).getSharedVersion());
+        // 模型本身相同，但引用的枚举不同
+        assertNull(model(v2).getSharedVersion());
+    }
+
+    @Test
+    public void changedAnnotationIsNotShared() {
+        TemplateStub v1 = version("V1", "A");
+        TemplateStub v2 = version("V2", "A");
+        AnnotationStub annotationStub = new AnnotationStub("Transactional");
+        annotationStub.setValue("changed");
+        model(v2).addAnnotation(Transactional.class.getName(), annotationStub);
+
+        share(v1, v2);
+
+        assertNull(model(v2).getSharedVersion());
+        assertEquals("V1", v2.getEnums().get(0).getSharedVersion());
+    }
+
+    @Test
+    public void inheritedExtendableAnnotationIsCompared() {
+        TemplateStub v1 = version("V1", "A");
+        TemplateStub v2 = version("V2", "A");
+        v2.addAnnotation(Transactional.class.getName(), new AnnotationStub("Transactional"));
+        model(v1).setParentNode(v1);
+        model(v2).setParentNode(v2);
+
+        share(v1, v2);
+
+        assertTrue(model(v2).hasAnnotation(Transactional.class));
+        assertNull(model(v2).getSharedVersion());
+    }
+
+    /**
+     * 一个枚举 Status 及引用它的模型 User
+     */
+    private static TemplateStub version(String name, String... items) {
+        TemplateStub template = new TemplateStub(name, "templates.Template" + name);
+        String prefix = template.getClasspath();
+
+        EnumStub status = new EnumStub("Status", prefix + ".Enums.Status");
+        for (String item : items) {
+            status.addItem(item, prefix + ".Enums.Status." + item, item, EnumStub.EnumStubItemType.STRING);
+        }
+        template.addEnum(status);
+
+        ModelStub user = new ModelStub("User", prefix + ".Models.User", template);
+        ParameterStub parameter = new ParameterStub("status", prefix + ".Models.User.status", "Status", status.getClasspath());
+        parameter.setType(new EnumType());
+        user.addParameter(parameter);
+        template.addModel(user);
+
+        return template;
+    }
+
+    private static ModelStub model(TemplateStub template) {
+        return template.getModels().get(0);
+    }
+
+    /**
+     * 与 OutputStub.postParse 的顺序相同
+     */
+    private static void share(TemplateStub... templates) {
+        BitSet extendable = AnnotationRegistry.getExtendable();
+
+        for (TemplateStub template : templates) {
+            template.getModels().forEach(ModelStub::freeze);
+            template.resolveAnnotations(extendable);
+            template.getEnums().forEach(enumStub -> {
+                enumStub.resolveAnnotations(extendable);
+                enumStub.getItems().forEach((key, item) -> item.resolveAnnotations(extendable));
+            });
+            template.getModels().forEach(modelStub -> {
+                modelStub.resolveAnnotations(extendable);
+                modelStub.getParameters().forEach(parameterStub -> parameterStub.resolveAnnotations(extendable));
+            });
+        }
+
+        VersionSharing.share(Arrays.asList(templates));
+    }
+}
@@ -0,0 +1,182 @@
+package com.kamicloud.generator.stubs.diff;
+
+import com.kamicloud.generator.stubs.core.*;
+import com.kamicloud.generator.stubs.diff.ChangeSet.Change;
+import com.kamicloud.generator.stubs.diff.ChangeSet.EntityType;
+import com.kamicloud.generator.stubs.diff.ChangeSet.Kind;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class ModelDiffTest {
+    private static final String PREFIX = "templates.TemplateV1";
+
+    @Test
+    public void identicalOutputsHaveNoChanges() {
+        OutputStub before = output(userController());
+        OutputStub after = output(userController());
+
+        ChangeSet changes = ModelDiff.diff(before, after);
+
+        assertTrue(changes.isEmpty());
+        assertEquals("no changes", changes.toString());
+        assertEquals("", changes.toReport());
+        assertTrue(changes.isUnchanged(after.getTemplates().get("V1")));
+    }
+
+    @Test
+    public void addedActionTouchesItsController() {
+        OutputStub before = output(userController());
+        ControllerStub controller = userController();
+        controller.addAction(new ActionStub("Delete", controller.getClasspath() + ".Delete"));
+        ControllerStub other = new ControllerStub("Other", PREFIX + ".Controllers.Other");
+        OutputStub after = output(controller);
+        after.getTemplates().get("V1").addController(other);
+        before.getTemplates().get("V1").addController(new ControllerStub("Other", PREFIX + ".Controllers.Other"));
+
+        ChangeSet changes = ModelDiff.diff(before, after);
+
+        assertEquals(1, changes.getChanges().size());
+        Change change = changes.getChanges().get(0);
+        assertEquals(Kind.ADDED, change.getKind());
+        assertEquals(EntityType.ACTION, change.getType());
+        assertEquals(controller.getClasspath() + ".Delete", change.getClasspath());
+        assertFalse(changes.isUnchanged(controller));
+        assertTrue(changes.isUnchanged(other));
+    }
+
+    @Test
+    public void removedActionIsReported() {
+        ControllerStub controller = userController();
+        controller.addAction(new ActionStub("Delete", controller.getClasspath() + ".Delete"));
+        OutputStub before = output(controller);
+        OutputStub after = output(userController());
+
+        ChangeSet changes = ModelDiff.diff(before, after);
+
+        assertEquals(
+            "- action " + PREFIX + ".Controllers.User.Delete\n",
+            changes.toReport()
+        );
+    }
+
+    @Test
+    public void typeChangeWithSameSimpleNameReportsClasspath() {
+        OutputStub before = output(userController());
+        ControllerStub controller = userController();
+        ActionStub action = controller.getActions().get(0);
+        action.getRequests().clear();
+        action.addRequest(new ParameterStub("user", action.getClasspath() + ".user", "User", "templates.TemplateV2.Models.User"));
+        OutputStub after = output(controller);
+
+        ChangeSet changes = ModelDiff.diff(before, after);
+
+        assertEquals(
+            Collections.singletonList("~request user (type " + PREFIX + ".Models.User -> templates.TemplateV2.Models.User)"),
+            changes.getChanges().get(0).getDetails()
+        );
+    }
+
+    @Test
+    public void arrayDepthChangeIsReported() {
+        OutputStub before = output(userController());
+        ControllerStub controller = userController();
+        controller.getActions().get(0).getRequests().get(0).setArrayDepth(1);
+        OutputStub after = output(controller);
+
+        ChangeSet changes = ModelDiff.diff(before, after);
+
+        assertEquals(
+            Collections.singletonList("~request user (type " + PREFIX + ".Models.User -> " + PREFIX + ".Models.User[])"),
+            changes.getChanges().get(0).getDetails()
+        );
+    }
+
+    @Test
+    public void parameterAddedAndReordered() {
+        OutputStub before = output(userController("a", "b"));
+        OutputStub after = output(userController("b", "a", "c"));
+
+        ChangeSet changes = ModelDiff.diff(before, after);
+
+        Change change = changes.getChanges().get(0);
+        assertEquals(Kind.CHANGED, change.getKind());
+        assertEquals(Arrays.asList("+response c", "response order"), change.getDetails());
+        assertEquals(
+            "~ action " + PREFIX + ".Controllers.User.Get: +response c, response order",
+            change.toString()
+        );
+    }
+
+    @Test
+    public void enumItemsAndErrorsAreCompared() {
+        OutputStub before = output(userController());
+        before.getTemplates().get("V1").addEnum(status("A", "B"));
+        before.addError(new ErrorStub("NotFound", "templates.Errors.NotFound", "404", "not found"));
+        OutputStub after = output(userController());
+        after.getTemplates().get("V1").addEnum(status("B", "C"));
+        after.addError(new ErrorStub("NotFound", "templates.Errors.NotFound", "410", "not found"));
+
+        ChangeSet changes = ModelDiff.diff(before, after);
+
+        assertEquals(
+            "~ enum " + PREFIX + ".Enums.Status: +item C, -item A\n" +
+                "~ error templates.Errors.NotFound: code\n",
+            changes.toReport()
+        );
+    }
+
+    @Test
+    public void commentAndAnnotationChanges() {
+        OutputStub before = output(userController());
+        ControllerStub controller = userController();
+        ActionStub action = controller.getActions().get(0);
+        action.setComment("获取用户");
+        action.getRequests().get(0).addAnnotation("definitions.annotations.Optional", new AnnotationStub("Optional"));
+        OutputStub after = output(controller);
+
+        ChangeSet changes = ModelDiff.diff(before, after);
+
+        assertEquals(
+            Arrays.asList("comment", "~request user (+@Optional)"),
+            changes.getChanges().get(0).getDetails()
+        );
+    }
+
+    /**
+     * 控制器 User，接口 Get 的请求为 User 模型，响应为字符串字段
+     */
+    private static ControllerStub userController(String... responses) {
+        ControllerStub controller = new ControllerStub("User", PREFIX + ".Controllers.User");
+        ActionStub action = new ActionStub("Get", controller.getClasspath() + ".Get");
+        action.addRequest(new ParameterStub("user", action.getClasspath() + ".user", "User", PREFIX + ".Models.User"));
+        for (String response : responses) {
+            action.addResponse(new ParameterStub(response, action.getClasspath() + "." + response, "String", "definitions.types.StringType"));
+        }
+        controller.addAction(action);
+
+        return controller;
+    }
+
+    private static EnumStub status(String... items) {
+        EnumStub status = new EnumStub("Status", PREFIX + ".Enums.Status");
+        for (String item : items) {
+            status.addItem(item, status.getClasspath() + "." + item, item, EnumStub.EnumStubItemType.STRING);
+        }
+
+        return status;
+    }
+
+    private static OutputStub output(ControllerStub controller) {
+        TemplateStub template = new TemplateStub("V1", PREFIX);
+        template.addController(controller);
+
+        OutputStub output = new OutputStub();
+        output.setTemplates(Collections.singletonList(template));
+
+        return output;
+    }
+}
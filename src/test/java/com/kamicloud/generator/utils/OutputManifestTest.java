@@ -0,0 +1,171 @@
+package com.kamicloud.generator.utils;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class OutputManifestTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File manifestFile;
+    private File outputDir;
+
+    @Before
+    public void setUp() throws IOException {
+        manifestFile = new File(folder.getRoot(), "manifest.json");
+        outputDir = folder.newFolder("output");
+    }
+
+    @Test
+    public void writeSkipsUnchangedContent() throws IOException {
+        File file = new File(outputDir, "a.php");
+
+        OutputManifest manifest = load();
+        assertTrue(manifest.write(file, bytes("a")));
+        manifest.publish();
+        manifest.save();
+        assertEquals("a", read(file));
+
+        manifest = load();
+        assertFalse(manifest.write(file, bytes("a")));
+        assertTrue(manifest.write(file, bytes("b")));
+        // publish 之前不修改输出文件
+        assertEquals("a", read(file));
+        manifest.publish();
+        assertEquals("b", read(file));
+    }
+
+    @Test
+    public void writeRewritesFileResizedOnDisk() throws IOException {
+        File file = new File(outputDir, "a.php");
+
+        OutputManifest manifest = load();
+        manifest.write(file, bytes("a"));
+        manifest.publish();
+        manifest.save();
+        Files.write(file.toPath(), bytes("edited"));
+
+        manifest = load();
+        assertTrue(manifest.write(file, bytes("a")));
+        manifest.publish();
+        assertEquals("a", read(file));
+    }
+
+    @Test
+    public void digestMatchesContentHash() throws IOException {
+        File file = new File(outputDir, "a.php");
+
+        OutputManifest manifest = load();
+        manifest.write(file, bytes("a"));
+        manifest.publish();
+        manifest.save();
+
+        MessageDigest digest = OutputManifest.digest();
+        digest.update(bytes("a"));
+        assertFalse(load().write(file, bytes("a"), digest));
+    }
+
+    @Test
+    public void keepRequiresPreviousEntryAndFile() throws IOException {
+        File file = new File(outputDir, "a.php");
+
+        OutputManifest manifest = load();
+        assertFalse(manifest.keep(file));
+        manifest.write(file, bytes("a"));
+        manifest.publish();
+        manifest.save();
+
+        assertTrue(load().keep(file));
+
+        assertTrue(file.delete());
+        assertFalse(load().keep(file));
+    }
+
+    @Test
+    public void pruneDeletesStaleFilesOnlyOnPublish() throws IOException {
+        File stale = new File(outputDir, "old/Stale.php");
+        File kept = new File(outputDir, "Kept.php");
+        File written = new File(outputDir, "Written.php");
+
+        OutputManifest manifest = load();
+        manifest.write(stale, bytes("stale"));
+        manifest.write(kept, bytes("kept"));
+        manifest.publish();
+        manifest.save();
+
+        manifest = load();
+        assertTrue(manifest.keep(kept));
+        manifest.write(written, bytes("written"));
+        manifest.prune(outputDir);
+
+        assertTrue(stale.exists());
+        assertFalse(written.exists());
+
+        manifest.publish();
+
+        assertFalse(stale.exists());
+        assertFalse(stale.getParentFile().exists());
+        assertTrue(kept.exists());
+        assertTrue(written.exists());
+        assertTrue(outputDir.exists());
+    }
+
+    @Test
+    public void discardKeepsPreviousOutput() throws IOException {
+        File stale = new File(outputDir, "Stale.php");
+        File changed = new File(outputDir, "Changed.php");
+
+        OutputManifest manifest = load();
+        manifest.write(stale, bytes("stale"));
+        manifest.write(changed, bytes("old"));
+        manifest.publish();
+        manifest.save();
+
+        manifest = load();
+        manifest.write(changed, bytes("new"));
+        manifest.write(new File(outputDir, "Added.php"), bytes("added"));
+        manifest.prune(outputDir);
+        manifest.discard();
+        manifest.save();
+
+        assertTrue(stale.exists());
+        assertEquals("old", read(changed));
+        assertArrayEquals(new String[]{"Changed.php", "Stale.php"}, sorted(outputDir.list()));
+        // 下次成功生成时仍能识别为上次的输出
+        manifest = load();
+        assertTrue(manifest.keep(stale));
+        assertFalse(manifest.write(changed, bytes("old")));
+    }
+
+    private OutputManifest load() {
+        OutputManifest manifest = new OutputManifest(manifestFile);
+        manifest.load();
+
+        return manifest;
+    }
+
+    private static String[] sorted(String[] names) {
+        Arrays.sort(names);
+
+        return names;
+    }
+
+    private static byte[] bytes(String content) {
+        return content.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String read(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,167 @@
+package com.kamicloud.generator.utils;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+public class OutputSinkTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void synchronousWriteReplacesFileOnCommit() throws IOException {
+        File file = new File(folder.getRoot(), "a/b/File.php");
+        OutputSink sink = new OutputSink(0, 1);
+
+        sink.write(file, bytes("old"));
+        assertFalse(file.exists());
+        sink.commit();
+        assertEquals("old", read(file));
+
+        sink.write(file, bytes("new"));
+        sink.flush();
+        assertEquals("old", read(file));
+        sink.commit();
+
+        assertEquals("new", read(file));
+        assertArrayEquals(new String[]{"File.php"}, file.getParentFile().list());
+    }
+
+    @Test
+    public void discardKeepsTargetFiles() throws IOException {
+        File file = new File(folder.getRoot(), "File.php");
+        File added = new File(folder.getRoot(), "Added.php");
+        OutputSink sink = new OutputSink(1, 4);
+        sink.write(file, bytes("old"));
+        sink.flush();
+        sink.commit();
+
+        sink.write(file, bytes("new"));
+        sink.write(added, bytes("added"));
+        sink.flush();
+
+        assertEquals(
+            new HashSet<>(Arrays.asList(file.toPath(), added.toPath())),
+            sink.discard()
+        );
+        assertEquals("old", read(file));
+        assertArrayEquals(new String[]{"File.php"}, folder.getRoot().list());
+
+        // 已放弃的文件不再替换
+        sink.commit();
+        assertFalse(added.exists());
+    }
+
+    @Test
+    public void asyncWritesCompleteOnFlush() throws IOException {
+        OutputSink sink = new OutputSink(2, 4);
+
+        for (int i = 0; i < 100; i++) {
+            sink.write(new File(folder.getRoot(), "dir" + i % 5 + "/File" + i + ".php"), bytes("content" + i));
+        }
+        sink.flush();
+        sink.commit();
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals("content" + i, read(new File(folder.getRoot(), "dir" + i % 5 + "/File" + i + ".php")));
+        }
+    }
+
+    @Test
+    public void flushReportsFailureOnce() throws IOException {
+        File notDirectory = folder.newFile("file");
+        OutputSink sink = new OutputSink(1, 4);
+
+        sink.write(new File(notDirectory, "File.php"), bytes("content"));
+        try {
+            sink.flush();
+            fail("expected IOException");
+        } catch (IOException expected) {
+            // 目录无法创建
+        }
+
+        sink.write(new File(folder.getRoot(), "File.php"), bytes("content"));
+        sink.flush();
+        sink.commit();
+        assertEquals("content", read(new File(folder.getRoot(), "File.php")));
+    }
+
+    /**
+     * I/O 线程阻塞在 FIFO 上，队列已满时提交方等待
+     */
+    @Test(timeout = 10000)
+    public void writeBlocksWhenQueueIsFull() throws Exception {
+        File blocked = new File(folder.getRoot(), "Blocked.php");
+        File fifo = new File(folder.getRoot(), ".Blocked.php.generating");
+        assumeTrue(mkfifo(fifo));
+
+        OutputSink sink = new OutputSink(1, 1);
+        sink.write(blocked, bytes("blocked"));
+
+        File next = new File(folder.getRoot(), "Next.php");
+        CountDownLatch submitted = new CountDownLatch(1);
+        Thread producer = new Thread(() -> {
+            try {
+                sink.write(next, bytes("next"));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            submitted.countDown();
+        });
+        producer.start();
+
+        assertFalse(submitted.await(200, TimeUnit.MILLISECONDS));
+
+        try (InputStream in = new FileInputStream(fifo)) {
+            assertEquals("blocked", readAll(in));
+        }
+
+        assertTrue(submitted.await(5, TimeUnit.SECONDS));
+        sink.flush();
+        sink.commit();
+        assertEquals("next", read(next));
+    }
+
+    private static boolean mkfifo(File file) {
+        try {
+            return new ProcessBuilder("mkfifo", file.getAbsolutePath()).start().waitFor() == 0;
+        } catch (IOException | InterruptedException e) {
+            return false;
+        }
+    }
+
+    private static byte[] bytes(String content) {
+        return content.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String read(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+
+    private static String readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[256];
+        int read;
+        while ((read = in.read(buffer)) >= 0) {
+            out.write(buffer, 0, read);
+        }
+
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,96 @@
+package com.kamicloud.generator.writers.components.common;
+
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CodeBufferTest {
+    @Test
+    public void addLineWithIndent() {
+        CodeBuffer buffer = new CodeBuffer()
+            .addLine("if (a) {")
+            .addLine(1, "return;")
+            .addLine("}");
+
+        assertEquals("if (a) {\n    return;\n}\n", buffer.toString());
+    }
+
+    @Test
+    public void indentOnlyAffectsExistingLines() {
+        CodeBuffer buffer = new CodeBuffer("a", "b");
+        buffer.indent(2);
+        buffer.addLine("c");
+
+        assertEquals("        a\n        b\nc\n", buffer.toString());
+    }
+
+    @Test
+    public void insertLinesBeforeIndex() {
+        CodeBuffer buffer = new CodeBuffer("body();");
+        buffer.indent(1);
+        buffer.insertLines(0, "wrap(function () {");
+        buffer.addLine("});");
+
+        assertEquals("wrap(function () {\n    body();\n});\n", buffer.toString());
+    }
+
+    @Test
+    public void insertLinesInMiddle() {
+        CodeBuffer buffer = new CodeBuffer("a", "d");
+        buffer.insertLines(1, "b", "c");
+
+        assertEquals("a\nb\nc\nd\n", buffer.toString());
+    }
+
+    @Test
+    public void nullLinesAreSkipped() {
+        CodeBuffer buffer = new CodeBuffer("a", null, "b");
+
+        assertEquals(3, buffer.size());
+        assertEquals("a\nb\n", buffer.toString());
+    }
+
+    @Test
+    public void appendToWithPrefix() throws IOException {
+        CodeBuffer buffer = new CodeBuffer("a").addLine(1, "b");
+        StringBuilder out = new StringBuilder();
+        buffer.appendTo(out, "  ");
+
+        assertEquals("  a\n      b\n", out.toString());
+    }
+
+    @Test
+    public void growsBeyondInitialCapacity() {
+        CodeBuffer buffer = new CodeBuffer();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            buffer.addLine(i % 3, "line" + i);
+            for (int level = 0; level < i % 3; level++) {
+                expected.append(CodeBuffer.INDENT);
+            }
+            expected.append("line").append(i).append('\n');
+        }
+
+        assertEquals(100, buffer.size());
+        assertEquals(expected.toString(), buffer.toString());
+    }
+
+    @Test
+    public void clear() {
+        CodeBuffer buffer = new CodeBuffer("a", "b");
+        buffer.clear();
+
+        assertTrue(buffer.isEmpty());
+        assertEquals("", buffer.toString());
+    }
+
+    @Test
+    public void multiLinesCombinerKeepsNullAsText() {
+        MultiLinesCombiner combiner = new MultiLinesCombiner("a", null);
+
+        assertEquals("a\nnull\n", combiner.toString());
+    }
+}
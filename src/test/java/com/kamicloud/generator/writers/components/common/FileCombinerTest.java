@@ -0,0 +1,75 @@
+package com.kamicloud.generator.writers.components.common;
+
+import com.kamicloud.generator.utils.OutputManifest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+public class FileCombinerTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File outputDir;
+    private OutputManifest manifest;
+
+    @Before
+    public void setUp() throws IOException {
+        outputDir = folder.newFolder("output");
+        manifest = new OutputManifest(new File(folder.getRoot(), "manifest.json"));
+        manifest.load();
+        FileCombiner.setManifest(manifest);
+    }
+
+    @After
+    public void tearDown() {
+        FileCombiner.setManifest(new OutputManifest(null));
+    }
+
+    @Test
+    public void existingFileIsNotReplacedOrPruned() throws IOException {
+        File edited = new File(outputDir, "Edited.php");
+        Files.write(edited.toPath(), "edited".getBytes(StandardCharsets.UTF_8));
+        File added = new File(outputDir, "Added.php");
+
+        FileCombiner.build(edited.getPath(), "generated");
+        FileCombiner.build(added.getPath(), "added");
+        manifest.prune(outputDir);
+        manifest.publish();
+        manifest.save();
+
+        assertEquals("edited", read(edited));
+        assertTrue(added.exists());
+
+        // 下次生成时同样保留
+        manifest.load();
+        FileCombiner.build(edited.getPath(), "generated");
+        manifest.prune(outputDir);
+        manifest.publish();
+
+        assertEquals("edited", read(edited));
+    }
+
+    @Test
+    public void replaceOverwritesExistingFile() throws IOException {
+        File file = new File(outputDir, "File.php");
+        Files.write(file.toPath(), "edited".getBytes(StandardCharsets.UTF_8));
+
+        FileCombiner.build(file.getPath(), "generated", true);
+        manifest.publish();
+
+        assertTrue(read(file).startsWith("generated"));
+    }
+
+    private static String read(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+}